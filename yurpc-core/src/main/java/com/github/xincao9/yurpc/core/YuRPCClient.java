@@ -16,10 +16,13 @@
 package com.github.xincao9.yurpc.core;
 
 import com.github.xincao9.yurpc.core.config.ClientConfig;
+import com.github.xincao9.yurpc.core.config.ConsumerConfig;
 import com.github.xincao9.yurpc.core.impl.YuRPCClientImpl;
+import com.github.xincao9.yurpc.core.protocol.Endpoint;
 import com.github.xincao9.yurpc.core.protocol.Request;
 import com.github.xincao9.yurpc.core.protocol.Response;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 客户端
@@ -38,6 +41,22 @@ public interface YuRPCClient {
      */
     <T> Response<T> invoke(Request request) throws Throwable;
 
+    /**
+     * 异步调用方法
+     *
+     * @param <T> 类型
+     * @param request 请求
+     * @return 调用结果的 future，在 IO 线程上完成，超时和连接失败以响应码表示
+     */
+    <T> CompletableFuture<Response<T>> invokeAsync(Request request);
+
+    /**
+     * 各提供者当前的自适应并发限制，yurpc.client.maxConcurrency 为 0 时为空
+     *
+     * @return 端点到并发限制的映射
+     */
+    Map<Endpoint, Integer> getConcurrencyLimits();
+
     /**
      * 启动
      *
@@ -84,20 +103,23 @@ public interface YuRPCClient {
     }
 
     /**
-     * 获得请求对象容器
+     * 获得接口的代理
      *
-     * @return 请求对象容器
+     * @param <T> 类型
+     * @param clazz 接口
+     * @return 代理对象
      */
-    Map<Long, Request> getRequests();
+    <T> T proxy(Class<T> clazz);
 
     /**
      * 获得接口的代理
      *
      * @param <T> 类型
      * @param clazz 接口
+     * @param consumerConfig 服务消费者配置
      * @return 代理对象
      */
-    <T> T proxy(Class<T> clazz);
+    <T> T proxy(Class<T> clazz, ConsumerConfig consumerConfig);
 
     /**
      * 修改器
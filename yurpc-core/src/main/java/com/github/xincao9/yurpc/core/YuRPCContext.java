@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 调用上下文，保存当前线程上的调用截止时间。提供者执行服务方法时设置为客户端传来的截止时间，
+ * 服务方法中发起的 yurpc 调用的超时时间不超过剩余时间；消费者也可以在发起调用前自行设置
+ *
+ * @author xincao9@gmail.com
+ */
+public class YuRPCContext {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal();
+
+    /**
+     * 截止时间
+     *
+     * @return System.nanoTime() 时间，0 表示没有截止时间
+     */
+    public static long getDeadline() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? 0 : deadline;
+    }
+
+    /**
+     * 剩余时间
+     *
+     * @return 毫秒，已经过期时不大于 0，没有截止时间时返回 Long.MAX_VALUE
+     */
+    public static long getRemainingMS() {
+        long deadline = getDeadline();
+        if (deadline == 0) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    /**
+     * 设置截止时间
+     *
+     * @param deadline System.nanoTime() 时间，0 表示清除
+     */
+    public static void setDeadline(long deadline) {
+        if (deadline == 0) {
+            DEADLINE.remove();
+        } else {
+            DEADLINE.set(deadline);
+        }
+    }
+
+}
@@ -15,8 +15,12 @@
  */
 package com.github.xincao9.yurpc.core;
 
+import com.github.xincao9.yurpc.core.impl.EventLoopStats;
+import com.github.xincao9.yurpc.core.impl.ServiceMethod;
 import com.github.xincao9.yurpc.core.impl.YuRPCServerImpl;
+import com.github.xincao9.yurpc.core.config.ProviderConfig;
 import com.github.xincao9.yurpc.core.config.ServerConfig;
+import java.util.Map;
 
 /**
  * 服务组件
@@ -100,6 +104,15 @@ public interface YuRPCServer {
      */
     <T> void register(T obj);
 
+    /**
+     * 服务注册
+     *
+     * @param <T> 组建类型
+     * @param obj 服务组件
+     * @param providerConfig 服务提供者配置
+     */
+    <T> void register(T obj, ProviderConfig providerConfig);
+
     /**
      * 获取组建
      *
@@ -108,6 +121,44 @@ public interface YuRPCServer {
      */
     Object getBean(String name);
 
+    /**
+     * 获取服务提供者配置
+     *
+     * @param name 组建类型名
+     * @return 服务提供者配置，没有时返回 null
+     */
+    ProviderConfig getProviderConfig(String name);
+
+    /**
+     * 根据编号获取服务方法
+     *
+     * @param id 方法编号
+     * @return 服务方法，不存在时返回 null
+     */
+    ServiceMethod getServiceMethod(int id);
+
+    /**
+     * 根据签名获取服务方法
+     *
+     * @param signature 方法签名
+     * @return 服务方法，不存在时返回 null
+     */
+    ServiceMethod getServiceMethod(String signature);
+
+    /**
+     * 方法表，握手时下发给客户端
+     *
+     * @return 方法签名到编号的映射
+     */
+    Map<String, Integer> getMethodTable();
+
+    /**
+     * 每条消息占用 IO 线程的时间
+     *
+     * @return 统计
+     */
+    EventLoopStats getEventLoopStats();
+
     /**
      * 修改器
      *
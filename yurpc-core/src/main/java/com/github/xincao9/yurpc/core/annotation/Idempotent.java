@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 幂等方法，标注在服务接口方法上；连接失败时换一个提供者重试，
+ * 超过该方法 p95 耗时还没有响应时向另一个提供者发送对冲请求，先到的响应生效。
+ * 重试和对冲都受 yurpc.client.retryBudgetPercent 限制
+ *
+ * @author xincao9@gmail.com
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Idempotent {
+
+    /**
+     * 是否发送对冲请求
+     *
+     * @return 默认发送
+     */
+    boolean hedge() default true;
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 服务方法的限流，标注在服务接口或实现类的方法上；提供者在分发前检查，超过限制的调用立即返回 RATE LIMITED，
+ * 不占用业务线程。yurpc.server.rateLimits 中的同名配置优先；配置按 服务名.方法名 由同名的重载方法共用一个限流器
+ *
+ * @author xincao9@gmail.com
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimit {
+
+    /**
+     * 每秒许可数，只限制标注的方法，重载的方法分别计算
+     *
+     * @return 每秒许可数
+     */
+    int value();
+}
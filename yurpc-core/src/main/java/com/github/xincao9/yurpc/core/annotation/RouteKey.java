@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 路由键，标注在服务接口方法的参数上；同一个键的调用按一致性哈希固定路由到同一个提供者，
+ * 提供者增减时只有少量键会迁移。键按 toString() 的结果计算哈希，参数应为 String、基本类型及其包装类、枚举，
+ * 或覆盖了 toString() 且结果只由键的取值决定的类；参数为 null 时按没有路由键处理，随机选择提供者
+ *
+ * @author xincao9@gmail.com
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RouteKey {
+}
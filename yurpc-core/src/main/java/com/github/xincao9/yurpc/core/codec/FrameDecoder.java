@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.codec;
+
+import com.github.xincao9.yurpc.core.compressor.Compressor;
+import com.github.xincao9.yurpc.core.compressor.CompressorFactory;
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import com.github.xincao9.yurpc.core.protocol.Frame;
+import com.github.xincao9.yurpc.core.util.ByteBufUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import java.io.IOException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 二进制帧解码
+ *
+ * @author xincao9@gmail.com
+ */
+public class FrameDecoder extends ByteToMessageDecoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FrameDecoder.class);
+
+    /**
+     * 解码，消息体为累积缓冲区的切片（压缩时为解压后的新缓冲区），由下游处理器负责释放
+     *
+     * @param chc
+     * @param byteBuf
+     * @param list
+     * @throws Exception
+     */
+    @Override
+    protected void decode(ChannelHandlerContext chc, ByteBuf byteBuf, List<Object> list) throws Exception {
+        if (byteBuf.readableBytes() < ProtocolConsts.HEADER_LENGTH) {
+            return;
+        }
+        int readerIndex = byteBuf.readerIndex();
+        short magic = byteBuf.getShort(readerIndex);
+        byte version = byteBuf.getByte(readerIndex + 2);
+        int length = byteBuf.getInt(readerIndex + ProtocolConsts.BODY_LENGTH_OFFSET);
+        if (magic != ProtocolConsts.MAGIC || version != ProtocolConsts.VERSION_2 || length < 0 || length > ProtocolConsts.MAX_BODY_LENGTH) {
+            LOGGER.error("invalid frame magic = {}, version = {}, length = {}, remote = {}", magic, version, length, chc.channel().remoteAddress());
+            byteBuf.skipBytes(byteBuf.readableBytes());
+            chc.close();
+            return;
+        }
+        if (byteBuf.readableBytes() < ProtocolConsts.HEADER_LENGTH + length) {
+            return;
+        }
+        byte flags = byteBuf.getByte(readerIndex + 3);
+        byte serializer = byteBuf.getByte(readerIndex + 4);
+        long id = byteBuf.getLong(readerIndex + 5);
+        byteBuf.skipBytes(ProtocolConsts.HEADER_LENGTH);
+        if ((flags & ProtocolConsts.FLAG_COMPRESSED) != 0) {
+            ByteBuf body;
+            try {
+                body = decompress(chc, byteBuf.readSlice(length));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("frame id = {} decompress failure: {}", id, e.getMessage());
+                body = Unpooled.EMPTY_BUFFER; // 交给下游按解码失败处理
+            }
+            list.add(new Frame(version, (byte) (flags & ~ProtocolConsts.FLAG_COMPRESSED), serializer, id, body));
+            return;
+        }
+        list.add(new Frame(version, flags, serializer, id, byteBuf.readRetainedSlice(length)));
+    }
+
+    /**
+     * 解压消息体
+     *
+     * @param chc 上下文
+     * @param body 压缩的消息体
+     * @return 原始消息体
+     * @throws IOException 压缩组件不存在或者数据损坏
+     */
+    private ByteBuf decompress(ChannelHandlerContext chc, ByteBuf body) throws IOException {
+        byte id = body.readByte();
+        Compressor compressor = CompressorFactory.get(id);
+        if (compressor == null) {
+            throw new IOException(String.format("compressor = %d not found", id));
+        }
+        int length = ByteBufUtils.readVarInt(body);
+        if (length < 0 || length > ProtocolConsts.MAX_BODY_LENGTH) {
+            throw new IOException(String.format("decompressed length = %d out of range", length));
+        }
+        ByteBuf out = chc.alloc().buffer(length, length);
+        try {
+            compressor.decompress(body, out, length);
+            return out;
+        } catch (Throwable e) {
+            out.release();
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.codec;
+
+import com.github.xincao9.yurpc.core.compressor.Compressor;
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import com.github.xincao9.yurpc.core.impl.Connection;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import com.github.xincao9.yurpc.core.protocol.Response;
+import com.github.xincao9.yurpc.core.serializer.Serializer;
+import com.github.xincao9.yurpc.core.serializer.SerializerFactory;
+import com.github.xincao9.yurpc.core.util.ByteBufUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 二进制帧编码，连接协商了压缩组件时，达到阈值的消息体压缩后发送
+ *
+ * @author xincao9@gmail.com
+ */
+public class FrameEncoder extends MessageToByteEncoder<Object> {
+
+    /**
+     * 只处理请求和响应，其他消息直接透传
+     *
+     * @param msg 消息
+     * @return 是否处理
+     * @throws Exception 异常
+     */
+    @Override
+    public boolean acceptOutboundMessage(Object msg) throws Exception {
+        return msg instanceof Request || msg instanceof Response;
+    }
+
+    /**
+     * 编码
+     *
+     * @param chc
+     * @param object
+     * @param byteBuf
+     * @throws Exception
+     */
+    @Override
+    protected void encode(ChannelHandlerContext chc, Object object, ByteBuf byteBuf) throws Exception {
+        byte flags;
+        long id;
+        String name;
+        int remainingMS = 0;
+        Connection connection = Connection.get(chc.channel());
+        if (object instanceof Request) {
+            Request request = (Request) object;
+            flags = ProtocolConsts.FLAG_REQUEST;
+            if (Boolean.TRUE.equals(request.getEventType())) {
+                flags |= ProtocolConsts.FLAG_EVENT;
+            }
+            if (request.isOneway()) {
+                flags |= ProtocolConsts.FLAG_ONEWAY;
+            }
+            if (request.getDeadline() != 0 && connection != null && connection.supportsDeadline()) {
+                // 传输剩余时间而不是绝对时间，两端不需要时钟同步
+                remainingMS = (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(request.getDeadline() - System.nanoTime()));
+                flags |= ProtocolConsts.FLAG_DEADLINE;
+            }
+            id = request.getId();
+            name = request.getSerializer();
+        } else {
+            Response response = (Response) object;
+            flags = ProtocolConsts.FLAG_RESPONSE;
+            if (Boolean.TRUE.equals(response.getEventType())) {
+                flags |= ProtocolConsts.FLAG_EVENT;
+            }
+            id = response.getId();
+            name = response.getSerializer();
+        }
+        Serializer serializer = SerializerFactory.get(name);
+        if (serializer == null) {
+            serializer = SerializerFactory.getDefault();
+        }
+        int headerIndex = byteBuf.writerIndex();
+        byteBuf.writeShort(ProtocolConsts.MAGIC);
+        byteBuf.writeByte(ProtocolConsts.VERSION_2);
+        byteBuf.writeByte(flags);
+        byteBuf.writeByte(serializer.getId());
+        byteBuf.writeLong(id);
+        byteBuf.writeInt(0);
+        if (object instanceof Request) {
+            MessageCodec.encodeRequest((Request) object, serializer, byteBuf, remainingMS);
+        } else {
+            MessageCodec.encodeResponse((Response) object, serializer, byteBuf);
+        }
+        int length = byteBuf.writerIndex() - headerIndex - ProtocolConsts.HEADER_LENGTH;
+        if (connection != null && connection.getCompressor() != null && length >= connection.getCompressThreshold()) {
+            length = compress(chc, connection.getCompressor(), byteBuf, headerIndex, length);
+        }
+        byteBuf.setInt(headerIndex + ProtocolConsts.BODY_LENGTH_OFFSET, length);
+    }
+
+    /**
+     * 压缩消息体，压缩后没有变小时保持原样
+     *
+     * @param chc 上下文
+     * @param compressor 压缩组件
+     * @param byteBuf 输出缓冲区
+     * @param headerIndex 头部位置
+     * @param length 消息体长度
+     * @return 压缩后的消息体长度
+     * @throws IOException 异常
+     */
+    private int compress(ChannelHandlerContext chc, Compressor compressor, ByteBuf byteBuf, int headerIndex, int length) throws IOException {
+        int bodyIndex = headerIndex + ProtocolConsts.HEADER_LENGTH;
+        ByteBuf compressed = chc.alloc().buffer(length);
+        try {
+            compressed.writeByte(compressor.getId());
+            ByteBufUtils.writeVarInt(compressed, length);
+            compressor.compress(byteBuf.slice(bodyIndex, length), compressed);
+            int compressedLength = compressed.readableBytes();
+            if (compressedLength >= length) {
+                return length;
+            }
+            byteBuf.writerIndex(bodyIndex);
+            byteBuf.writeBytes(compressed);
+            byteBuf.setByte(headerIndex + 3, byteBuf.getByte(headerIndex + 3) | ProtocolConsts.FLAG_COMPRESSED);
+            return compressedLength;
+        } finally {
+            compressed.release();
+        }
+    }
+
+}
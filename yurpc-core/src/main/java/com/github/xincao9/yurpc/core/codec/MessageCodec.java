@@ -0,0 +1,290 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.codec;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import com.alibaba.fastjson.util.TypeUtils;
+import com.github.xincao9.yurpc.core.protocol.Frame;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import com.github.xincao9.yurpc.core.protocol.Response;
+import com.github.xincao9.yurpc.core.serializer.ClassInfo;
+import com.github.xincao9.yurpc.core.serializer.FastjsonSerializer;
+import com.github.xincao9.yurpc.core.serializer.Serializer;
+import com.github.xincao9.yurpc.core.serializer.SerializerFactory;
+import com.github.xincao9.yurpc.core.util.ByteBufUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * 消息体编解码
+ *
+ * <pre>
+ * v2 请求体: [flags 含 FLAG_DEADLINE 时: 剩余时间毫秒(varint)] requestType(1) methodId(varint) [methodId 为 0 时: method(string) paramTypes(varint + string...)] params(按参数的声明类型序列化...)
+ * v2 响应体: code(zigzag) msg(string) data(按 dataType 序列化)
+ * 旧协议: 整个请求或响应的 JSON 文本
+ * </pre>
+ *
+ * <p>参数和返回值在一次反序列化中直接绑定到方法声明的类型（含泛型），两端使用相同的声明类型</p>
+ *
+ * @author xincao9@gmail.com
+ */
+public class MessageCodec {
+
+    /**
+     * 编码旧协议消息体
+     *
+     * @param message 请求或响应
+     * @param out 输出缓冲区
+     * @throws IOException 异常
+     */
+    public static void encodeLegacy(Object message, ByteBuf out) throws IOException {
+        try (ByteBufOutputStream os = new ByteBufOutputStream(out)) {
+            JSON.writeJSONString(os, message, SerializerFeature.DisableCircularReferenceDetect);
+        }
+    }
+
+    /**
+     * 编码请求体
+     *
+     * @param request 请求
+     * @param serializer 序列化组件
+     * @param out 输出缓冲区
+     * @throws IOException 异常
+     */
+    public static void encodeRequest(Request request, Serializer serializer, ByteBuf out) throws IOException {
+        encodeRequest(request, serializer, out, 0);
+    }
+
+    /**
+     * 编码请求体
+     *
+     * @param request 请求
+     * @param serializer 序列化组件
+     * @param out 输出缓冲区
+     * @param remainingMS 剩余时间，大于 0 时写在请求体开头，帧头需要设置 FLAG_DEADLINE
+     * @throws IOException 异常
+     */
+    public static void encodeRequest(Request request, Serializer serializer, ByteBuf out, int remainingMS) throws IOException {
+        if (remainingMS > 0) {
+            ByteBufUtils.writeVarInt(out, remainingMS);
+        }
+        out.writeBoolean(Boolean.TRUE.equals(request.getRequestType()));
+        String[] paramTypes = request.getParamTypes();
+        Object[] params = request.getParams();
+        Type[] genericParamTypes = request.getGenericParamTypes();
+        int count = paramTypes == null ? 0 : paramTypes.length;
+        ByteBufUtils.writeVarInt(out, request.getMethodId());
+        if (request.getMethodId() == 0) {
+            ByteBufUtils.writeString(out, request.getMethod());
+            ByteBufUtils.writeVarInt(out, count);
+            for (int i = 0; i < count; i++) {
+                ByteBufUtils.writeString(out, paramTypes[i]);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            Object param = params == null || params.length <= i ? null : params[i];
+            Type type = genericParamTypes != null && genericParamTypes.length == count ? genericParamTypes[i] : ClassInfo.forName(paramTypes[i]);
+            serializer.serialize(param, type, out);
+        }
+    }
+
+    /**
+     * 编码响应体
+     *
+     * @param response 响应
+     * @param serializer 序列化组件
+     * @param out 输出缓冲区
+     * @throws IOException 异常
+     */
+    public static void encodeResponse(Response response, Serializer serializer, ByteBuf out) throws IOException {
+        ByteBufUtils.writeZigZagInt(out, response.getCode());
+        ByteBufUtils.writeString(out, response.getMsg());
+        serializer.serialize(response.getData(), response.getDataType(), out);
+    }
+
+    /**
+     * 解码请求，参数按 paramTypes 绑定
+     *
+     * @param frame 协议帧
+     * @return 请求
+     * @throws IOException 异常
+     */
+    public static Request decodeRequest(Frame frame) throws IOException {
+        return decodeRequest(frame, request -> null);
+    }
+
+    /**
+     * 解码请求
+     *
+     * @param frame 协议帧
+     * @param paramTypesResolver 根据方法编号或方法名和 paramTypes 返回参数的声明类型，按名字调用时返回 null 则按 paramTypes 绑定
+     * @return 请求
+     * @throws IOException 异常
+     */
+    public static Request decodeRequest(Frame frame, Function<Request, Type[]> paramTypesResolver) throws IOException {
+        if (frame.isLegacy()) {
+            Request request = FastjsonSerializer.parse(frame.content(), Request.class);
+            request.setSerializer(FastjsonSerializer.NAME);
+            Object[] params = request.getParams();
+            String[] paramTypes = request.getParamTypes();
+            if (params != null && paramTypes != null && params.length == paramTypes.length) {
+                Type[] types = resolve(paramTypesResolver, request);
+                for (int i = 0; i < params.length; i++) {
+                    params[i] = cast(params[i], types[i]);
+                }
+            }
+            return request;
+        }
+        Serializer serializer = getSerializer(frame);
+        ByteBuf in = frame.content();
+        Request request = new Request();
+        request.setId(frame.getId());
+        request.setEventType(frame.isEvent());
+        request.setOneway(frame.isOneway());
+        if (frame.hasDeadline()) {
+            request.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ByteBufUtils.readVarInt(in)));
+        }
+        request.setSerializer(serializer.getName());
+        request.setRequestType(in.readBoolean());
+        int methodId = ByteBufUtils.readVarInt(in);
+        request.setMethodId(methodId);
+        Type[] types;
+        if (methodId == 0) {
+            request.setMethod(ByteBufUtils.readString(in));
+            int count = ByteBufUtils.readVarInt(in);
+            if (count < 0 || count > in.readableBytes()) {
+                throw new IOException(String.format("param count = %d out of range", count));
+            }
+            String[] paramTypes = new String[count];
+            for (int i = 0; i < count; i++) {
+                paramTypes[i] = ByteBufUtils.readString(in);
+            }
+            request.setParamTypes(paramTypes);
+            types = resolve(paramTypesResolver, request);
+        } else {
+            types = paramTypesResolver.apply(request);
+            if (types == null) {
+                throw new IOException(String.format("method id = %d not found", methodId));
+            }
+        }
+        if (types.length > 0) {
+            Object[] params = new Object[types.length];
+            for (int i = 0; i < types.length; i++) {
+                params[i] = serializer.deserialize(in, types[i]);
+            }
+            request.setParams(params);
+        }
+        return request;
+    }
+
+    /**
+     * 解码响应
+     *
+     * @param frame 协议帧
+     * @param dataType data 的声明类型，与服务端编码时一致
+     * @return 响应
+     * @throws IOException 异常
+     */
+    public static Response decodeResponse(Frame frame, Type dataType) throws IOException {
+        return decodeResponse(frame, id -> dataType);
+    }
+
+    /**
+     * 解码响应
+     *
+     * @param frame 协议帧
+     * @param dataTypes 根据请求编号返回 data 的声明类型，返回 null 时为 Object
+     * @return 响应
+     * @throws IOException 异常
+     */
+    public static Response decodeResponse(Frame frame, LongFunction<Type> dataTypes) throws IOException {
+        if (frame.isLegacy()) {
+            Response response = FastjsonSerializer.parse(frame.content(), Response.class);
+            response.setSerializer(FastjsonSerializer.NAME);
+            if (response.getData() != null && response.getId() != null) {
+                Type dataType = dataTypes.apply(response.getId());
+                if (dataType != null) {
+                    response.setDataType(dataType);
+                    response.setData(cast(response.getData(), dataType));
+                }
+            }
+            return response;
+        }
+        Type dataType = dataTypes.apply(frame.getId());
+        if (dataType == null) {
+            dataType = Object.class;
+        }
+        Serializer serializer = getSerializer(frame);
+        ByteBuf in = frame.content();
+        Response response = new Response();
+        response.setId(frame.getId());
+        response.setEventType(frame.isEvent());
+        response.setSerializer(serializer.getName());
+        response.setCode(ByteBufUtils.readZigZagInt(in));
+        response.setMsg(ByteBufUtils.readString(in));
+        response.setDataType(dataType);
+        response.setData(serializer.deserialize(in, dataType));
+        return response;
+    }
+
+    private static Type[] resolve(Function<Request, Type[]> paramTypesResolver, Request request) throws IOException {
+        String[] paramTypes = request.getParamTypes();
+        Type[] types = paramTypesResolver.apply(request);
+        if (types != null && types.length == paramTypes.length) {
+            return types;
+        }
+        types = new Type[paramTypes.length];
+        for (int i = 0; i < paramTypes.length; i++) {
+            types[i] = ClassInfo.forName(paramTypes[i]);
+        }
+        return types;
+    }
+
+    /**
+     * 旧协议中 JSON 解析出的值（JSONObject、JSONArray 等）转换为声明类型，不再经过 JSON 文本
+     *
+     * @param value 值
+     * @param type 声明类型
+     * @return 转换后的值
+     * @throws IOException 异常
+     */
+    private static Object cast(Object value, Type type) throws IOException {
+        if (value == null || (type instanceof Class && ((Class) type).isInstance(value))) {
+            return value;
+        }
+        try {
+            return TypeUtils.cast(value, type, ParserConfig.getGlobalInstance());
+        } catch (RuntimeException e) {
+            throw new IOException(String.format("value cannot cast to %s", type.getTypeName()), e);
+        }
+    }
+
+    private static Serializer getSerializer(Frame frame) throws IOException {
+        Serializer serializer = SerializerFactory.get(frame.getSerializer());
+        if (serializer == null) {
+            throw new IOException(String.format("serializer id = %d not supported", frame.getSerializer()));
+        }
+        return serializer;
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.codec;
+
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import java.util.List;
+
+/**
+ * 协议探测，根据连接的前两个字节选择二进制帧或旧的字符串帧编解码器，
+ * 旧协议的长度前缀不可能以魔数开头（否则消息体超过 1GB），便于滚动升级
+ *
+ * @author xincao9@gmail.com
+ */
+public class ProtocolDetector extends ByteToMessageDecoder {
+
+    /**
+     * 探测协议版本并替换为对应的编解码器
+     *
+     * @param chc
+     * @param byteBuf
+     * @param list
+     * @throws Exception
+     */
+    @Override
+    protected void decode(ChannelHandlerContext chc, ByteBuf byteBuf, List<Object> list) throws Exception {
+        if (byteBuf.readableBytes() < 2) {
+            return;
+        }
+        ChannelPipeline pipeline = chc.pipeline();
+        if (byteBuf.getShort(byteBuf.readerIndex()) == ProtocolConsts.MAGIC) {
+            pipeline.addAfter(chc.name(), null, new FrameDecoder());
+            pipeline.addAfter(chc.name(), null, new FrameEncoder());
+        } else {
+            pipeline.addAfter(chc.name(), null, new StringDecoder());
+            pipeline.addAfter(chc.name(), null, new StringEncoder());
+        }
+        pipeline.remove(this);
+    }
+
+}
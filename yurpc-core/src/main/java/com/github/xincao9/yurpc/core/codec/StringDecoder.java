@@ -15,22 +15,26 @@
  */
 package com.github.xincao9.yurpc.core.codec;
 
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import com.github.xincao9.yurpc.core.protocol.Frame;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
-import java.nio.ByteBuffer;
-import java.util.Arrays;
 import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * 消息解码
+ * 消息解码（旧协议：4 字节长度前缀 + JSON 文本）
  *
  * @author xincao9@gmail.com
  */
 public class StringDecoder extends ByteToMessageDecoder {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(StringDecoder.class);
+
     /**
-     * 解码
+     * 解码，消息体为累积缓冲区的切片，不产生中间数组，由下游处理器负责释放
      *
      * @param chc
      * @param byteBuf
@@ -39,31 +43,21 @@ public class StringDecoder extends ByteToMessageDecoder {
      */
     @Override
     protected void decode(ChannelHandlerContext chc, ByteBuf byteBuf, List<Object> list) throws Exception {
-        try {
-            do {
-                int readerIndex = byteBuf.readerIndex();
-                int readableBytesSize = byteBuf.readableBytes();
-                if (readableBytesSize < 4) {
-                    byteBuf.readerIndex(readerIndex);
-                    break;
-                }
-                int size = byteBuf.readInt();
-                if (readableBytesSize - 4 < size) {
-                    byteBuf.readerIndex(readerIndex);
-                    break;
-                }
-                byteBuf.readerIndex(readerIndex);
-                ByteBuffer byteBuffer = ByteBuffer.allocate(4 + size);
-                byteBuf.readBytes(byteBuffer);
-                byte[] data = byteBuffer.array();
-                byte[] body = Arrays.copyOfRange(data, 4, data.length);
-                list.add(new String(body, "UTF-8"));
-            } while (byteBuf.isReadable());
-        } finally {
-            if (byteBuf.isReadable()) {
-                byteBuf.discardReadBytes();
-            }
+        if (byteBuf.readableBytes() < 4) {
+            return;
+        }
+        int size = byteBuf.getInt(byteBuf.readerIndex());
+        if (size < 0 || size > ProtocolConsts.MAX_BODY_LENGTH) {
+            LOGGER.error("invalid frame length = {}, remote = {}", size, chc.channel().remoteAddress());
+            byteBuf.skipBytes(byteBuf.readableBytes());
+            chc.close();
+            return;
+        }
+        if (byteBuf.readableBytes() - 4 < size) {
+            return;
         }
+        byteBuf.skipBytes(4);
+        list.add(Frame.legacy(byteBuf.readRetainedSlice(size)));
     }
 
 }
@@ -15,6 +15,8 @@
  */
 package com.github.xincao9.yurpc.core.codec;
 
+import com.github.xincao9.yurpc.core.protocol.Request;
+import com.github.xincao9.yurpc.core.protocol.Response;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
@@ -22,7 +24,7 @@ import java.util.Objects;
 import org.apache.commons.lang3.StringUtils;
 
 /**
- * 消息编码
+ * 消息编码（旧协议：4 字节长度前缀 + JSON 文本）
  *
  * @author xincao9@gmail.com
  */
@@ -39,16 +41,26 @@ public class StringEncoder extends MessageToByteEncoder<Object> {
     @Override
     protected void encode(ChannelHandlerContext chc, Object object, ByteBuf byteBuf) throws Exception {
         Objects.requireNonNull(object);
-        if (!(object instanceof String)) {
+        if (object instanceof String) {
+            String str = (String) object;
+            if (StringUtils.isBlank(str)) {
+                return;
+            }
+            byte[] data = str.getBytes("UTF-8");
+            byteBuf.writeInt(data.length);
+            byteBuf.writeBytes(data);
             return;
         }
-        String str = (String) object;
-        if (StringUtils.isBlank(str)) {
+        if (object instanceof Request && Boolean.TRUE.equals(((Request) object).getEventType())) {
+            return; // 旧协议的对端会把事件当作响应解析，不发送
+        }
+        if (!(object instanceof Request) && !(object instanceof Response)) {
             return;
         }
-        byte[] data = str.getBytes("UTF-8");
-        byteBuf.writeInt(data.length);
-        byteBuf.writeBytes(data);
+        int lengthIndex = byteBuf.writerIndex();
+        byteBuf.writeInt(0);
+        MessageCodec.encodeLegacy(object, byteBuf);
+        byteBuf.setInt(lengthIndex, byteBuf.writerIndex() - lengthIndex - 4);
     }
 
 }
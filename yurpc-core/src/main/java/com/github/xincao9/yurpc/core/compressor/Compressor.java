@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.compressor;
+
+import io.netty.buffer.ByteBuf;
+import java.io.IOException;
+
+/**
+ * 压缩扩展点，通过 ServiceLoader 加载
+ * (META-INF/services/com.github.xincao9.yurpc.core.compressor.Compressor)
+ *
+ * <p>压缩后的消息体以一个字节的压缩组件编号和变长编码的原始长度开头，之后是 compress 写入的字节</p>
+ *
+ * @author xincao9@gmail.com
+ */
+public interface Compressor {
+
+    /**
+     * 编号，写入消息体开头，全局唯一
+     *
+     * @return 编号
+     */
+    byte getId();
+
+    /**
+     * 名字，用于配置和握手协商
+     *
+     * @return 名字
+     */
+    String getName();
+
+    /**
+     * 压缩
+     *
+     * @param in 输入缓冲区，读取全部可读字节
+     * @param out 输出缓冲区
+     * @throws IOException 异常
+     */
+    void compress(ByteBuf in, ByteBuf out) throws IOException;
+
+    /**
+     * 解压
+     *
+     * @param in 输入缓冲区，读取全部可读字节
+     * @param out 输出缓冲区
+     * @param length 原始长度
+     * @throws IOException 数据损坏或者长度不符
+     */
+    void decompress(ByteBuf in, ByteBuf out, int length) throws IOException;
+}
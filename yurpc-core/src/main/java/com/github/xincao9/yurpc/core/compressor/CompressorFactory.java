@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.compressor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 压缩组件工厂
+ *
+ * @author xincao9@gmail.com
+ */
+public class CompressorFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompressorFactory.class);
+
+    private static final Compressor[] ID_COMPRESSOR = new Compressor[128];
+    private static final Map<String, Compressor> NAME_COMPRESSOR = new ConcurrentHashMap();
+    private static final List<String> NAMES;
+
+    static {
+        List<String> names = new ArrayList();
+        for (Compressor compressor : ServiceLoader.load(Compressor.class, CompressorFactory.class.getClassLoader())) {
+            byte id = compressor.getId();
+            if (id <= 0 || ID_COMPRESSOR[id] != null || NAME_COMPRESSOR.containsKey(compressor.getName())) {
+                LOGGER.warn("compressor = {} id = {} invalid or duplicate, ignored", compressor.getName(), id);
+                continue;
+            }
+            ID_COMPRESSOR[id] = compressor;
+            NAME_COMPRESSOR.put(compressor.getName(), compressor);
+            names.add(compressor.getName());
+        }
+        NAMES = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * 根据编号获取
+     *
+     * @param id 编号
+     * @return 压缩组件，不存在时返回 null
+     */
+    public static Compressor get(byte id) {
+        return id > 0 ? ID_COMPRESSOR[id] : null;
+    }
+
+    /**
+     * 根据名字获取
+     *
+     * @param name 名字
+     * @return 压缩组件，不存在时返回 null
+     */
+    public static Compressor get(String name) {
+        return name == null ? null : NAME_COMPRESSOR.get(name);
+    }
+
+    /**
+     * 已加载的压缩组件名字
+     *
+     * @return 名字列表
+     */
+    public static List<String> names() {
+        return NAMES;
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.compressor;
+
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * deflate 压缩，压缩率优先；不带 zlib 头，使用 BEST_SPEED 级别，Deflater 和 Inflater 按线程复用
+ *
+ * @author xincao9@gmail.com
+ */
+public class DeflateCompressor implements Compressor {
+
+    public static final String NAME = "deflate";
+    private static final int BUFFER_LENGTH = 8192;
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_LENGTH]);
+
+    @Override
+    public byte getId() {
+        return ProtocolConsts.COMPRESSOR_DEFLATE;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) throws IOException {
+        Deflater deflater = DEFLATER.get();
+        byte[] buffer = BUFFER.get();
+        try {
+            int length = in.readableBytes();
+            if (in.hasArray()) {
+                deflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), length);
+            } else {
+                deflater.setInput(ByteBufUtil.getBytes(in));
+            }
+            in.skipBytes(length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                out.writeBytes(buffer, 0, deflater.deflate(buffer));
+            }
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out, int length) throws IOException {
+        Inflater inflater = INFLATER.get();
+        byte[] buffer = BUFFER.get();
+        int remaining = length;
+        try {
+            int readable = in.readableBytes();
+            if (in.hasArray()) {
+                inflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), readable);
+            } else {
+                inflater.setInput(ByteBufUtil.getBytes(in));
+            }
+            in.skipBytes(readable);
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("deflate stream truncated");
+                }
+                if (n > remaining) {
+                    throw new IOException(String.format("deflate decompressed length exceeds %d", length));
+                }
+                out.writeBytes(buffer, 0, n);
+                remaining -= n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("deflate decompress failure", e);
+        } finally {
+            inflater.reset();
+        }
+        if (remaining != 0) {
+            throw new IOException(String.format("deflate decompressed length = %d, expected = %d", length - remaining, length));
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.compressor;
+
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.compression.Snappy;
+import java.io.IOException;
+
+/**
+ * snappy 压缩，速度优先；输入按块压缩，每块为 3 字节的块长度 + netty Snappy 的输出
+ *
+ * @author xincao9@gmail.com
+ */
+public class SnappyCompressor implements Compressor {
+
+    public static final String NAME = "snappy";
+    private static final int CHUNK_LENGTH = Short.MAX_VALUE; // netty Snappy 的哈希表以 short 记录位置
+
+    @Override
+    public byte getId() {
+        return ProtocolConsts.COMPRESSOR_SNAPPY;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) throws IOException {
+        Snappy snappy = new Snappy();
+        while (in.isReadable()) {
+            int length = Math.min(in.readableBytes(), CHUNK_LENGTH);
+            int lengthIndex = out.writerIndex();
+            out.writeMedium(0);
+            snappy.encode(in.readSlice(length), out, length); // netty Snappy 要求输入从下标 0 开始
+            out.setMedium(lengthIndex, out.writerIndex() - lengthIndex - 3);
+            snappy.reset();
+        }
+    }
+
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out, int length) throws IOException {
+        Snappy snappy = new Snappy();
+        int end = out.writerIndex() + length;
+        try {
+            while (in.isReadable()) {
+                int chunkLength = in.readUnsignedMedium();
+                if (chunkLength < 0 || chunkLength > in.readableBytes()) {
+                    throw new IOException(String.format("snappy chunk length = %d out of range", chunkLength));
+                }
+                snappy.decode(in.readSlice(chunkLength), out);
+                snappy.reset();
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("snappy decompress failure", e);
+        }
+        if (out.writerIndex() != end) {
+            throw new IOException(String.format("snappy decompressed length = %d, expected = %d", length - end + out.writerIndex(), length));
+        }
+    }
+
+}
@@ -18,6 +18,7 @@ package com.github.xincao9.yurpc.core.config;
 import com.github.xincao9.yurpc.core.protocol.Pair;
 import com.github.xincao9.yurpc.core.constant.ClientConsts;
 import com.github.xincao9.yurpc.core.constant.SystemConsts;
+import com.github.xincao9.yurpc.core.serializer.ClassInfo;
 import com.github.xincao9.yurpc.core.util.PropertiesUtils;
 
 import java.util.ArrayList;
@@ -34,6 +35,21 @@ public class ClientConfig {
     public static List<Pair<String, Integer>> serverList = new ArrayList(1);
     public static Integer connectionTimeoutMS;
     public static Integer invokeTimeoutMS;
+    public static Integer protocolVersion;
+    public static String serializer;
+    public static String allowedClasses = ClientConsts.DEFAULT_ALLOWED_CLASSES; // 对端可以按名字指定的类，逗号分隔
+    public static String compressor = ClientConsts.DEFAULT_COMPRESSOR;
+    public static Integer compressThreshold = Integer.valueOf(ClientConsts.DEFAULT_COMPRESS_THRESHOLD);
+    public static String loadBalancer = ClientConsts.DEFAULT_LOAD_BALANCER;
+    public static Integer retryBudgetPercent = Integer.valueOf(ClientConsts.DEFAULT_RETRY_BUDGET_PERCENT);
+    public static Integer maxRetries = Integer.valueOf(ClientConsts.DEFAULT_MAX_RETRIES);
+    public static Integer circuitBreakerErrorPercent = Integer.valueOf(ClientConsts.DEFAULT_CIRCUIT_BREAKER_ERROR_PERCENT);
+    public static Integer circuitBreakerMinRequests = Integer.valueOf(ClientConsts.DEFAULT_CIRCUIT_BREAKER_MIN_REQUESTS);
+    public static Integer circuitBreakerWindowMS = Integer.valueOf(ClientConsts.DEFAULT_CIRCUIT_BREAKER_WINDOW_MS);
+    public static Integer circuitBreakerOpenMS = Integer.valueOf(ClientConsts.DEFAULT_CIRCUIT_BREAKER_OPEN_MS);
+    public static Integer maxConcurrency = Integer.valueOf(ClientConsts.DEFAULT_MAX_CONCURRENCY);
+    public static Integer connectionsPerEndpoint = Integer.valueOf(ClientConsts.DEFAULT_CONNECTIONS_PER_ENDPOINT);
+    public static Integer maxPendingCalls = Integer.valueOf(ClientConsts.DEFAULT_MAX_PENDING_CALLS);
 
     /**
      * 初始化客户端配置
@@ -58,6 +74,22 @@ public class ClientConfig {
         }
         connectionTimeoutMS = Integer.valueOf(pros.getProperty(ClientConsts.CONNECTION_TIMEOUT_MS, ClientConsts.DEFAULT_CONNECTION_TIMEOUT_MS));
         invokeTimeoutMS = Integer.valueOf(pros.getProperty(ClientConsts.INVOKE_TIMEOUT_MS, ClientConsts.DEFAULT_INVOKE_TIMEOUT_MS));
+        protocolVersion = Integer.valueOf(pros.getProperty(ClientConsts.PROTOCOL_VERSION, ClientConsts.DEFAULT_PROTOCOL_VERSION));
+        serializer = pros.getProperty(ClientConsts.SERIALIZER, ClientConsts.DEFAULT_SERIALIZER);
+        allowedClasses = pros.getProperty(ClientConsts.ALLOWED_CLASSES, ClientConsts.DEFAULT_ALLOWED_CLASSES);
+        ClassInfo.register(allowedClasses);
+        compressor = pros.getProperty(ClientConsts.COMPRESSOR, ClientConsts.DEFAULT_COMPRESSOR);
+        compressThreshold = Integer.valueOf(pros.getProperty(ClientConsts.COMPRESS_THRESHOLD, ClientConsts.DEFAULT_COMPRESS_THRESHOLD));
+        loadBalancer = pros.getProperty(ClientConsts.LOAD_BALANCER, ClientConsts.DEFAULT_LOAD_BALANCER);
+        retryBudgetPercent = Integer.valueOf(pros.getProperty(ClientConsts.RETRY_BUDGET_PERCENT, ClientConsts.DEFAULT_RETRY_BUDGET_PERCENT));
+        maxRetries = Integer.valueOf(pros.getProperty(ClientConsts.MAX_RETRIES, ClientConsts.DEFAULT_MAX_RETRIES));
+        circuitBreakerErrorPercent = Integer.valueOf(pros.getProperty(ClientConsts.CIRCUIT_BREAKER_ERROR_PERCENT, ClientConsts.DEFAULT_CIRCUIT_BREAKER_ERROR_PERCENT));
+        circuitBreakerMinRequests = Integer.valueOf(pros.getProperty(ClientConsts.CIRCUIT_BREAKER_MIN_REQUESTS, ClientConsts.DEFAULT_CIRCUIT_BREAKER_MIN_REQUESTS));
+        circuitBreakerWindowMS = Integer.valueOf(pros.getProperty(ClientConsts.CIRCUIT_BREAKER_WINDOW_MS, ClientConsts.DEFAULT_CIRCUIT_BREAKER_WINDOW_MS));
+        circuitBreakerOpenMS = Integer.valueOf(pros.getProperty(ClientConsts.CIRCUIT_BREAKER_OPEN_MS, ClientConsts.DEFAULT_CIRCUIT_BREAKER_OPEN_MS));
+        maxConcurrency = Integer.valueOf(pros.getProperty(ClientConsts.MAX_CONCURRENCY, ClientConsts.DEFAULT_MAX_CONCURRENCY));
+        connectionsPerEndpoint = Integer.valueOf(pros.getProperty(ClientConsts.CONNECTIONS_PER_ENDPOINT, ClientConsts.DEFAULT_CONNECTIONS_PER_ENDPOINT));
+        maxPendingCalls = Integer.valueOf(pros.getProperty(ClientConsts.MAX_PENDING_CALLS, ClientConsts.DEFAULT_MAX_PENDING_CALLS));
     }
 
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.config;
+
+/**
+ * 服务消费者配置，未设置的项使用客户端配置
+ *
+ * @author xincao9@gmail.com
+ */
+public class ConsumerConfig {
+
+    private String serializer; // 序列化组件名字
+    private Integer invokeTimeoutMS; // 调用超时时间
+    private String loadBalancer; // 负载均衡组件名字
+
+    public String getSerializer() {
+        return serializer;
+    }
+
+    public void setSerializer(String serializer) {
+        this.serializer = serializer;
+    }
+
+    public Integer getInvokeTimeoutMS() {
+        return invokeTimeoutMS;
+    }
+
+    public void setInvokeTimeoutMS(Integer invokeTimeoutMS) {
+        this.invokeTimeoutMS = invokeTimeoutMS;
+    }
+
+    public String getLoadBalancer() {
+        return loadBalancer;
+    }
+
+    public void setLoadBalancer(String loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+}
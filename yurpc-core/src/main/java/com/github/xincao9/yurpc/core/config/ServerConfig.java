@@ -17,8 +17,11 @@ package com.github.xincao9.yurpc.core.config;
 
 import com.github.xincao9.yurpc.core.constant.ServerConsts;
 import com.github.xincao9.yurpc.core.constant.SystemConsts;
+import com.github.xincao9.yurpc.core.serializer.ClassInfo;
 import com.github.xincao9.yurpc.core.util.PropertiesUtils;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -31,6 +34,15 @@ public class ServerConfig {
     public static Integer port;
     public static Integer ioThreadBoss = ServerConsts.DEFAULT_IO_THREAD_BOSS;
     public static Integer ioThreadWorker = ServerConsts.DEFAULT_IO_THREAD_WORKER;
+    public static Integer compressThreshold = Integer.valueOf(ServerConsts.DEFAULT_COMPRESS_THRESHOLD);
+    public static Integer weight = Integer.valueOf(ServerConsts.DEFAULT_WEIGHT);
+    public static Integer decodeOffloadThreshold = Integer.valueOf(ServerConsts.DEFAULT_DECODE_OFFLOAD_THRESHOLD);
+    public static Integer threads = Integer.valueOf(ServerConsts.DEFAULT_THREADS);
+    public static Integer queueSize = Integer.valueOf(ServerConsts.DEFAULT_QUEUE_SIZE);
+    public static Integer queueTargetMS = Integer.valueOf(ServerConsts.DEFAULT_QUEUE_TARGET_MS);
+    public static Integer queueIntervalMS = Integer.valueOf(ServerConsts.DEFAULT_QUEUE_INTERVAL_MS);
+    public static String allowedClasses = ServerConsts.DEFAULT_ALLOWED_CLASSES; // 对端可以按名字指定的类，逗号分隔
+    public static Map<String, Integer> rateLimits = new HashMap(); // 服务名或 服务名.方法名 到每秒许可数，同名的重载方法共用一个限流器
 
     /**
      * 初始化服务组件配置
@@ -52,5 +64,22 @@ public class ServerConfig {
         if (port <= 0 || port > 65535) {
             port = Integer.valueOf(ServerConsts.DEFAULT_PORT);
         }
+        compressThreshold = Integer.valueOf(pros.getProperty(ServerConsts.COMPRESS_THRESHOLD, ServerConsts.DEFAULT_COMPRESS_THRESHOLD));
+        weight = Integer.valueOf(pros.getProperty(ServerConsts.WEIGHT, ServerConsts.DEFAULT_WEIGHT));
+        decodeOffloadThreshold = Integer.valueOf(pros.getProperty(ServerConsts.DECODE_OFFLOAD_THRESHOLD, ServerConsts.DEFAULT_DECODE_OFFLOAD_THRESHOLD));
+        threads = Integer.valueOf(pros.getProperty(ServerConsts.THREADS, ServerConsts.DEFAULT_THREADS));
+        queueSize = Integer.valueOf(pros.getProperty(ServerConsts.QUEUE_SIZE, ServerConsts.DEFAULT_QUEUE_SIZE));
+        queueTargetMS = Integer.valueOf(pros.getProperty(ServerConsts.QUEUE_TARGET_MS, ServerConsts.DEFAULT_QUEUE_TARGET_MS));
+        queueIntervalMS = Integer.valueOf(pros.getProperty(ServerConsts.QUEUE_INTERVAL_MS, ServerConsts.DEFAULT_QUEUE_INTERVAL_MS));
+        allowedClasses = pros.getProperty(ServerConsts.ALLOWED_CLASSES, ServerConsts.DEFAULT_ALLOWED_CLASSES);
+        ClassInfo.register(allowedClasses);
+        rateLimits = new HashMap();
+        String rateLimitsStr = pros.getProperty(ServerConsts.RATE_LIMITS, ServerConsts.DEFAULT_RATE_LIMITS);
+        for (String rateLimit : rateLimitsStr.split(",")) {
+            int index = rateLimit.lastIndexOf('=');
+            if (index > 0) {
+                rateLimits.put(rateLimit.substring(0, index).trim(), Integer.valueOf(rateLimit.substring(index + 1).trim()));
+            }
+        }
     }
 }
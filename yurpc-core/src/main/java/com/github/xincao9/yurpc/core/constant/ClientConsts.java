@@ -28,5 +28,35 @@ public class ClientConsts {
     public static final String DEFAULT_CONNECTION_TIMEOUT_MS = "5000";
     public static final String INVOKE_TIMEOUT_MS = "yurpc.client.invokeTimeoutMS";
     public static final String DEFAULT_INVOKE_TIMEOUT_MS = "1000";
+    public static final String PROTOCOL_VERSION = "yurpc.client.protocolVersion";
+    public static final String DEFAULT_PROTOCOL_VERSION = "2";
+    public static final String SERIALIZER = "yurpc.client.serializer";
+    public static final String DEFAULT_SERIALIZER = "fastjson";
+    public static final String ALLOWED_CLASSES = "yurpc.client.allowedClasses";
+    public static final String DEFAULT_ALLOWED_CLASSES = "";
+    public static final String COMPRESSOR = "yurpc.client.compressor";
+    public static final String DEFAULT_COMPRESSOR = "";
+    public static final String COMPRESS_THRESHOLD = "yurpc.client.compressThreshold";
+    public static final String DEFAULT_COMPRESS_THRESHOLD = "8192";
+    public static final String LOAD_BALANCER = "yurpc.client.loadBalancer";
+    public static final String DEFAULT_LOAD_BALANCER = "random";
+    public static final String RETRY_BUDGET_PERCENT = "yurpc.client.retryBudgetPercent";
+    public static final String DEFAULT_RETRY_BUDGET_PERCENT = "10";
+    public static final String MAX_RETRIES = "yurpc.client.maxRetries";
+    public static final String DEFAULT_MAX_RETRIES = "2";
+    public static final String CIRCUIT_BREAKER_ERROR_PERCENT = "yurpc.client.circuitBreakerErrorPercent";
+    public static final String DEFAULT_CIRCUIT_BREAKER_ERROR_PERCENT = "50";
+    public static final String CIRCUIT_BREAKER_MIN_REQUESTS = "yurpc.client.circuitBreakerMinRequests";
+    public static final String DEFAULT_CIRCUIT_BREAKER_MIN_REQUESTS = "20";
+    public static final String CIRCUIT_BREAKER_WINDOW_MS = "yurpc.client.circuitBreakerWindowMS";
+    public static final String DEFAULT_CIRCUIT_BREAKER_WINDOW_MS = "10000";
+    public static final String CIRCUIT_BREAKER_OPEN_MS = "yurpc.client.circuitBreakerOpenMS";
+    public static final String DEFAULT_CIRCUIT_BREAKER_OPEN_MS = "5000";
+    public static final String MAX_CONCURRENCY = "yurpc.client.maxConcurrency";
+    public static final String DEFAULT_MAX_CONCURRENCY = "0";
+    public static final String CONNECTIONS_PER_ENDPOINT = "yurpc.client.connectionsPerEndpoint";
+    public static final String DEFAULT_CONNECTIONS_PER_ENDPOINT = "2";
+    public static final String MAX_PENDING_CALLS = "yurpc.client.maxPendingCalls";
+    public static final String DEFAULT_MAX_PENDING_CALLS = "65536";
 
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.constant;
+
+/**
+ * 协议常量
+ *
+ * <pre>
+ * v2 帧格式 (17 字节头部 + 消息体)
+ * +--------+---------+-------+------------+------------+-------------+--------+
+ * | magic  | version | flags | serializer | request id | body length |  body  |
+ * | 2 byte | 1 byte  | 1 byte|   1 byte   |   8 byte   |   4 byte    |        |
+ * +--------+---------+-------+------------+------------+-------------+--------+
+ *
+ * 压缩的消息体 (flags 含 FLAG_COMPRESSED)
+ * +------------+-----------------+-----------------+
+ * | compressor | original length | compressed data |
+ * |   1 byte   |     varint      |                 |
+ * +------------+-----------------+-----------------+
+ * </pre>
+ *
+ * @author xincao9@gmail.com
+ */
+public class ProtocolConsts {
+
+    public static final short MAGIC = (short) 0x5955; // "YU"
+    public static final byte VERSION_1 = 1; // 长度前缀 + JSON 文本（旧协议）
+    public static final byte VERSION_2 = 2; // 二进制帧
+    public static final int HEADER_LENGTH = 17;
+    public static final int BODY_LENGTH_OFFSET = 13;
+    public static final int MAX_BODY_LENGTH = 16 * 1024 * 1024;
+
+    public static final byte FLAG_REQUEST = 0x01;
+    public static final byte FLAG_RESPONSE = 0x02;
+    public static final byte FLAG_EVENT = 0x04;
+    public static final byte FLAG_ONEWAY = 0x08;
+    public static final byte FLAG_COMPRESSED = 0x10;
+    public static final byte FLAG_DEADLINE = 0x20; // 请求体以剩余时间（毫秒，varint）开头，握手确认对端支持后才使用
+
+    public static final byte SERIALIZER_FASTJSON = 1;
+    public static final byte SERIALIZER_COMPACT = 2;
+    public static final byte SERIALIZER_POSITIONAL = 3;
+
+    public static final byte COMPRESSOR_SNAPPY = 1;
+    public static final byte COMPRESSOR_DEFLATE = 2;
+
+    public static final String EVENT_HEARTBEAT = "heartbeat";
+    public static final String EVENT_HANDSHAKE = "handshake";
+
+}
@@ -36,5 +36,17 @@ public class ResponseCode {
     public static final String NOT_FOUND_COMPONENT_MSG = "COMPONENT CLASS: %s NOT FOUND";
     public static final Integer NOT_FOUND_METHOD = 6;
     public static final String NOT_FOUND_METHOD_MSG = "CLASS: %s METHOD: %s NOT FOUND!";
+    public static final Integer CIRCUIT_BREAKER_OPEN = 7;
+    public static final String CIRCUIT_BREAKER_OPEN_MSG = "CIRCUIT BREAKER OPEN";
+    public static final Integer CONCURRENCY_LIMIT_EXCEEDED = 8;
+    public static final String CONCURRENCY_LIMIT_EXCEEDED_MSG = "CONCURRENCY LIMIT EXCEEDED";
+    public static final Integer SERVER_OVERLOADED = 9;
+    public static final String SERVER_OVERLOADED_MSG = "SERVER OVERLOADED: %s";
+    public static final Integer DEADLINE_EXCEEDED = 10;
+    public static final String DEADLINE_EXCEEDED_MSG = "DEADLINE EXCEEDED";
+    public static final Integer RATE_LIMITED = 11;
+    public static final String RATE_LIMITED_MSG = "RATE LIMITED: %s";
+    public static final Integer DECODE_FAILURE = 12;
+    public static final String DECODE_FAILURE_MSG = "DECODE FAILURE: %s";
 
 }
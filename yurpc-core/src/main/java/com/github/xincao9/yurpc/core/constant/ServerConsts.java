@@ -26,5 +26,23 @@ public class ServerConsts {
     public static final String DEFAULT_PORT = "12306";
     public static final Integer DEFAULT_IO_THREAD_BOSS = 1;
     public static final Integer DEFAULT_IO_THREAD_WORKER = Runtime.getRuntime().availableProcessors();
+    public static final String COMPRESS_THRESHOLD = "yurpc.server.compressThreshold";
+    public static final String DEFAULT_COMPRESS_THRESHOLD = "8192";
+    public static final String WEIGHT = "yurpc.server.weight";
+    public static final String DEFAULT_WEIGHT = "100";
+    public static final String DECODE_OFFLOAD_THRESHOLD = "yurpc.server.decodeOffloadThreshold";
+    public static final String DEFAULT_DECODE_OFFLOAD_THRESHOLD = "8192";
+    public static final String THREADS = "yurpc.server.threads";
+    public static final String DEFAULT_THREADS = "256";
+    public static final String QUEUE_SIZE = "yurpc.server.queueSize";
+    public static final String DEFAULT_QUEUE_SIZE = "8192";
+    public static final String QUEUE_TARGET_MS = "yurpc.server.queueTargetMS";
+    public static final String DEFAULT_QUEUE_TARGET_MS = "5";
+    public static final String QUEUE_INTERVAL_MS = "yurpc.server.queueIntervalMS";
+    public static final String DEFAULT_QUEUE_INTERVAL_MS = "100";
+    public static final String RATE_LIMITS = "yurpc.server.rateLimits";
+    public static final String DEFAULT_RATE_LIMITS = "";
+    public static final String ALLOWED_CLASSES = "yurpc.server.allowedClasses";
+    public static final String DEFAULT_ALLOWED_CLASSES = "";
 
 }
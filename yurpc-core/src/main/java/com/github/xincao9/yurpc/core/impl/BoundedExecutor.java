@@ -0,0 +1,273 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 有界的业务线程池：没有空闲线程时先增加线程，线程数达到上限后进入等待队列，队列也满时抛出 RejectedExecutionException，
+ * 不在调用方（IO 线程）上执行。ThreadPoolExecutor 默认在队列满之后才增加线程，阻塞型的服务方法会在少数线程上排队
+ *
+ * <p>按 {@link CoDel} 控制排队时间：任务出队时以队首（等待最久）任务的排队时间判断过载，一个 interval 内的最小值
+ * 都不低于 target 时进入过载状态。过载时后进先出，新请求仍然能很快得到处理，排在队首、等待最久、调用方最可能已经
+ * 放弃的任务超过 interval 时丢弃；非过载时先进先出，同样丢弃排队超过 interval 的任务。过载时不按 target 丢弃，
+ * 后进先出的队列按排队时间排序，取到的任务超过 target 时其余任务也都超过，会把整个队列清空，使过载被误判为恢复。
+ * 后进先出取到的任务排队时间短，不参与过载判断。只有通过 {@link #sheddable(Runnable, Runnable)} 提交的任务会被丢弃</p>
+ *
+ * @author xincao9@gmail.com
+ */
+public class BoundedExecutor extends ThreadPoolExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoundedExecutor.class);
+    private static final long LOG_INTERVAL = TimeUnit.SECONDS.toNanos(10); // 过载状态变化的日志间隔
+
+    private final String name;
+    private final AtomicInteger submitted = new AtomicInteger(); // 已提交未执行完的任务数
+    private final long target; // 纳秒，不大于 0 时不丢弃
+    private final long interval;
+    private final CoDel codel;
+    private final LongAdder shed = new LongAdder();
+    private long lastLogTime; // 以下由 this 保护
+    private long lastLogShed;
+    private int changes; // 上次日志之后过载状态的变化次数
+
+    /**
+     * 构造器
+     *
+     * @param name 线程名前缀
+     * @param threads 最大线程数
+     * @param queueSize 等待队列长度
+     * @param targetMS 排队时间目标，不大于 0 时不丢弃
+     * @param intervalMS 排队时间最小值的统计周期，排队时间持续超过目标一个周期进入过载状态
+     */
+    public BoundedExecutor(String name, int threads, int queueSize, int targetMS, int intervalMS) {
+        super(Math.min(threads, Runtime.getRuntime().availableProcessors()), threads, 60L, TimeUnit.SECONDS,
+                new TaskQueue(Math.max(1, queueSize)), new DefaultThreadFactory(name));
+        this.name = name;
+        this.target = TimeUnit.MILLISECONDS.toNanos(targetMS);
+        this.interval = TimeUnit.MILLISECONDS.toNanos(Math.max(targetMS, intervalMS));
+        this.codel = new CoDel(target, interval);
+        ((TaskQueue) getQueue()).executor = this;
+        allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 包装可以丢弃的任务
+     *
+     * @param task 任务
+     * @param onShed 丢弃时执行，用于立即响应调用方，在业务线程上执行
+     * @return 任务
+     */
+    public static Runnable sheddable(Runnable task, Runnable onShed) {
+        return new Task(task, onShed);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command instanceof Task) {
+            ((Task) command).enqueueTime = System.nanoTime();
+        }
+        submitted.incrementAndGet();
+        try {
+            super.execute(command);
+        } catch (RejectedExecutionException e) {
+            // 线程数在判断之后达到上限时，任务仍然可以进入队列
+            if (!((TaskQueue) getQueue()).force(command)) {
+                submitted.decrementAndGet();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        submitted.decrementAndGet();
+    }
+
+    /**
+     * 以队首任务的排队时间更新过载状态，队列为空时按 0 计
+     *
+     * @param head 队首任务
+     */
+    private void update(Runnable head) {
+        if (target <= 0 || (head != null && !(head instanceof Task))) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (codel.update(head == null ? 0 : now - ((Task) head).enqueueTime, now)) {
+            log(now);
+        }
+    }
+
+    /**
+     * 过载状态变化的日志，每 LOG_INTERVAL 最多一条，其间的变化计入下一条
+     *
+     * @param now 当前时间
+     */
+    private synchronized void log(long now) {
+        changes++;
+        if (lastLogTime != 0 && now - lastLogTime < LOG_INTERVAL) {
+            return;
+        }
+        long total = shed.sum();
+        LOGGER.warn("executor = {} overloaded = {}, {} state changes and {} tasks shed since last report", name, codel.isOverloaded(), changes, total - lastLogShed);
+        lastLogTime = now;
+        lastLogShed = total;
+        changes = 0;
+    }
+
+    /**
+     * 任务是否已经排队超过 interval
+     *
+     * @param runnable 任务
+     * @return 是否过期，不可丢弃的任务返回 false
+     */
+    private boolean expired(Runnable runnable) {
+        return target > 0 && runnable instanceof Task && System.nanoTime() - ((Task) runnable).enqueueTime > interval;
+    }
+
+    /**
+     * 任务出队，排队过久的任务丢弃
+     *
+     * @param runnable 任务
+     * @return 是否执行
+     */
+    private boolean admit(Runnable runnable) {
+        if (!expired(runnable)) {
+            return true;
+        }
+        shed((Task) runnable);
+        return false;
+    }
+
+    private void shed(Task task) {
+        submitted.decrementAndGet();
+        shed.increment();
+        try {
+            task.onShed.run();
+        } catch (Throwable e) {
+            LOGGER.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 是否处于过载状态
+     *
+     * @return 是否过载
+     */
+    public boolean isOverloaded() {
+        return codel.isOverloaded();
+    }
+
+    /**
+     * 因排队过久丢弃的任务数
+     *
+     * @return 任务数
+     */
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    private static class Task implements Runnable {
+
+        private final Runnable task;
+        private final Runnable onShed;
+        private volatile long enqueueTime;
+
+        Task(Runnable task, Runnable onShed) {
+            this.task = task;
+            this.onShed = onShed;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
+    private static class TaskQueue extends LinkedBlockingDeque<Runnable> {
+
+        private BoundedExecutor executor;
+
+        TaskQueue(int capacity) {
+            super(capacity);
+        }
+
+        /**
+         * 有空闲线程时入队，否则在线程数未达到上限时返回 false，由线程池增加线程
+         */
+        @Override
+        public boolean offer(Runnable runnable) {
+            if (executor.submitted.get() > executor.getPoolSize() && executor.getPoolSize() < executor.getMaximumPoolSize()) {
+                return false;
+            }
+            return super.offer(runnable);
+        }
+
+        boolean force(Runnable runnable) {
+            return !executor.isShutdown() && super.offer(runnable);
+        }
+
+        /**
+         * 更新过载状态，过载时先丢弃队首排队超过 interval 的任务
+         *
+         * @return 是否过载
+         */
+        private boolean overloaded() {
+            executor.update(peekFirst());
+            if (!executor.codel.isOverloaded()) {
+                return false;
+            }
+            for (Runnable head = peekFirst(); executor.expired(head); head = peekFirst()) {
+                if (removeFirstOccurrence(head)) {
+                    executor.shed((Task) head);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Runnable take() throws InterruptedException {
+            for (;;) {
+                Runnable runnable = overloaded() ? takeLast() : takeFirst();
+                if (executor.admit(runnable)) {
+                    return runnable;
+                }
+            }
+        }
+
+        @Override
+        public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            for (;;) {
+                long remaining = deadline - System.nanoTime();
+                Runnable runnable = overloaded() ? pollLast(remaining, TimeUnit.NANOSECONDS) : pollFirst(remaining, TimeUnit.NANOSECONDS);
+                if (runnable == null || executor.admit(runnable)) {
+                    return runnable;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import com.github.xincao9.yurpc.core.protocol.Endpoint;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 单个端点的连接池，轮询选择已握手的连接；连接在后台异步建立，断开后自动补建
+ *
+ * <p>每个槽位连续失败（连接失败，或连接存活不到 MIN_LIFETIME_MS 就断开）时按指数退避重连，
+ * 避免端点不可达或建立后立即关闭连接时反复重连刷日志；连续失败只有第一次记录 WARN</p>
+ *
+ * @author xincao9@gmail.com
+ */
+public class ChannelPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChannelPool.class);
+    private static final long INITIAL_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 10000;
+    private static final long MIN_LIFETIME_MS = 1000; // 存活不到该时长就断开的连接按失败计
+
+    private final Bootstrap bootstrap;
+    private final Endpoint endpoint;
+    private final Function<Channel, CompletableFuture<?>> handshake;
+    private final AtomicReferenceArray<Channel> channels; // 已握手的连接，槽位为空表示需要建立
+    private final AtomicIntegerArray connecting; // 槽位是否正在建立连接，1 表示是
+    private final AtomicIntegerArray failures; // 槽位连续失败次数
+    private final AtomicLongArray retryAt; // 槽位下次允许建立连接的时间，纳秒
+    private final AtomicInteger index = new AtomicInteger();
+    private final AtomicReference<CompletableFuture<Channel>> waiting = new AtomicReference(); // 没有可用连接时调用方等待的 future
+    private volatile boolean closed;
+
+    /**
+     * 构造器
+     *
+     * @param bootstrap 启动器
+     * @param endpoint 端点
+     * @param size 连接数
+     * @param handshake 连接建立后的握手，完成后连接才可用
+     */
+    public ChannelPool(Bootstrap bootstrap, Endpoint endpoint, int size, Function<Channel, CompletableFuture<?>> handshake) {
+        this.bootstrap = bootstrap;
+        this.endpoint = endpoint;
+        this.handshake = handshake;
+        this.channels = new AtomicReferenceArray(Math.max(1, size));
+        this.connecting = new AtomicIntegerArray(Math.max(1, size));
+        this.failures = new AtomicIntegerArray(Math.max(1, size));
+        this.retryAt = new AtomicLongArray(Math.max(1, size));
+        // nanoTime 的原点可能为负，以当前时间为初值，新建的槽位才不会处于退避中
+        long now = System.nanoTime();
+        for (int slot = 0; slot < retryAt.length(); slot++) {
+            retryAt.set(slot, now);
+        }
+    }
+
+    /**
+     * 获取连接，没有可用连接时异步建立，不阻塞调用线程
+     *
+     * @return 连接的 future，建立失败时结果为 null
+     */
+    public CompletableFuture<Channel> acquire() {
+        Channel channel = select();
+        if (channel != null) {
+            return CompletableFuture.completedFuture(channel);
+        }
+        for (;;) {
+            CompletableFuture<Channel> future = waiting.get();
+            if (future != null && !future.isDone()) {
+                return future;
+            }
+            CompletableFuture<Channel> next = new CompletableFuture();
+            if (waiting.compareAndSet(future, next)) {
+                for (int slot = 0; slot < channels.length(); slot++) {
+                    connect(slot);
+                }
+                // 等待者登记之前可能已有连接就绪
+                channel = select();
+                if (channel != null) {
+                    next.complete(channel);
+                }
+                // 所有槽位都在退避时立即失败
+                failIfIdle();
+                return next;
+            }
+        }
+    }
+
+    /**
+     * 轮询选择可用的连接，顺带补建空缺的槽位
+     *
+     * @return 连接，没有可用连接时返回 null
+     */
+    public Channel select() {
+        int length = channels.length();
+        int start = index.getAndIncrement() & Integer.MAX_VALUE;
+        for (int i = 0; i < length; i++) {
+            int slot = (start + i) % length;
+            Channel channel = channels.get(slot);
+            if (channel != null && channel.isActive()) {
+                return channel;
+            }
+            if (!closed) {
+                connect(slot);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 为槽位建立连接，同一槽位同时只有一次建立，退避期间不建立
+     *
+     * @param slot 槽位
+     */
+    private void connect(int slot) {
+        Channel current = channels.get(slot);
+        if (closed || (current != null && current.isActive()) || System.nanoTime() - retryAt.get(slot) < 0
+                || !connecting.compareAndSet(slot, 0, 1)) {
+            return;
+        }
+        ChannelFuture channelFuture = bootstrap.connect(new InetSocketAddress(endpoint.getHost(), endpoint.getPort()));
+        channelFuture.addListener((ChannelFutureListener) (ChannelFuture f) -> {
+            if (!f.isSuccess()) {
+                long backoff = fail(slot);
+                if (failures.get(slot) == 1) {
+                    LOGGER.warn("connect() endpoint = {}:{} failure, retry in {}ms, cause = {}", endpoint.getHost(), endpoint.getPort(), backoff, String.valueOf(f.cause()));
+                } else {
+                    LOGGER.debug("connect() endpoint = {}:{} failure {} times, retry in {}ms", endpoint.getHost(), endpoint.getPort(), failures.get(slot), backoff);
+                }
+                connecting.set(slot, 0);
+                failIfIdle();
+                return;
+            }
+            Channel channel = f.channel();
+            long connectedAt = System.nanoTime();
+            handshake.apply(channel).whenComplete((o, e) -> {
+                channels.set(slot, channel);
+                connecting.set(slot, 0);
+                if (closed && channels.compareAndSet(slot, channel, null)) {
+                    channel.close();
+                    failIfIdle();
+                    return;
+                }
+                channel.closeFuture().addListener((ChannelFutureListener) (ChannelFuture cf) -> {
+                    if (!channels.compareAndSet(slot, channel, null) || closed) {
+                        return;
+                    }
+                    if (System.nanoTime() - connectedAt >= TimeUnit.MILLISECONDS.toNanos(MIN_LIFETIME_MS)) {
+                        failures.set(slot, 0);
+                        LOGGER.warn("connection to endpoint = {}:{} closed, reconnecting", endpoint.getHost(), endpoint.getPort());
+                        connect(slot);
+                        return;
+                    }
+                    long backoff = fail(slot);
+                    LOGGER.debug("connection to endpoint = {}:{} closed after handshake {} times, reconnecting in {}ms", endpoint.getHost(), endpoint.getPort(), failures.get(slot), backoff);
+                    channel.eventLoop().schedule(() -> connect(slot), backoff, TimeUnit.MILLISECONDS);
+                });
+                CompletableFuture<Channel> future = waiting.get();
+                if (future != null) {
+                    future.complete(channel);
+                }
+            });
+        });
+    }
+
+    /**
+     * 记录槽位的一次失败，按连续失败次数计算退避时长（带 ±20% 抖动）
+     *
+     * @param slot 槽位
+     * @return 退避时长，毫秒
+     */
+    private long fail(int slot) {
+        int n = failures.incrementAndGet(slot);
+        long backoff = Math.min(MAX_BACKOFF_MS, INITIAL_BACKOFF_MS << Math.min(n - 1, 16));
+        backoff = (long) (backoff * (0.8 + ThreadLocalRandom.current().nextDouble() * 0.4));
+        retryAt.set(slot, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff));
+        return backoff;
+    }
+
+    /**
+     * 所有槽位都建立失败时结束等待者
+     */
+    private void failIfIdle() {
+        for (int slot = 0; slot < channels.length(); slot++) {
+            Channel channel = channels.get(slot);
+            if (connecting.get(slot) == 1 || (channel != null && channel.isActive())) {
+                return;
+            }
+        }
+        CompletableFuture<Channel> future = waiting.get();
+        if (future != null) {
+            future.complete(null);
+        }
+    }
+
+    /**
+     * 关闭连接池
+     */
+    public void close() {
+        this.closed = true;
+        for (int slot = 0; slot < channels.length(); slot++) {
+            Channel channel = channels.getAndSet(slot, null);
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        failIfIdle();
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 熔断器，客户端按 端点 + 方法 统计；滑动窗口内失败率超过阈值时打开，打开期间不再选择该端点，
+ * 经过打开时长后放行一个探测调用（半开），探测成功则关闭，失败则重新打开
+ *
+ * @author xincao9@gmail.com
+ */
+public class CircuitBreaker {
+
+    public static final int CLOSED = 0;
+    public static final int OPEN = 1;
+    public static final int HALF_OPEN = 2;
+
+    private static final int BUCKETS = 10;
+
+    private final int errorPercent;
+    private final int minRequests;
+    private final long bucketNanos;
+    private final long openNanos;
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray(BUCKETS); // 时间片编号按 BUCKETS 取模的槽位
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+    private volatile long openTime;
+
+    /**
+     * 构造器
+     *
+     * @param errorPercent 打开熔断的失败率
+     * @param minRequests 窗口内最少调用数，少于该数不打开
+     * @param windowMS 滑动窗口时长
+     * @param openMS 打开时长，之后放行探测调用
+     */
+    public CircuitBreaker(int errorPercent, int minRequests, int windowMS, int openMS) {
+        this.errorPercent = errorPercent;
+        this.minRequests = minRequests;
+        this.bucketNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(windowMS) / BUCKETS);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMS);
+    }
+
+    /**
+     * 是否可以选择该端点，不改变状态
+     *
+     * @return 关闭，或者已经可以探测
+     */
+    public boolean isAvailable() {
+        int s = state.get();
+        return s == CLOSED || (s == OPEN && System.nanoTime() - openTime >= openNanos);
+    }
+
+    /**
+     * 选中端点后申请调用
+     *
+     * @return CLOSED 表示正常调用，HALF_OPEN 表示本次是探测调用，OPEN 表示拒绝
+     */
+    public int acquire() {
+        int s = state.get();
+        if (s == CLOSED) {
+            return CLOSED;
+        }
+        if (s == OPEN && System.nanoTime() - openTime >= openNanos && state.compareAndSet(OPEN, HALF_OPEN)) {
+            return HALF_OPEN;
+        }
+        return OPEN;
+    }
+
+    /**
+     * 记录调用结果
+     *
+     * @param permit acquire 的返回值
+     * @param success 是否成功
+     */
+    public void record(int permit, boolean success) {
+        long now = System.nanoTime();
+        if (permit == HALF_OPEN) {
+            if (success) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    buckets.set(i, null);
+                }
+                state.set(CLOSED);
+            } else {
+                openTime = now;
+                state.set(OPEN);
+            }
+            return;
+        }
+        // nanoTime 可以为负数
+        long epoch = Math.floorDiv(now, bucketNanos);
+        Bucket bucket = bucket(epoch);
+        bucket.total.incrementAndGet();
+        if (success) {
+            return;
+        }
+        bucket.failures.incrementAndGet();
+        if (state.get() != CLOSED) {
+            return;
+        }
+        long total = 0;
+        long failure = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            Bucket b = buckets.get(i);
+            if (b != null && epoch - b.epoch < BUCKETS) {
+                total += b.total.get();
+                failure += b.failures.get();
+            }
+        }
+        if (total >= minRequests && failure * 100 >= total * errorPercent) {
+            openTime = now;
+            state.compareAndSet(CLOSED, OPEN);
+        }
+    }
+
+    /**
+     * 时间片对应的计数，槽位上是旧时间片时整体替换；替换前读到旧计数的线程只会计入旧时间片，不影响新窗口
+     *
+     * @param epoch 时间片编号
+     * @return 计数
+     */
+    private Bucket bucket(long epoch) {
+        int slot = (int) Math.floorMod(epoch, (long) BUCKETS);
+        for (;;) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.epoch == epoch) {
+                return bucket;
+            }
+            Bucket next = new Bucket(epoch);
+            if (buckets.compareAndSet(slot, bucket, next)) {
+                return next;
+            }
+        }
+    }
+
+    public int getState() {
+        return state.get();
+    }
+
+    private static class Bucket {
+
+        private final long epoch;
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+}
@@ -16,13 +16,16 @@
 package com.github.xincao9.yurpc.core.impl;
 
 import com.github.xincao9.yurpc.core.YuRPCClient;
-import com.github.xincao9.yurpc.core.protocol.Request;
-import com.alibaba.fastjson.JSONObject;
+import com.github.xincao9.yurpc.core.codec.MessageCodec;
+import com.github.xincao9.yurpc.core.constant.ResponseCode;
+import com.github.xincao9.yurpc.core.protocol.Frame;
+import com.github.xincao9.yurpc.core.protocol.Handshake;
 import com.github.xincao9.yurpc.core.protocol.Response;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
-import java.util.Map;
+import java.io.IOException;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,7 +35,7 @@ import org.slf4j.LoggerFactory;
  * @author xincao9@gmail.com
  */
 @Sharable
-public class ClientHandler extends SimpleChannelInboundHandler<String> {
+public class ClientHandler extends SimpleChannelInboundHandler<Frame> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ClientHandler.class);
     private YuRPCClient yuRPCClient;
@@ -45,16 +48,71 @@ public class ClientHandler extends SimpleChannelInboundHandler<String> {
      * @throws Exception 异常
      */
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, String msg) throws Exception {
-        Response response = JSONObject.parseObject(msg, Response.class);
-        LOGGER.debug("msg = {}", msg);
-        long responseId = response.getId();
-        Map<Long, Request> requests = yuRPCClient.getRequests();
-        if (requests.containsKey(responseId)) {
-            Request request = requests.get(responseId);
-            requests.remove(responseId);
-            request.putResponse(response);
+    protected void channelRead0(ChannelHandlerContext ctx, Frame msg) throws Exception {
+        if (msg.isEvent()) {
+            if (msg.isResponse()) {
+                Response response = MessageCodec.decodeResponse(msg, Handshake.class);
+                LOGGER.debug("handshake = {}", response);
+                Connection connection = Connection.get(ctx.channel());
+                if (connection != null) {
+                    connection.complete((Handshake) response.getData());
+                }
+            }
+            return;
         }
+        PendingCalls pendingCalls = PendingCalls.get(ctx.channel());
+        Response response;
+        try {
+            response = MessageCodec.decodeResponse(msg, (long id) -> {
+                PendingCall pendingCall = pendingCalls.get(id);
+                return pendingCall == null ? null : pendingCall.getRequest().getReturnType();
+            });
+        } catch (IOException | RuntimeException e) {
+            decodeFailure(ctx, pendingCalls, msg, e);
+            return;
+        }
+        LOGGER.debug("response = {}", response);
+        PendingCall pendingCall = pendingCalls.remove(response.getId());
+        if (pendingCall != null) {
+            pendingCall.putResponse(response);
+        }
+    }
+
+    /**
+     * 响应体解码失败时立即结束对应的调用，不等超时；旧协议的请求编号在消息体中，无法定位调用
+     *
+     * @param ctx channel上下文
+     * @param pendingCalls 调用表
+     * @param msg 消息
+     * @param e 异常
+     */
+    private void decodeFailure(ChannelHandlerContext ctx, PendingCalls pendingCalls, Frame msg, Exception e) {
+        LOGGER.error("channel = {} response id = {} decode failure: {}", ctx.channel(), msg.getId(), e.getMessage());
+        PendingCall pendingCall = msg.isLegacy() ? null : pendingCalls.remove(msg.getId());
+        if (pendingCall != null) {
+            pendingCall.putResponse(Response.createResponse(msg.getId(), ResponseCode.DECODE_FAILURE, String.format(ResponseCode.DECODE_FAILURE_MSG, e.getMessage())));
+        }
+    }
+
+    /**
+     * 连接断开时立即结束该连接上未完成的调用
+     *
+     * @param ctx channel上下文
+     * @throws Exception 异常
+     */
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        PendingCalls pendingCalls = PendingCalls.get(ctx.channel());
+        if (pendingCalls != null) {
+            List<PendingCall> closed = pendingCalls.close();
+            if (!closed.isEmpty()) {
+                LOGGER.warn("channel = {} inactive, {} pending calls failed", ctx.channel(), closed.size());
+            }
+            for (PendingCall pendingCall : closed) {
+                pendingCall.putResponse(Response.createResponse(pendingCall.getId(), ResponseCode.CONNECTION_FAILURE, ResponseCode.CONNECTION_FAILURE_MSG));
+            }
+        }
+        super.channelInactive(ctx);
     }
 
     /**
@@ -16,25 +16,24 @@
 package com.github.xincao9.yurpc.core.impl;
 
 import com.github.xincao9.yurpc.core.YuRPCClient;
-import com.alibaba.fastjson.JSON;
-import com.alibaba.fastjson.JSONObject;
-import com.alibaba.fastjson.serializer.SerializerFeature;
+import com.github.xincao9.yurpc.core.config.ConsumerConfig;
 import com.github.xincao9.yurpc.core.protocol.Request;
 import com.github.xincao9.yurpc.core.protocol.Response;
 import com.github.xincao9.yurpc.core.constant.ResponseCode;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.lang.reflect.Type;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * 客户端调用代理
+ * 客户端调用代理，方法描述在生成代理时计算
  *
  * @author xincao9@gmail.com
  */
@@ -43,7 +42,12 @@ public class ClientInvocationHandler implements InvocationHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(ClientInvocationHandler.class);
 
     private YuRPCClient yuRPCClient;
+    private ConsumerConfig consumerConfig;
+    private String serializer;
+    private int invokeTimeoutMS;
+    private String loadBalancer;
     private final Map<Class, Object> proxies = new ConcurrentHashMap();
+    private final Map<Method, MethodDescriptor> descriptors = new ConcurrentHashMap();
 
     /**
      * 代理方法调用
@@ -56,44 +60,59 @@ public class ClientInvocationHandler implements InvocationHandler {
      */
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        StringBuilder sb = new StringBuilder();
-        sb.append(method.getDeclaringClass().getTypeName()).append('.');
-        sb.append(method.getName());
-        Type returnType = method.getReturnType();
-        Request request;
-        String[] paramTypes = null;
-        Class<?>[] clazzParamTypes = method.getParameterTypes();
-        if (clazzParamTypes != null && clazzParamTypes.length > 0) {
-            paramTypes = new String[clazzParamTypes.length];
-            for (int i = 0; i < clazzParamTypes.length; i++) {
-               paramTypes[i] = clazzParamTypes[i].getTypeName();
-            }
+        MethodDescriptor descriptor = descriptors.get(method);
+        if (descriptor == null) {
+            descriptor = descriptors.computeIfAbsent(method, MethodDescriptor::new);
+        }
+        Request request = descriptor.createRequest(args);
+        if (serializer != null) {
+            request.setSerializer(serializer);
+        }
+        if (invokeTimeoutMS > 0) {
+            request.setTimeoutMS(invokeTimeoutMS);
         }
-        if ("void".equalsIgnoreCase(returnType.getTypeName())) {
-            request = Request.createRequest(Boolean.FALSE, sb.toString(), args);
-        } else {
-            request = Request.createRequest(Boolean.TRUE, sb.toString(), args);
+        if (loadBalancer != null) {
+            request.setLoadBalancer(loadBalancer);
+        }
+        if (descriptor.isAsync()) {
+            return invokeAsync(request);
+        }
+        if (descriptor.isOneway()) {
+            yuRPCClient.invokeAsync(request); // 写出失败在客户端记录日志
+            return null;
         }
-        request.setParamTypes(paramTypes);
         long startTime = System.currentTimeMillis();
         Response response = yuRPCClient.invoke(request);
         if (response == null) {
             return null;
         }
         LOGGER.debug("requestId = {}, invoke costTime = {}", request.getId(), System.currentTimeMillis() - startTime);
-        LOGGER.debug("requestId = {}, c to s costTime = {} ms, s to c costTime {} ms", request.getId(), response.getCreateTime() - request.getCreateTime(), System.currentTimeMillis() - response.getCreateTime());
-        if (Objects.equals(response.getCode(), ResponseCode.OK) && !"void".equalsIgnoreCase(returnType.getTypeName())) {
-            if (response.getData() == null) {
-                return null;
-            }
-            Class clazz = Class.forName(returnType.getTypeName());
-            return JSON.parseObject(JSONObject.toJSONString(response.getData(), SerializerFeature.DisableCircularReferenceDetect), clazz);
-        }
         if (!Objects.equals(response.getCode(), ResponseCode.OK)) {
             LOGGER.error("request = {}, code = {}, msg = {}", request, response.getCode(), response.getMsg());
             throw new RuntimeException(response.getMsg());
         }
-        return null;
+        return descriptor.getReturnType() == null ? null : response.getData();
+    }
+
+    /**
+     * 异步调用，调用线程不等待响应
+     *
+     * @param request 请求
+     * @return 调用结果的 future，响应码不是 OK 时异常完成
+     */
+    private CompletableFuture<Object> invokeAsync(Request request) {
+        CompletableFuture<Object> result = new CompletableFuture();
+        yuRPCClient.invokeAsync(request).whenComplete((response, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else if (!Objects.equals(response.getCode(), ResponseCode.OK)) {
+                LOGGER.error("request = {}, code = {}, msg = {}", request, response.getCode(), response.getMsg());
+                result.completeExceptionally(new RuntimeException(response.getMsg()));
+            } else {
+                result.complete(response.getData());
+            }
+        });
+        return result;
     }
 
     /**
@@ -111,6 +130,9 @@ public class ClientInvocationHandler implements InvocationHandler {
         if (proxies.containsKey(clazz)) {
             return (T) proxies.get(clazz);
         }
+        for (Method method : clazz.getMethods()) {
+            descriptors.putIfAbsent(method, new MethodDescriptor(method));
+        }
         Object proxy = Proxy.newProxyInstance(clazz.getClassLoader(), new Class[]{clazz}, this);
         proxies.put(clazz, proxy);
         return (T) proxy;
@@ -125,4 +147,16 @@ public class ClientInvocationHandler implements InvocationHandler {
         this.yuRPCClient = yuRPCClient;
     }
 
+    /**
+     * 修改器
+     *
+     * @param consumerConfig 服务消费者配置
+     */
+    public void setConsumerConfig(ConsumerConfig consumerConfig) {
+        this.consumerConfig = consumerConfig;
+        this.serializer = consumerConfig != null && StringUtils.isNotBlank(consumerConfig.getSerializer()) ? consumerConfig.getSerializer() : null;
+        this.invokeTimeoutMS = consumerConfig != null && consumerConfig.getInvokeTimeoutMS() != null ? consumerConfig.getInvokeTimeoutMS() : 0;
+        this.loadBalancer = consumerConfig != null && StringUtils.isNotBlank(consumerConfig.getLoadBalancer()) ? consumerConfig.getLoadBalancer() : null;
+    }
+
 }
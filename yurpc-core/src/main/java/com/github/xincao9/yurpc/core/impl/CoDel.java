@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+/**
+ * 按 CoDel 判断队列是否过载：以 interval 为周期统计排队时间的最小值，一个周期内的最小值不低于 target 时进入过载状态，
+ * 一个周期内的最小值低于 target 时退出。最小值反映的是持续存在的队列，短暂的突发不会进入过载，过载时偶尔
+ * 出现的一个短排队时间也只在整个周期结束时才起作用，状态最多每个周期改变一次
+ *
+ * @author xincao9@gmail.com
+ */
+public class CoDel {
+
+    private final long target;
+    private final long interval;
+    private volatile boolean overloaded;
+    private long intervalEnd; // 以下由 this 保护，当前周期的结束时间，0 表示还没有样本
+    private long minSojourn;
+
+    /**
+     * 构造器
+     *
+     * @param target 排队时间目标，纳秒
+     * @param interval 统计周期，纳秒
+     */
+    public CoDel(long target, long interval) {
+        this.target = target;
+        this.interval = Math.max(1, interval);
+    }
+
+    /**
+     * 记录一个排队时间样本，周期结束时按周期内的最小值更新过载状态
+     *
+     * @param sojourn 排队时间，纳秒
+     * @param now 当前时间，纳秒
+     * @return 过载状态是否改变
+     */
+    public synchronized boolean update(long sojourn, long now) {
+        if (intervalEnd == 0) {
+            intervalEnd = now + interval;
+            minSojourn = sojourn;
+            return false;
+        }
+        minSojourn = Math.min(minSojourn, sojourn);
+        if (now - intervalEnd < 0) {
+            return false;
+        }
+        boolean o = minSojourn >= target;
+        intervalEnd = now + interval;
+        minSojourn = Long.MAX_VALUE;
+        if (o == overloaded) {
+            return false;
+        }
+        overloaded = o;
+        return true;
+    }
+
+    /**
+     * 是否处于过载状态
+     *
+     * @return 是否过载
+     */
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个端点的自适应并发限制，按 Vegas 算法跟随耗时调整：以最小耗时为无排队耗时，估算端点上排队的调用数
+ * queue = limit * (1 - minRtt / rtt)，排队少于 alpha 时放大限制，多于 beta 时收缩；超时和连接失败按比例回退。
+ * 最小耗时每隔若干个样本重新探测，跟随端点本身耗时的变化
+ *
+ * @author xincao9@gmail.com
+ */
+public class ConcurrencyLimiter {
+
+    private static final int MIN_LIMIT = 1;
+    private static final int INITIAL_LIMIT = 20;
+    private static final int PROBE_MULTIPLIER = 30; // 约每 30 * limit 个样本重新探测最小耗时
+    private static final double BACKOFF = 0.9; // 超时和连接失败时的回退比例
+
+    private final int maxLimit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+    private double estimatedLimit; // 以下由 this 保护
+    private long minRtt; // 纳秒，0 表示需要重新探测
+    private long probeCount;
+    private long probeJitter = nextProbeJitter();
+
+    /**
+     * 构造器
+     *
+     * @param maxLimit 限制的上限
+     */
+    public ConcurrencyLimiter(int maxLimit) {
+        this.maxLimit = Math.max(MIN_LIMIT, maxLimit);
+        this.estimatedLimit = Math.min(INITIAL_LIMIT, this.maxLimit);
+        this.limit = (int) this.estimatedLimit;
+    }
+
+    /**
+     * 申请一个并发名额
+     *
+     * @return 进行中的调用数已达到限制时返回 false
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            int n = inflight.get();
+            if (n >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(n, n + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 归还名额并按本次调用调整限制
+     *
+     * @param rtt 耗时，纳秒，不大于 0 时只归还名额
+     * @param dropped 是否超时或连接失败
+     */
+    public void release(long rtt, boolean dropped) {
+        int n = inflight.getAndDecrement();
+        synchronized (this) {
+            if (dropped) {
+                estimatedLimit = Math.max(MIN_LIMIT, estimatedLimit * BACKOFF);
+                limit = (int) estimatedLimit;
+                return;
+            }
+            if (rtt <= 0) {
+                return;
+            }
+            if (++probeCount >= probeJitter * estimatedLimit) {
+                probeCount = 0;
+                probeJitter = nextProbeJitter();
+                minRtt = 0;
+            }
+            if (minRtt == 0 || rtt < minRtt) {
+                minRtt = rtt;
+                return;
+            }
+            if (n * 2 < estimatedLimit) { // 并发没有用到一半，耗时说明不了容量
+                return;
+            }
+            double log = Math.max(1, Math.log10(estimatedLimit));
+            double queue = Math.ceil(estimatedLimit * (1 - (double) minRtt / rtt));
+            double newLimit = estimatedLimit;
+            if (queue <= log) {
+                newLimit += 6 * log;
+            } else if (queue < 3 * log) {
+                newLimit += log;
+            } else if (queue > 6 * log) {
+                newLimit -= log;
+            }
+            estimatedLimit = Math.max(MIN_LIMIT, Math.min(maxLimit, newLimit));
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    private static long nextProbeJitter() {
+        return ThreadLocalRandom.current().nextLong(PROBE_MULTIPLIER / 2, PROBE_MULTIPLIER + 1);
+    }
+
+    /**
+     * 当前的并发限制
+     *
+     * @return 限制
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * 进行中的调用数
+     *
+     * @return 调用数
+     */
+    public int getInflight() {
+        return inflight.get();
+    }
+
+}
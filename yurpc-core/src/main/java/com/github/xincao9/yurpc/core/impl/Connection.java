@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import com.github.xincao9.yurpc.core.compressor.Compressor;
+import com.github.xincao9.yurpc.core.compressor.CompressorFactory;
+import com.github.xincao9.yurpc.core.protocol.Handshake;
+import com.github.xincao9.yurpc.core.serializer.SerializerFactory;
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 连接状态，保存握手协商的结果
+ *
+ * @author xincao9@gmail.com
+ */
+public class Connection {
+
+    public static final AttributeKey<Connection> KEY = AttributeKey.valueOf("yurpc.connection");
+
+    private final CompletableFuture<Handshake> handshakeFuture = new CompletableFuture();
+    private volatile Set<String> serializers = Collections.singleton(SerializerFactory.DEFAULT_SERIALIZER);
+    private volatile Map<String, Integer> methods = Collections.emptyMap();
+    private volatile Compressor compressor; // 为空时不压缩
+    private volatile boolean deadline; // 对端支持 FLAG_DEADLINE
+    private final int compressThreshold;
+
+    /**
+     * 构造器
+     *
+     * @param compressThreshold 消息体达到该长度时压缩
+     */
+    public Connection(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    /**
+     * 获取通道的连接状态
+     *
+     * @param channel 通道
+     * @return 连接状态，未握手时返回 null
+     */
+    public static Connection get(Channel channel) {
+        return channel.attr(KEY).get();
+    }
+
+    /**
+     * 完成握手
+     *
+     * @param handshake 协商结果，null 表示只支持默认能力
+     */
+    public void complete(Handshake handshake) {
+        if (handshake != null && handshake.getSerializers() != null) {
+            Set<String> names = new HashSet(handshake.getSerializers());
+            names.add(SerializerFactory.DEFAULT_SERIALIZER);
+            this.serializers = names;
+        }
+        if (handshake != null && handshake.getMethods() != null) {
+            this.methods = handshake.getMethods();
+        }
+        if (handshake != null) {
+            this.compressor = CompressorFactory.get(handshake.getCompressor());
+            this.deadline = Boolean.TRUE.equals(handshake.getDeadline());
+        }
+        handshakeFuture.complete(handshake);
+    }
+
+    /**
+     * 握手结果
+     *
+     * @return 握手完成时结束的 future
+     */
+    public CompletableFuture<Handshake> getHandshakeFuture() {
+        return handshakeFuture;
+    }
+
+    /**
+     * 是否支持序列化组件
+     *
+     * @param serializer 名字
+     * @return 是否支持
+     */
+    public boolean supports(String serializer) {
+        return serializer != null && serializers.contains(serializer);
+    }
+
+    /**
+     * 方法编号
+     *
+     * @param method 接口名.方法名
+     * @param paramTypes 参数类型名
+     * @return 编号，对端没有下发时返回 0（按名字调用）
+     */
+    public int getMethodId(String method, String[] paramTypes) {
+        if (methods.isEmpty()) {
+            return 0;
+        }
+        return getMethodId(ServiceMethod.signature(method, paramTypes));
+    }
+
+    /**
+     * 方法编号
+     *
+     * @param signature 方法签名
+     * @return 编号，对端没有下发时返回 0（按名字调用）
+     */
+    public int getMethodId(String signature) {
+        Integer id = methods.get(signature);
+        return id == null ? 0 : id;
+    }
+
+    /**
+     * 选择序列化组件，对端不支持时退回默认组件
+     *
+     * @param serializer 期望的名字
+     * @return 实际使用的名字
+     */
+    public String select(String serializer) {
+        return supports(serializer) ? serializer : SerializerFactory.DEFAULT_SERIALIZER;
+    }
+
+    /**
+     * 对端是否支持在请求中携带剩余时间
+     *
+     * @return 是否支持
+     */
+    public boolean supportsDeadline() {
+        return deadline;
+    }
+
+    /**
+     * 协商的压缩组件
+     *
+     * @return 压缩组件，不压缩时返回 null
+     */
+    public Compressor getCompressor() {
+        return compressor;
+    }
+
+    public int getCompressThreshold() {
+        return compressThreshold;
+    }
+
+}
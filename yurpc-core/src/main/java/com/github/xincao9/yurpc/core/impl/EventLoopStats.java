@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 服务端每条消息占用 IO 线程的时间，用于调整 yurpc.server.decodeOffloadThreshold；
+ * 计数只增不减，按两次读取的差值计算区间内的平均值
+ *
+ * @author xincao9@gmail.com
+ */
+public class EventLoopStats {
+
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder offloaded = new LongAdder(); // 在业务线程池解码的消息数
+    private final LongAdder nanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * 记录一条消息
+     *
+     * @param elapsed 占用 IO 线程的时间，纳秒
+     * @param offload 是否转到业务线程池解码
+     */
+    public void record(long elapsed, boolean offload) {
+        messages.increment();
+        if (offload) {
+            offloaded.increment();
+        }
+        nanos.add(elapsed);
+        long max = maxNanos.get();
+        while (elapsed > max && !maxNanos.compareAndSet(max, elapsed)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * 消息数
+     *
+     * @return 消息数
+     */
+    public long getMessages() {
+        return messages.sum();
+    }
+
+    /**
+     * 转到业务线程池解码的消息数
+     *
+     * @return 消息数
+     */
+    public long getOffloaded() {
+        return offloaded.sum();
+    }
+
+    /**
+     * 占用 IO 线程的总时间
+     *
+     * @return 纳秒
+     */
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    /**
+     * 单条消息占用 IO 线程的最长时间，读取后清零
+     *
+     * @return 纳秒
+     */
+    public long getAndResetMaxNanos() {
+        return maxNanos.getAndSet(0);
+    }
+
+    @Override
+    public String toString() {
+        long n = getMessages();
+        return String.format("EventLoopStats(messages=%d, offloaded=%d, avgNanos=%d, maxNanos=%d)", n, getOffloaded(), n == 0 ? 0 : getNanos() / n, maxNanos.get());
+    }
+
+}
@@ -15,14 +15,13 @@
  */
 package com.github.xincao9.yurpc.core.impl;
 
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import com.github.xincao9.yurpc.core.protocol.Request;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.timeout.IdleStateEvent;
-import io.netty.util.CharsetUtil;
 
 /**
  * 心跳处理器
@@ -32,8 +31,6 @@ import io.netty.util.CharsetUtil;
 @Sharable
 public class HeartbeatHandler extends ChannelInboundHandlerAdapter {
 
-    private static final ByteBuf HEARTBEAT_SEQUENCE = Unpooled.unreleasableBuffer(Unpooled.copiedBuffer("HEARTBEAT", CharsetUtil.UTF_8));
-
     /**
      * 事件触发
      *
@@ -44,7 +41,7 @@ public class HeartbeatHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
         if (evt instanceof IdleStateEvent) {
-            ctx.writeAndFlush(HEARTBEAT_SEQUENCE.duplicate()).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+            ctx.writeAndFlush(Request.createEvent(ProtocolConsts.EVENT_HEARTBEAT)).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
         } else {
             super.userEventTriggered(ctx, evt);
         }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import com.github.xincao9.yurpc.core.constant.ResponseCode;
+import com.github.xincao9.yurpc.core.protocol.Endpoint;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import com.github.xincao9.yurpc.core.protocol.Response;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 幂等方法的一次调用：连接失败时换一个提供者重试，超过 p95 耗时未响应时发送对冲请求，先到的成功响应生效；
+ * 所有尝试共用一个调用超时时间
+ *
+ * @author xincao9@gmail.com
+ */
+public class HedgedCall {
+
+    private static final double HEDGE_QUANTILE = 0.95;
+    private static final int HEDGE_MIN_SAMPLES = 100; // 样本不足时不对冲
+
+    private final YuRPCClientImpl client;
+    private final Request request;
+    private final LatencyHistogram histogram;
+    private final RetryBudget retryBudget;
+    private final int maxRetries;
+    private final long deadline;
+    private final CompletableFuture<Response> result = new CompletableFuture();
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicInteger retries = new AtomicInteger();
+    private volatile Endpoint firstEndpoint;
+
+    /**
+     * 构造器
+     *
+     * @param client 客户端
+     * @param request 请求
+     * @param timeoutMS 调用超时时间
+     * @param histogram 方法的耗时分布
+     * @param retryBudget 重试预算
+     * @param maxRetries 连接失败的最大重试次数
+     */
+    public HedgedCall(YuRPCClientImpl client, Request request, int timeoutMS, LatencyHistogram histogram, RetryBudget retryBudget, int maxRetries) {
+        this.client = client;
+        this.request = request;
+        this.histogram = histogram;
+        this.retryBudget = retryBudget;
+        this.maxRetries = maxRetries;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMS);
+    }
+
+    /**
+     * 发送第一次请求，并按 p95 耗时安排对冲
+     *
+     * @param timer 时间轮
+     * @return 调用结果
+     */
+    public CompletableFuture<Response> start(Timer timer) {
+        retryBudget.deposit();
+        firstEndpoint = attempt(request, null);
+        // 路由键要求固定的提供者，不对冲
+        if (request.isHedge() && request.getRouteKey() == null && !result.isDone()) {
+            long delay = histogram.quantile(HEDGE_QUANTILE, HEDGE_MIN_SAMPLES);
+            if (delay > 0 && delay < deadline - System.nanoTime()) {
+                Timeout timeout = timer.newTimeout((Timeout t) -> hedge(), delay, TimeUnit.NANOSECONDS);
+                result.whenComplete((response, e) -> timeout.cancel());
+            }
+        }
+        return result;
+    }
+
+    private void hedge() {
+        if (!result.isDone() && retryBudget.tryWithdraw()) {
+            attempt(request.copy(), firstEndpoint);
+        }
+    }
+
+    /**
+     * 发送一次请求
+     *
+     * @param attempt 本次发送的请求
+     * @param exclude 不选择的端点
+     * @return 选中的端点
+     */
+    private Endpoint attempt(Request attempt, Endpoint exclude) {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        attempt.setTimeoutMS((int) Math.max(1, remaining));
+        inflight.incrementAndGet();
+        long startTime = System.nanoTime();
+        PendingCall pendingCall = client.call(attempt, exclude);
+        pendingCall.getFuture().whenComplete((response, e) -> complete(pendingCall, response, startTime));
+        return pendingCall.getEndpoint();
+    }
+
+    private void complete(PendingCall pendingCall, Response response, long startTime) {
+        int remaining = inflight.decrementAndGet();
+        Integer code = response == null ? null : response.getCode();
+        if (ResponseCode.OK.equals(code)) {
+            histogram.record(System.nanoTime() - startTime);
+        }
+        if (result.isDone()) {
+            return;
+        }
+        // 连接失败、提供者过载和限流拒绝时请求都没有执行，换一个提供者重试
+        if (retryable(code) && deadline - System.nanoTime() > 0
+                && retries.incrementAndGet() <= maxRetries && retryBudget.tryWithdraw()) {
+            attempt(request.copy(), pendingCall.getEndpoint());
+            return;
+        }
+        // 还有其它尝试未结束时，失败的结果不生效
+        if ((retryable(code) || ResponseCode.INVOKE_TIMEOUT.equals(code)) && remaining > 0) {
+            return;
+        }
+        result.complete(response);
+    }
+
+    private static boolean retryable(Integer code) {
+        return ResponseCode.CONNECTION_FAILURE.equals(code) || ResponseCode.SERVER_OVERLOADED.equals(code)
+                || ResponseCode.RATE_LIMITED.equals(code);
+    }
+
+}
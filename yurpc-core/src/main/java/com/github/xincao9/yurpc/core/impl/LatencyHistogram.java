@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 耗时分布，按微秒取对数分桶（每个 2 倍区间 4 个桶），样本数达到窗口大小时所有桶减半，使分布跟随最近的耗时
+ *
+ * @author xincao9@gmail.com
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = 40 * SUB_BUCKETS; // 覆盖到 2^40 微秒
+    private static final int WINDOW = 2048;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicInteger samples = new AtomicInteger();
+
+    /**
+     * 记录耗时
+     *
+     * @param nanos 纳秒
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(nanos / 1000));
+        int n = samples.incrementAndGet();
+        if (n >= WINDOW && samples.compareAndSet(n, WINDOW / 2)) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = counts.get(i);
+                if (c > 0) {
+                    counts.addAndGet(i, -(c / 2));
+                }
+            }
+        }
+    }
+
+    /**
+     * 分位数
+     *
+     * @param quantile 分位，如 0.95
+     * @param minSamples 最少样本数
+     * @return 纳秒，样本不足时返回 -1
+     */
+    public long quantile(double quantile, int minSamples) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total < minSamples) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBound(i) * 1000;
+            }
+        }
+        return upperBound(BUCKETS - 1) * 1000;
+    }
+
+    private static int bucket(long micros) {
+        if (micros < 1) {
+            return 0;
+        }
+        int octave = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = octave == 0 ? 0 : (int) ((micros >>> Math.max(0, octave - 2)) & (SUB_BUCKETS - 1));
+        return Math.min(BUCKETS - 1, octave * SUB_BUCKETS + sub);
+    }
+
+    private static long upperBound(int bucket) {
+        int octave = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        return (1L << octave) + (((long) (sub + 1) << octave) / SUB_BUCKETS);
+    }
+
+}
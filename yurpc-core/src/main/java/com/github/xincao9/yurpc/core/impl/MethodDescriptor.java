@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import com.github.xincao9.yurpc.core.annotation.Idempotent;
+import com.github.xincao9.yurpc.core.annotation.Oneway;
+import com.github.xincao9.yurpc.core.annotation.RouteKey;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import com.github.xincao9.yurpc.core.serializer.TypeInfo;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 客户端方法描述，代理生成时计算，调用时只需要填入参数；返回 CompletableFuture 的方法按异步调用
+ *
+ * @author xincao9@gmail.com
+ */
+public class MethodDescriptor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodDescriptor.class);
+    private final Method method;
+    private final String name; // 接口名.方法名
+    private final String[] paramTypes;
+    private final Type[] genericParamTypes;
+    private final Type returnType; // void 时为空，异步方法为 CompletableFuture 的类型参数
+    private final boolean async; // 返回 CompletableFuture
+    private final String signature;
+    private final int routeKeyIndex; // @RouteKey 参数的位置，没有时为 -1
+    private final boolean idempotent; // 标注 @Idempotent
+    private final boolean hedge;
+    private final boolean oneway; // 标注 @Oneway 的 void 方法
+
+    public MethodDescriptor(Method method) {
+        this.method = method;
+        this.name = method.getDeclaringClass().getTypeName() + '.' + method.getName();
+        Class<?>[] classes = method.getParameterTypes();
+        this.paramTypes = classes.length == 0 ? null : new String[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            this.paramTypes[i] = classes[i].getTypeName();
+        }
+        this.genericParamTypes = method.getGenericParameterTypes();
+        this.async = method.getReturnType() == CompletableFuture.class;
+        if (async) {
+            this.returnType = TypeInfo.of(method.getGenericReturnType()).getArgument(0).getType();
+        } else {
+            this.returnType = method.getReturnType() == void.class ? null : method.getGenericReturnType();
+        }
+        this.signature = ServiceMethod.signature(name, paramTypes);
+        this.routeKeyIndex = routeKeyIndex(method);
+        Idempotent annotation = method.getAnnotation(Idempotent.class);
+        this.idempotent = annotation != null;
+        this.hedge = annotation != null && annotation.hedge();
+        this.oneway = method.isAnnotationPresent(Oneway.class) && method.getReturnType() == void.class;
+    }
+
+    private static int routeKeyIndex(Method method) {
+        Annotation[][] annotations = method.getParameterAnnotations();
+        for (int i = 0; i < annotations.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof RouteKey) {
+                    checkRouteKeyType(method, method.getParameterTypes()[i]);
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 路由键按 toString() 计算哈希，没有覆盖 toString() 的类得到的是对象标识，同一个逻辑键会随机路由
+     *
+     * @param method 方法
+     * @param type 路由键参数类型
+     */
+    private static void checkRouteKeyType(Method method, Class<?> type) {
+        if (type.isPrimitive() || type.isInterface() || type == String.class) {
+            return;
+        }
+        try {
+            if (type == Object.class || type.getMethod("toString").getDeclaringClass() == Object.class) {
+                LOGGER.warn("method = {} @RouteKey type = {} does not override toString(), keys will not route consistently", method, type.getName());
+            }
+        } catch (NoSuchMethodException e) {
+            // Object 总有 toString
+        }
+    }
+
+    /**
+     * 创建请求
+     *
+     * @param args 参数
+     * @return 请求
+     */
+    public Request createRequest(Object[] args) {
+        Request request = Request.createRequest(returnType != null, name, args);
+        request.setParamTypes(paramTypes);
+        request.setGenericParamTypes(genericParamTypes);
+        request.setReturnType(returnType);
+        request.setSignature(signature);
+        // 路由键为 null 时按没有路由键处理
+        if (routeKeyIndex >= 0 && args[routeKeyIndex] != null) {
+            request.setRouteKey(args[routeKeyIndex].toString());
+        }
+        request.setIdempotent(idempotent);
+        request.setHedge(hedge);
+        request.setOneway(oneway);
+        return request;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String[] getParamTypes() {
+        return paramTypes;
+    }
+
+    public Type[] getGenericParamTypes() {
+        return genericParamTypes;
+    }
+
+    public Type getReturnType() {
+        return returnType;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public int getRouteKeyIndex() {
+        return routeKeyIndex;
+    }
+
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+    public boolean isOneway() {
+        return oneway;
+    }
+}
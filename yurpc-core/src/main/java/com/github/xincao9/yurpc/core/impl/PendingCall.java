@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import com.github.xincao9.yurpc.core.protocol.Endpoint;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import com.github.xincao9.yurpc.core.protocol.Response;
+import io.netty.util.Timeout;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 等待响应的调用，只存在于客户端内存中，不参与序列化
+ *
+ * @author xincao9@gmail.com
+ */
+public class PendingCall {
+
+    private final Request request;
+    private final Endpoint endpoint;
+    private final long createTime = System.currentTimeMillis();
+    private final CompletableFuture<Response> future = new CompletableFuture();
+    private volatile Timeout timeout;
+    private volatile Boolean sendOk;
+    private volatile PendingCalls pendingCalls; // 所在连接的调用表，登记前为空
+    private volatile long id;
+
+    public PendingCall(Request request, Endpoint endpoint) {
+        this.request = request;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * 等待响应
+     *
+     * @param <T> 类型
+     * @param timeout 超时时间
+     * @param timeUnit 时间单位
+     * @return 响应，超时返回 null
+     * @throws InterruptedException 异常
+     */
+    public <T> Response<T> waitResponse(int timeout, TimeUnit timeUnit) throws InterruptedException {
+        try {
+            return future.get(timeout, timeUnit);
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 设置响应，同时取消超时任务；只有第一次设置生效
+     *
+     * @param response 响应
+     * @return 是否生效
+     */
+    public boolean putResponse(Response response) {
+        Timeout t = this.timeout;
+        if (t != null) {
+            t.cancel();
+        }
+        return future.complete(response);
+    }
+
+    /**
+     * 登记到连接的调用表时分配请求编号
+     *
+     * @param pendingCalls 调用表
+     * @param id 请求编号
+     */
+    void attach(PendingCalls pendingCalls, long id) {
+        this.pendingCalls = pendingCalls;
+        this.id = id;
+        this.request.setId(id);
+    }
+
+    /**
+     * 从调用表中移出，超时、发送失败和收到响应只有一方能成功
+     *
+     * @return 是否由本次移出
+     */
+    public boolean detach() {
+        PendingCalls t = this.pendingCalls;
+        return t != null && t.remove(this.id) == this;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Request getRequest() {
+        return request;
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public String getHost() {
+        return endpoint == null ? null : endpoint.getHost();
+    }
+
+    public Integer getPort() {
+        return endpoint == null ? null : endpoint.getPort();
+    }
+
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    public Response getResponse() {
+        return future.getNow(null);
+    }
+
+    /**
+     * 响应的 future，在 IO 线程上完成
+     *
+     * @return future
+     */
+    public CompletableFuture<Response> getFuture() {
+        return future;
+    }
+
+    /**
+     * 设置超时任务，响应先于超时任务到达时直接取消
+     *
+     * @param timeout 超时任务
+     */
+    public void setTimeout(Timeout timeout) {
+        this.timeout = timeout;
+        if (future.isDone()) {
+            timeout.cancel();
+        }
+    }
+
+    public Boolean getSendOk() {
+        return sendOk;
+    }
+
+    public void setSendOk(Boolean sendOk) {
+        this.sendOk = sendOk;
+    }
+
+}
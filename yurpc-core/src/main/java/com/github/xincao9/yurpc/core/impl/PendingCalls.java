@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 单个连接上等待响应的调用表；请求编号按连接分配，低位即槽位下标，查找和删除不需要装箱和加锁
+ *
+ * @author xincao9@gmail.com
+ */
+public class PendingCalls {
+
+    public static final AttributeKey<PendingCalls> KEY = AttributeKey.valueOf("yurpc.pendingCalls");
+
+    private final AtomicReferenceArray<PendingCall> slots;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong(1);
+    private volatile boolean closed;
+
+    /**
+     * 构造器
+     *
+     * @param capacity 最大并发调用数，向上取整为 2 的幂
+     */
+    public PendingCalls(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 获取通道的调用表
+     *
+     * @param channel 通道
+     * @return 调用表，服务端通道返回 null
+     */
+    public static PendingCalls get(Channel channel) {
+        return channel.attr(KEY).get();
+    }
+
+    /**
+     * 登记调用并分配请求编号；槽位被未完成的调用占用时顺延到下一个编号
+     *
+     * @param pendingCall 调用
+     * @return 是否登记成功，调用表已满或连接已关闭时返回 false
+     */
+    public boolean put(PendingCall pendingCall) {
+        for (int i = 0; i <= mask && !closed; i++) {
+            long id = sequence.getAndIncrement();
+            int slot = (int) id & mask;
+            if (slots.get(slot) != null) {
+                continue;
+            }
+            pendingCall.attach(this, id);
+            if (slots.compareAndSet(slot, null, pendingCall)) {
+                // 与 close() 竞争时由关闭方或这里之一把调用移出
+                return !closed || remove(id) == null;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 查找调用
+     *
+     * @param id 请求编号
+     * @return 调用，不存在时返回 null
+     */
+    public PendingCall get(long id) {
+        PendingCall pendingCall = slots.get((int) id & mask);
+        return pendingCall != null && pendingCall.getId() == id ? pendingCall : null;
+    }
+
+    /**
+     * 移除调用，同一个调用只有一方能移除成功
+     *
+     * @param id 请求编号
+     * @return 调用，不存在或已被移除时返回 null
+     */
+    public PendingCall remove(long id) {
+        int slot = (int) id & mask;
+        PendingCall pendingCall = slots.get(slot);
+        if (pendingCall != null && pendingCall.getId() == id && slots.compareAndSet(slot, pendingCall, null)) {
+            return pendingCall;
+        }
+        return null;
+    }
+
+    /**
+     * 关闭调用表，移出全部未完成的调用；之后的登记都会失败
+     *
+     * @return 未完成的调用
+     */
+    public List<PendingCall> close() {
+        this.closed = true;
+        List<PendingCall> pendingCalls = new ArrayList();
+        for (int slot = 0; slot <= mask; slot++) {
+            PendingCall pendingCall = slots.get(slot);
+            if (pendingCall != null && slots.compareAndSet(slot, pendingCall, null)) {
+                pendingCalls.add(pendingCall);
+            }
+        }
+        return pendingCalls;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+}
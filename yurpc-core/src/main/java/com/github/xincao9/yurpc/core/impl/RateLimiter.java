@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分段的令牌桶限流器，每秒发放 permitsPerSecond 个许可，允许一秒的突发
+ *
+ * <p>许可平均分到多个分段，每个分段按 GCRA 记录下一个许可的理论到达时间，用 CAS 更新，不加锁；
+ * 线程按编号固定使用一个分段，不同 IO 线程之间不争用同一个缓存行。本分段用完时依次从其它分段借用，总速率不受线程分布影响</p>
+ *
+ * @author xincao9@gmail.com
+ */
+public class RateLimiter {
+
+    private static final int PADDING = 16; // 每个分段占 128 字节，避免伪共享
+
+    private final int permitsPerSecond;
+    private final int stripes;
+    private final long interval; // 每个分段发放一个许可的间隔，纳秒
+    private final long tolerance; // 理论到达时间最多超前当前时间多久，即突发量
+    private final AtomicLongArray tats;
+
+    /**
+     * 构造器
+     *
+     * @param permitsPerSecond 每秒许可数，大于 0
+     */
+    public RateLimiter(int permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException(String.format("permitsPerSecond = %d invalid", permitsPerSecond));
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.stripes = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 2, permitsPerSecond));
+        this.interval = TimeUnit.SECONDS.toNanos(1) * stripes / permitsPerSecond;
+        this.tolerance = interval * (permitsPerSecond / stripes - 1);
+        this.tats = new AtomicLongArray(stripes * PADDING);
+        long now = System.nanoTime();
+        for (int i = 0; i < stripes; i++) {
+            tats.set(i * PADDING, now);
+        }
+    }
+
+    /**
+     * 获取一个许可，不等待
+     *
+     * @return 是否获得
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        int home = (int) (Thread.currentThread().getId() % stripes);
+        for (int i = 0; i < stripes; i++) {
+            int index = ((home + i) % stripes) * PADDING;
+            for (;;) {
+                long tat = tats.get(index);
+                if (tat - now > tolerance) {
+                    break;
+                }
+                long next = (tat - now > 0 ? tat : now) + interval;
+                if (tats.compareAndSet(index, tat, next)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 重试预算：每次调用存入一定比例的令牌，每次重试或对冲取出一个，令牌不足时放弃重试，避免故障期间重试放大流量
+ *
+ * @author xincao9@gmail.com
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000; // 一个令牌
+    private static final long RESERVE = 10 * SCALE; // 初始令牌，保证低流量时也能重试
+    private static final long CAPACITY = 100 * SCALE;
+
+    private final long deposit;
+    private final AtomicLong balance = new AtomicLong(RESERVE);
+
+    /**
+     * 构造器
+     *
+     * @param percent 重试占调用量的最大百分比
+     */
+    public RetryBudget(int percent) {
+        this.deposit = Math.max(0, percent) * SCALE / 100;
+    }
+
+    /**
+     * 调用时存入令牌
+     */
+    public void deposit() {
+        for (;;) {
+            long b = balance.get();
+            if (b >= CAPACITY || balance.compareAndSet(b, Math.min(CAPACITY, b + deposit))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 当前令牌数
+     *
+     * @return 令牌数
+     */
+    public double getBalance() {
+        return (double) balance.get() / SCALE;
+    }
+
+    /**
+     * 重试前取出令牌
+     *
+     * @return 是否允许重试
+     */
+    public boolean tryWithdraw() {
+        for (;;) {
+            long b = balance.get();
+            if (b < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(b, b - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+}
@@ -15,17 +15,27 @@
  */
 package com.github.xincao9.yurpc.core.impl;
 
+import com.github.xincao9.yurpc.core.YuRPCContext;
 import com.github.xincao9.yurpc.core.YuRPCServer;
-import com.alibaba.fastjson.JSONObject;
+import com.github.xincao9.yurpc.core.codec.MessageCodec;
+import com.github.xincao9.yurpc.core.compressor.CompressorFactory;
+import com.github.xincao9.yurpc.core.config.ProviderConfig;
+import com.github.xincao9.yurpc.core.config.ServerConfig;
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import com.github.xincao9.yurpc.core.protocol.Frame;
+import com.github.xincao9.yurpc.core.protocol.Handshake;
 import com.github.xincao9.yurpc.core.protocol.Request;
 import com.github.xincao9.yurpc.core.protocol.Response;
 import com.github.xincao9.yurpc.core.constant.ResponseCode;
+import com.github.xincao9.yurpc.core.serializer.FastjsonSerializer;
+import com.github.xincao9.yurpc.core.serializer.SerializerFactory;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 
-import java.lang.reflect.Method;
-import java.util.Map;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 
 import org.apache.commons.lang3.StringUtils;
@@ -38,93 +48,196 @@ import org.slf4j.LoggerFactory;
  * @author xincao9@gmail.com
  */
 @Sharable
-public class ServerHandler extends SimpleChannelInboundHandler<String> {
+public class ServerHandler extends SimpleChannelInboundHandler<Frame> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ServerHandler.class);
 
     private YuRPCServer yuRPCServer;
+    private EventLoopStats eventLoopStats;
     private final ThreadPoolExecutor processor;
-    private final Map<String, Class> nameClass = new ConcurrentHashMap();
 
     public ServerHandler() {
-        processor = new ThreadPoolExecutor(Runtime.getRuntime().availableProcessors(),
-                256,
-                60L,
-                TimeUnit.SECONDS,
-                new SynchronousQueue<>(), new ThreadPoolExecutor.CallerRunsPolicy());
+        processor = new BoundedExecutor("yurpc-processor", ServerConfig.threads, ServerConfig.queueSize, ServerConfig.queueTargetMS, ServerConfig.queueIntervalMS);
     }
 
-    private void submit(Boolean requestType, Method method, Long rid, Object component, Object[] params, ChannelHandlerContext ctx) {
-        processor.submit(() -> {
-            exec(requestType, method, rid, component, params, ctx);
-        });
+    /**
+     * 服务方法使用的线程池
+     *
+     * @param serviceMethod 服务方法
+     * @return 服务独占的线程池，没有时返回共享线程池
+     */
+    private Executor executor(ServiceMethod serviceMethod) {
+        return serviceMethod.getExecutor() != null ? serviceMethod.getExecutor() : processor;
     }
 
-    private void exec(Boolean requestType, Method method, Long rid, Object component, Object[] params, ChannelHandlerContext ctx) {
+    private void submit(Request request, ServiceMethod serviceMethod, String serializer, ChannelHandlerContext ctx) {
         try {
-            Response response;
-            if (requestType) {
-                response = Response.createResponse(rid, method.invoke(component, params));
-            } else {
-                method.invoke(component, params);
-                response = Response.createResponse(rid, null);
+            executor(serviceMethod).execute(BoundedExecutor.sheddable(() -> {
+                exec(request, serviceMethod, serializer, ctx);
+            }, () -> {
+                exception(ctx, request.getId(), ResponseCode.SERVER_OVERLOADED, String.format(ResponseCode.SERVER_OVERLOADED_MSG, serviceMethod.getServiceName()));
+            }));
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("service = {} overloaded, request id = {} rejected", serviceMethod.getServiceName(), request.getId());
+            exception(ctx, request.getId(), ResponseCode.SERVER_OVERLOADED, String.format(ResponseCode.SERVER_OVERLOADED_MSG, serviceMethod.getServiceName()));
+        }
+    }
+
+    /**
+     * 调用服务方法并回写响应，排队期间已经过了截止时间的请求不再执行
+     *
+     * @param request 请求
+     * @param serviceMethod 服务方法
+     * @param serializer 响应使用的序列化组件
+     * @param ctx 上下文
+     */
+    private void exec(Request request, ServiceMethod serviceMethod, String serializer, ChannelHandlerContext ctx) {
+        Boolean requestType = request.getRequestType();
+        Long rid = request.getId();
+        if (expired(request)) {
+            exception(ctx, rid, ResponseCode.DEADLINE_EXCEEDED, ResponseCode.DEADLINE_EXCEEDED_MSG);
+            return;
+        }
+        YuRPCContext.setDeadline(request.getDeadline());
+        try {
+            Object data = serviceMethod.invoke(request.getParams());
+            if (serviceMethod.isAsync() && data != null) {
+                ((CompletableFuture<?>) data).whenComplete((value, e) -> {
+                    if (e != null) {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        LOGGER.error(cause.getMessage());
+                        exception(ctx, rid, ResponseCode.SERVER_ERROR, cause.getMessage());
+                        return;
+                    }
+                    reply(requestType, serviceMethod, rid, value, serializer, ctx);
+                });
+                return;
             }
-            ctx.channel().writeAndFlush(response.toString());
+            reply(requestType, serviceMethod, rid, data, serializer, ctx);
         } catch (Throwable e) {
             LOGGER.error(e.getMessage());
             exception(ctx, rid, ResponseCode.SERVER_ERROR, e.getMessage());
+        } finally {
+            YuRPCContext.setDeadline(0);
+        }
+    }
+
+    /**
+     * 是否已经过了客户端的截止时间，客户端已经不再等待响应
+     *
+     * @param request 请求
+     * @return 是否过期
+     */
+    private static boolean expired(Request request) {
+        return request.getDeadline() != 0 && System.nanoTime() - request.getDeadline() >= 0;
+    }
+
+    private void reply(Boolean requestType, ServiceMethod serviceMethod, Long rid, Object data, String serializer, ChannelHandlerContext ctx) {
+        Response response = Response.createResponse(rid, requestType ? data : null);
+        if (requestType && serviceMethod.getReturnType() != null) {
+            response.setDataType(serviceMethod.getReturnType());
         }
+        response.setSerializer(serializer);
+        ctx.channel().writeAndFlush(response);
     }
 
     /**
-     * 处理请求
+     * 处理请求，消息体达到 yurpc.server.decodeOffloadThreshold 的请求转到业务线程池解码，不占用 IO 线程
      *
      * @param ctx 上下文
-     * @param str 消息体
+     * @param frame 协议帧
      * @throws Exception 异常
      */
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, String str) throws Exception {
-        Request request = JSONObject.parseObject(str, Request.class);
+    protected void channelRead0(ChannelHandlerContext ctx, Frame frame) throws Exception {
+        long startTime = System.nanoTime();
+        boolean offload = !frame.isEvent() && frame.content().readableBytes() >= ServerConfig.decodeOffloadThreshold;
+        if (offload) {
+            frame.retain();
+            try {
+                processor.execute(BoundedExecutor.sheddable(() -> {
+                    try {
+                        handle(ctx, frame, true);
+                    } finally {
+                        frame.release();
+                    }
+                }, () -> {
+                    try {
+                        if (!frame.isOneway()) {
+                            exception(ctx, frame.getId(), ResponseCode.SERVER_OVERLOADED, String.format(ResponseCode.SERVER_OVERLOADED_MSG, "-"));
+                        }
+                    } finally {
+                        frame.release();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                frame.release();
+                LOGGER.warn("processor overloaded, request id = {} rejected", frame.getId());
+                if (!frame.isOneway()) {
+                    exception(ctx, frame.getId(), ResponseCode.SERVER_OVERLOADED, String.format(ResponseCode.SERVER_OVERLOADED_MSG, "-"));
+                }
+            }
+        } else {
+            handle(ctx, frame, false);
+        }
+        eventLoopStats.record(System.nanoTime() - startTime, offload);
+    }
+
+    /**
+     * 解码请求并调用服务方法，分发前检查截止时间和限流
+     *
+     * @param ctx 上下文
+     * @param frame 协议帧
+     * @param offloaded 是否已经在业务线程池
+     */
+    private void handle(ChannelHandlerContext ctx, Frame frame, boolean offloaded) {
+        Request request;
+        try {
+            request = MessageCodec.decodeRequest(frame, this::resolveParamTypes);
+        } catch (Throwable e) {
+            LOGGER.error("request id = {} decode failure: {}", frame.getId(), e.getMessage());
+            if (!frame.isEvent() && !frame.isOneway()) {
+                exception(ctx, frame.getId(), ResponseCode.PARAMETER_ERROR, e.getMessage());
+            }
+            return;
+        }
         if (request.getEventType()) {
+            if (ProtocolConsts.EVENT_HANDSHAKE.equals(request.getMethod())) {
+                handshake(ctx, request);
+            }
             return;
         }
         long rid = request.getId();
+        if (expired(request)) {
+            LOGGER.debug("request id = {} method = {} expired before dispatch", rid, request.getMethod());
+            if (!request.isOneway()) {
+                exception(ctx, rid, ResponseCode.DEADLINE_EXCEEDED, ResponseCode.DEADLINE_EXCEEDED_MSG);
+            }
+            return;
+        }
         try {
-            String name = request.getMethod();
-            if (StringUtils.isBlank(name)) {
-                exception(ctx, rid, ResponseCode.PARAMETER_ERROR, ResponseCode.PARAMETER_ERROR_MSG);
+            ServiceMethod serviceMethod = getServiceMethod(request);
+            if (serviceMethod != null && !serviceMethod.tryAcquire()) {
+                LOGGER.debug("request id = {} method = {} rate limited", rid, serviceMethod.getSignature());
+                if (!request.isOneway()) {
+                    exception(ctx, rid, ResponseCode.RATE_LIMITED, String.format(ResponseCode.RATE_LIMITED_MSG, serviceMethod.getSignature()));
+                }
                 return;
             }
-            String classname = StringUtils.substringBeforeLast(name, ".");
-            String methodname = StringUtils.substringAfterLast(name, ".");
-            Object component = yuRPCServer.getBean(classname);
-            if (component == null) {
-                exception(ctx, rid, ResponseCode.NOT_FOUND_COMPONENT, String.format(ResponseCode.NOT_FOUND_COMPONENT_MSG, classname));
+            if (request.isOneway()) {
+                oneway(serviceMethod, request, offloaded);
                 return;
             }
-            String[] paramTypes = request.getParamTypes();
-            Class<?> clazz = getClass(classname);
-            Method method;
-            Object[] params = null;
-            if (paramTypes == null || paramTypes.length <= 0) {
-                method = clazz.getMethod(methodname);
-            } else {
-                Class<?>[] clazzes = new Class<?>[paramTypes.length];
-                params = new Object[paramTypes.length];
-                for (int i = 0; i < paramTypes.length; i++) {
-                    clazzes[i] = getClass(paramTypes[i]);
-                    if (request.getParams() != null && request.getParams()[i] != null) {
-                        params[i] = JSONObject.parseObject(JSONObject.toJSONString(request.getParams()[i]), clazzes[i]);
-                    }
-                }
-                method = clazz.getMethod(methodname, clazzes);
-            }
-            if (method == null) {
-                exception(ctx, rid, ResponseCode.NOT_FOUND_METHOD, String.format(ResponseCode.NOT_FOUND_METHOD_MSG, classname, methodname));
+            if (serviceMethod == null) {
+                notFound(ctx, request);
                 return;
             }
-            submit(request.getRequestType(), method, rid, component, params, ctx);
+            String serializer = responseSerializer(ctx, serviceMethod.getServiceName(), request);
+            if (offloaded && serviceMethod.getExecutor() == null) {
+                exec(request, serviceMethod, serializer, ctx);
+            } else {
+                submit(request, serviceMethod, serializer, ctx);
+            }
         } catch (Throwable e) {
             LOGGER.error(e.getMessage());
             exception(ctx, rid, ResponseCode.SERVER_ERROR, e.getMessage());
@@ -132,15 +245,152 @@ public class ServerHandler extends SimpleChannelInboundHandler<String> {
     }
 
     /**
-     * @param classname
-     * @return
-     * @throws ClassNotFoundException
+     * 单向调用，只执行不回写响应，错误只记录日志
+     *
+     * @param serviceMethod 服务方法，可能为空
+     * @param request 请求
+     * @param offloaded 是否已经在业务线程池
+     */
+    private void oneway(ServiceMethod serviceMethod, Request request, boolean offloaded) {
+        if (serviceMethod == null) {
+            LOGGER.error("oneway request method = {} methodId = {} not found", request.getMethod(), request.getMethodId());
+            return;
+        }
+        Runnable task = () -> {
+            if (expired(request)) {
+                return;
+            }
+            YuRPCContext.setDeadline(request.getDeadline());
+            try {
+                serviceMethod.invoke(request.getParams());
+            } catch (Throwable e) {
+                LOGGER.error(e.getMessage());
+            } finally {
+                YuRPCContext.setDeadline(0);
+            }
+        };
+        if (offloaded && serviceMethod.getExecutor() == null) {
+            task.run();
+            return;
+        }
+        try {
+            executor(serviceMethod).execute(BoundedExecutor.sheddable(task, () -> {
+                LOGGER.debug("service = {} overloaded, oneway request {} shed", serviceMethod.getServiceName(), request.getMethod());
+            }));
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("service = {} overloaded, oneway request {} dropped", serviceMethod.getServiceName(), request.getMethod());
+        }
+    }
+
+    /**
+     * 参数的声明类型，反序列化时直接绑定，事件和找不到的方法按 paramTypes 绑定
+     *
+     * @param request 请求（参数尚未解码）
+     * @return 参数的声明类型
+     */
+    private Type[] resolveParamTypes(Request request) {
+        if (request.getEventType()) {
+            return null;
+        }
+        ServiceMethod serviceMethod = getServiceMethod(request);
+        return serviceMethod == null ? null : serviceMethod.getParamTypes();
+    }
+
+    /**
+     * 查找服务方法，优先使用握手下发的方法编号
+     *
+     * @param request 请求
+     * @return 服务方法，不存在时返回 null
      */
-    private Class getClass(String classname) throws ClassNotFoundException {
-        if (!nameClass.containsKey(classname)) {
-            nameClass.put(classname, Class.forName(classname));
+    private ServiceMethod getServiceMethod(Request request) {
+        if (request.getMethodId() > 0) {
+            return yuRPCServer.getServiceMethod(request.getMethodId());
+        }
+        if (StringUtils.isBlank(request.getMethod())) {
+            return null;
         }
-        return nameClass.get(classname);
+        return yuRPCServer.getServiceMethod(ServiceMethod.signature(request.getMethod(), request.getParamTypes()));
+    }
+
+    /**
+     * 找不到服务方法时的响应
+     *
+     * @param ctx 上下文
+     * @param request 请求
+     */
+    private void notFound(ChannelHandlerContext ctx, Request request) {
+        String name = request.getMethod();
+        if (request.getMethodId() > 0) {
+            exception(ctx, request.getId(), ResponseCode.NOT_FOUND_METHOD, String.format(ResponseCode.NOT_FOUND_METHOD_MSG, "-", "#" + request.getMethodId()));
+        } else if (StringUtils.isBlank(name)) {
+            exception(ctx, request.getId(), ResponseCode.PARAMETER_ERROR, ResponseCode.PARAMETER_ERROR_MSG);
+        } else {
+            String classname = StringUtils.substringBeforeLast(name, ".");
+            String methodname = StringUtils.substringAfterLast(name, ".");
+            if (yuRPCServer.getBean(classname) == null) {
+                exception(ctx, request.getId(), ResponseCode.NOT_FOUND_COMPONENT, String.format(ResponseCode.NOT_FOUND_COMPONENT_MSG, classname));
+            } else {
+                exception(ctx, request.getId(), ResponseCode.NOT_FOUND_METHOD, String.format(ResponseCode.NOT_FOUND_METHOD_MSG, classname, methodname));
+            }
+        }
+    }
+
+    /**
+     * 协商连接能力，返回双方都支持的序列化组件
+     *
+     * @param ctx 上下文
+     * @param request 握手请求
+     */
+    private void handshake(ChannelHandlerContext ctx, Request request) {
+        List<String> serializers = new ArrayList();
+        String compressor = null;
+        Object[] params = request.getParams();
+        if (params != null && params.length > 0 && params[0] instanceof Handshake) {
+            if (CompressorFactory.get(((Handshake) params[0]).getCompressor()) != null) {
+                compressor = ((Handshake) params[0]).getCompressor();
+            }
+            List<String> names = ((Handshake) params[0]).getSerializers();
+            if (names != null) {
+                for (String name : names) {
+                    if (SerializerFactory.get(name) != null && !serializers.contains(name)) {
+                        serializers.add(name);
+                    }
+                }
+            }
+        }
+        Handshake handshake = new Handshake();
+        handshake.setSerializers(serializers);
+        handshake.setMethods(yuRPCServer.getMethodTable());
+        handshake.setCompressor(compressor);
+        handshake.setDeadline(Boolean.TRUE);
+        Connection connection = new Connection(ServerConfig.compressThreshold);
+        connection.complete(handshake);
+        ctx.channel().attr(Connection.KEY).set(connection);
+        Response response = Response.createResponse(request.getId(), handshake);
+        response.setEventType(Boolean.TRUE);
+        response.setDataType(Handshake.class);
+        response.setSerializer(FastjsonSerializer.NAME);
+        ctx.channel().writeAndFlush(response);
+    }
+
+    /**
+     * 响应使用服务提供者配置的序列化组件，对端不支持时沿用请求的序列化组件
+     *
+     * @param ctx 上下文
+     * @param classname 服务名
+     * @param request 请求
+     * @return 序列化组件名字
+     */
+    private String responseSerializer(ChannelHandlerContext ctx, String classname, Request request) {
+        ProviderConfig providerConfig = yuRPCServer.getProviderConfig(classname);
+        if (providerConfig == null || StringUtils.isBlank(providerConfig.getSerializer())) {
+            return request.getSerializer();
+        }
+        Connection connection = Connection.get(ctx.channel());
+        if (connection != null && connection.supports(providerConfig.getSerializer())) {
+            return providerConfig.getSerializer();
+        }
+        return request.getSerializer();
     }
 
     /**
@@ -150,7 +400,14 @@ public class ServerHandler extends SimpleChannelInboundHandler<String> {
      * @param msg
      */
     private void exception(ChannelHandlerContext ctx, Long id, Integer responseCode, String msg) {
-        ctx.channel().writeAndFlush(Response.createResponse(id, responseCode, msg).toString());
+        ctx.channel().writeAndFlush(Response.createResponse(id, responseCode, msg));
+    }
+
+    /**
+     * 关闭共享线程池
+     */
+    public void shutdown() {
+        processor.shutdown();
     }
 
     /**
@@ -160,5 +417,6 @@ public class ServerHandler extends SimpleChannelInboundHandler<String> {
      */
     public void setYuRPCServer(YuRPCServer yuRPCServer) {
         this.yuRPCServer = yuRPCServer;
+        this.eventLoopStats = yuRPCServer.getEventLoopStats();
     }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.impl;
+
+import com.github.xincao9.yurpc.core.serializer.TypeInfo;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 服务方法，注册时生成，编号在握手时下发给客户端
+ *
+ * <p>注册时预先绑定组件并展开参数数组得到 MethodHandle，同时缓存参数和返回值的声明类型，调用时不再做反射查找</p>
+ *
+ * @author xincao9@gmail.com
+ */
+public class ServiceMethod {
+
+    private static final Object[] EMPTY_PARAMS = new Object[0];
+
+    private final int id;
+    private final String signature;
+    private final String serviceName;
+    private final Object component;
+    private final Method method;
+    private final Type[] paramTypes;
+    private final Type returnType; // 异步方法为 CompletableFuture 的类型参数
+    private final boolean async; // 返回 CompletableFuture，完成后再响应
+    private final MethodHandle invoker; // (Object[]) -> Object
+    private final Executor executor; // 服务独占的线程池，为空时使用共享线程池
+    private final RateLimiter serviceRateLimiter; // 同一服务的方法共用，为空时不限流
+    private final RateLimiter methodRateLimiter;
+
+    public ServiceMethod(int id, String serviceName, Object component, Method method) {
+        this(id, serviceName, component, method, null);
+    }
+
+    public ServiceMethod(int id, String serviceName, Object component, Method method, Executor executor) {
+        this(id, serviceName, component, method, executor, null, null);
+    }
+
+    public ServiceMethod(int id, String serviceName, Object component, Method method, Executor executor,
+            RateLimiter serviceRateLimiter, RateLimiter methodRateLimiter) {
+        this.id = id;
+        this.executor = executor;
+        this.serviceRateLimiter = serviceRateLimiter;
+        this.methodRateLimiter = methodRateLimiter;
+        this.serviceName = serviceName;
+        this.component = component;
+        this.method = method;
+        this.signature = signature(serviceName + '.' + method.getName(), method.getParameterTypes());
+        this.paramTypes = method.getGenericParameterTypes();
+        this.async = method.getReturnType() == CompletableFuture.class;
+        if (async) {
+            this.returnType = TypeInfo.of(method.getGenericReturnType()).getArgument(0).getType();
+        } else {
+            this.returnType = method.getReturnType() == void.class ? null : method.getGenericReturnType();
+        }
+        try {
+            method.setAccessible(true);
+        } catch (RuntimeException e) {
+            // 公共接口方法不需要
+        }
+        try {
+            this.invoker = MethodHandles.lookup().unreflect(method)
+                    .bindTo(component)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(String.format("method = %s inaccessible", signature), e);
+        }
+    }
+
+    /**
+     * 调用
+     *
+     * @param params 参数，无参时可以为 null
+     * @return 返回值，void 方法返回 null
+     * @throws Throwable 方法抛出的异常
+     */
+    public Object invoke(Object[] params) throws Throwable {
+        return invoker.invokeExact(params == null ? EMPTY_PARAMS : params);
+    }
+
+    /**
+     * 获取方法和服务的限流许可，方法的许可在服务限流时不退回
+     *
+     * @return 是否获得
+     */
+    public boolean tryAcquire() {
+        return (methodRateLimiter == null || methodRateLimiter.tryAcquire())
+                && (serviceRateLimiter == null || serviceRateLimiter.tryAcquire());
+    }
+
+    /**
+     * 方法签名，形如 com.example.SayService.perform(com.example.Say)
+     *
+     * @param name 接口名.方法名
+     * @param paramTypes 参数类型名
+     * @return 签名
+     */
+    public static String signature(String name, String[] paramTypes) {
+        StringBuilder sb = new StringBuilder(name).append('(');
+        if (paramTypes != null) {
+            for (int i = 0; i < paramTypes.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(paramTypes[i]);
+            }
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * 方法签名
+     *
+     * @param name 接口名.方法名
+     * @param paramTypes 参数类型
+     * @return 签名
+     */
+    public static String signature(String name, Class<?>[] paramTypes) {
+        String[] names = new String[paramTypes.length];
+        for (int i = 0; i < paramTypes.length; i++) {
+            names[i] = paramTypes[i].getTypeName();
+        }
+        return signature(name, names);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public Object getComponent() {
+        return component;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * 参数的声明类型，不要修改返回的数组
+     *
+     * @return 参数的声明类型
+     */
+    public Type[] getParamTypes() {
+        return paramTypes;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * 返回值的声明类型
+     *
+     * @return 声明类型，void 方法返回 null
+     */
+    public Type getReturnType() {
+        return returnType;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public RateLimiter getServiceRateLimiter() {
+        return serviceRateLimiter;
+    }
+
+    public RateLimiter getMethodRateLimiter() {
+        return methodRateLimiter;
+    }
+}
@@ -16,14 +16,27 @@
 package com.github.xincao9.yurpc.core.impl;
 
 import com.github.xincao9.yurpc.core.YuRPCClient;
+import com.github.xincao9.yurpc.core.YuRPCContext;
 import com.github.xincao9.yurpc.core.config.ClientConfig;
+import com.github.xincao9.yurpc.core.config.ConsumerConfig;
 import com.github.xincao9.yurpc.core.protocol.Request;
 import com.github.xincao9.yurpc.core.protocol.Response;
+import com.github.xincao9.yurpc.core.codec.FrameDecoder;
+import com.github.xincao9.yurpc.core.codec.FrameEncoder;
 import com.github.xincao9.yurpc.core.codec.StringDecoder;
 import com.github.xincao9.yurpc.core.codec.StringEncoder;
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
 import com.github.xincao9.yurpc.core.constant.ResponseCode;
 import com.github.xincao9.yurpc.core.protocol.Endpoint;
+import com.github.xincao9.yurpc.core.protocol.Handshake;
+import com.github.xincao9.yurpc.core.protocol.Pair;
+import com.github.xincao9.yurpc.core.serializer.FastjsonSerializer;
+import com.github.xincao9.yurpc.core.serializer.SerializerFactory;
 import com.github.xincao9.yurpc.core.DiscoveryService;
+import com.github.xincao9.yurpc.core.loadbalancer.ConsistentHashLoadBalancer;
+import com.github.xincao9.yurpc.core.loadbalancer.EndpointStats;
+import com.github.xincao9.yurpc.core.loadbalancer.LoadBalancer;
+import com.github.xincao9.yurpc.core.loadbalancer.LoadBalancerFactory;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
@@ -39,15 +52,18 @@ import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.timeout.IdleStateHandler;
-import io.netty.util.concurrent.Future;
-import java.net.InetSocketAddress;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import org.apache.commons.lang3.RandomUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,10 +76,18 @@ import org.slf4j.LoggerFactory;
 public class YuRPCClientImpl implements YuRPCClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(YuRPCClientImpl.class);
-    private final Map<Long, Request> requests = new ConcurrentHashMap();
+    private static final long TIMER_TICK_MS = 10; // 超时精度
+    private static final int TIMER_TICKS_PER_WHEEL = 512;
     private final Bootstrap bootstrap = new Bootstrap();
-    private final Map<String, Channel> addressChannel = new HashMap();
+    private final Map<Endpoint, ChannelPool> channelPools = new ConcurrentHashMap();
+    private final List<Endpoint> servers = new ArrayList(); // yurpc.client.serverList 中的端点
+    private final Map<Endpoint, EndpointStats> endpointStats = new ConcurrentHashMap();
+    private final Map<Endpoint, ConcurrencyLimiter> concurrencyLimiters = new ConcurrentHashMap();
+    private final Map<String, Map<Endpoint, CircuitBreaker>> circuitBreakers = new ConcurrentHashMap(); // 方法到各端点的熔断器
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap(); // 幂等方法的耗时分布，用于对冲
+    private RetryBudget retryBudget;
     private EventLoopGroup workerGroup;
+    private HashedWheelTimer timer; // 所有连接共用的超时时间轮
     private ClientInvocationHandler clientInvocationHandler;
     private DiscoveryService discoveryService;
 
@@ -91,6 +115,7 @@ public class YuRPCClientImpl implements YuRPCClient {
      */
     @Override
     public void start() throws Throwable {
+        this.timer = new HashedWheelTimer(new DefaultThreadFactory("yurpc-timeout", true), TIMER_TICK_MS, TimeUnit.MILLISECONDS, TIMER_TICKS_PER_WHEEL);
         this.workerGroup = Epoll.isAvailable() ? new EpollEventLoopGroup(Runtime.getRuntime().availableProcessors()) : new NioEventLoopGroup(Runtime.getRuntime().availableProcessors());
         ClientHandler clientHandler = new ClientHandler();
         clientHandler.setYuRPCClient(this);
@@ -104,15 +129,29 @@ public class YuRPCClientImpl implements YuRPCClient {
                     @Override
                     public void initChannel(SocketChannel ch) throws Exception {
                         ChannelPipeline pipeline = ch.pipeline();
+                        Connection connection = new Connection(ClientConfig.compressThreshold);
+                        ch.attr(Connection.KEY).set(connection);
+                        ch.attr(PendingCalls.KEY).set(new PendingCalls(ClientConfig.maxPendingCalls));
+                        if (ClientConfig.protocolVersion == ProtocolConsts.VERSION_1) {
+                            connection.complete(null);
+                            pipeline.addLast(new StringEncoder(), new StringDecoder());
+                        } else {
+                            pipeline.addLast(new FrameEncoder(), new FrameDecoder());
+                        }
                         pipeline.addLast(
-                                new StringEncoder(),
-                                new StringDecoder(),
                                 clientHandler,
                                 new IdleStateHandler(0, 0, 60, TimeUnit.SECONDS),
                                 new HeartbeatHandler()
                         );
                     }
                 });
+        for (Pair<String, Integer> pair : ClientConfig.serverList) {
+            Endpoint endpoint = new Endpoint();
+            endpoint.setHost(pair.getO1());
+            endpoint.setPort(pair.getO2());
+            this.servers.add(endpoint);
+        }
+        this.retryBudget = new RetryBudget(ClientConfig.retryBudgetPercent);
         clientInvocationHandler = new ClientInvocationHandler();
         clientInvocationHandler.setYuRPCClient(this);
     }
@@ -124,15 +163,7 @@ public class YuRPCClientImpl implements YuRPCClient {
      */
     @Override
     public void shutdown() throws Throwable {
-        this.addressChannel.entrySet().forEach((entry) -> {
-            String address = entry.getKey();
-            Channel channel = entry.getValue();
-            if (channel != null) {
-                channel.close().addListener((Future<? super Void> future) -> {
-                    LOGGER.warn("close the connection to the yurpc service address = {}, cause = {}", address, future.cause());
-                });
-            }
-        });
+        this.channelPools.values().forEach(ChannelPool::close);
         if (this.workerGroup != null) {
             try {
                 this.workerGroup.shutdownGracefully().sync();
@@ -140,6 +171,9 @@ public class YuRPCClientImpl implements YuRPCClient {
                 LOGGER.error(ex.getMessage());
             }
         }
+        if (this.timer != null) {
+            this.timer.stop();
+        }
     }
 
     /**
@@ -152,83 +186,422 @@ public class YuRPCClientImpl implements YuRPCClient {
      */
     @Override
     public <T> Response<T> invoke(Request request) throws Throwable {
+        try {
+            // 超时由时间轮结束调用，调用线程只需等待
+            return (Response<T>) invokeAsync(request).get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 异步调用方法，响应和发送失败在 IO 线程上、超时在时间轮线程上完成 future，回调中不要阻塞
+     *
+     * @param <T> 类型
+     * @param request 请求
+     * @return 调用结果的 future，不会异常完成
+     */
+    @Override
+    public <T> CompletableFuture<Response<T>> invokeAsync(Request request) {
+        // 调用线程上有截止时间（例如在服务方法中发起调用）时，超时时间不超过剩余时间
+        long deadline = YuRPCContext.getDeadline();
+        if (deadline != 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return CompletableFuture.completedFuture(Response.createResponse(request.getId(), ResponseCode.DEADLINE_EXCEEDED, ResponseCode.DEADLINE_EXCEEDED_MSG));
+            }
+            if (remaining < TimeUnit.MILLISECONDS.toNanos(timeoutMS(request))) {
+                request.setTimeoutMS((int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+            }
+        }
+        request.setDeadline(deadline);
+        if (request.isIdempotent() && !request.isOneway()) {
+            HedgedCall hedgedCall = new HedgedCall(this, request, timeoutMS(request), getLatencyHistogram(request), this.retryBudget, ClientConfig.maxRetries);
+            return (CompletableFuture) hedgedCall.start(this.timer);
+        }
+        return (CompletableFuture) call(request, null).getFuture();
+    }
+
+    /**
+     * 选择节点并发送请求，请求编号由所在连接的调用表分配
+     *
+     * @param request 请求
+     * @param exclude 重试和对冲时不选择的端点，可以为空
+     * @return 等待响应的调用
+     */
+    PendingCall call(Request request, Endpoint exclude) {
         Objects.requireNonNull(request);
-        if (discoveryService != null && !request.isDirect()) {
-            List<Endpoint> nodes = discoveryService.query(StringUtils.substringBeforeLast(request.getMethod(), "."));
-            if (nodes != null && !nodes.isEmpty()) {
-                Endpoint node = nodes.get(RandomUtils.nextInt(0, nodes.size()));
-                request.setHost(node.getHost());
-                request.setPort(node.getPort());
+        List<Endpoint> endpoints = null;
+        if (discoveryService != null) {
+            endpoints = discoveryService.query(StringUtils.substringBeforeLast(request.getMethod(), "."));
+        }
+        if (endpoints == null || endpoints.isEmpty()) {
+            endpoints = this.servers;
+        }
+        if (endpoints.isEmpty()) {
+            LOGGER.error("method = {} no provider available", request.getMethod());
+            PendingCall pendingCall = new PendingCall(request, null);
+            pendingCall.putResponse(Response.createResponse(request.getId(), ResponseCode.CONNECTION_FAILURE, ResponseCode.CONNECTION_FAILURE_MSG));
+            return pendingCall;
+        }
+        List<Endpoint> all = endpoints;
+        if (exclude != null && endpoints.size() > 1 && endpoints.contains(exclude)) {
+            endpoints = new ArrayList(endpoints);
+            endpoints.remove(exclude);
+        }
+        Map<Endpoint, CircuitBreaker> breakers = getCircuitBreakers(request);
+        // 路由键固定映射到端点，熔断时直接失败，不改变映射
+        if (breakers != null && request.getRouteKey() == null) {
+            endpoints = available(endpoints, breakers);
+        }
+        // 只有熔断过滤掉了全部端点时才是熔断
+        if (endpoints.isEmpty()) {
+            PendingCall pendingCall = new PendingCall(request, null);
+            pendingCall.putResponse(Response.createResponse(request.getId(), ResponseCode.CIRCUIT_BREAKER_OPEN, ResponseCode.CIRCUIT_BREAKER_OPEN_MSG));
+            return pendingCall;
+        }
+        Endpoint endpoint = endpoints.size() == 1 ? endpoints.get(0) : getLoadBalancer(request).select(all, endpoints, request, this::getEndpointStats);
+        ConcurrencyLimiter limiter = null;
+        if (ClientConfig.maxConcurrency > 0 && !request.isOneway()) {
+            limiter = getConcurrencyLimiter(endpoint);
+            if (!limiter.tryAcquire()) {
+                limiter = null;
+                // 达到限制时换一个端点，路由键不换
+                if (request.getRouteKey() == null && endpoints.size() > 1) {
+                    List<Endpoint> others = new ArrayList(endpoints);
+                    others.remove(endpoint);
+                    Endpoint other = others.size() == 1 ? others.get(0) : getLoadBalancer(request).select(all, others, request, this::getEndpointStats);
+                    if (getConcurrencyLimiter(other).tryAcquire()) {
+                        endpoint = other;
+                        limiter = getConcurrencyLimiter(other);
+                    }
+                }
+                if (limiter == null) {
+                    PendingCall pendingCall = new PendingCall(request, endpoint);
+                    pendingCall.putResponse(Response.createResponse(request.getId(), ResponseCode.CONCURRENCY_LIMIT_EXCEEDED, ResponseCode.CONCURRENCY_LIMIT_EXCEEDED_MSG));
+                    return pendingCall;
+                }
+            }
+        }
+        PendingCall pendingCall = new PendingCall(request, endpoint);
+        if (breakers != null) {
+            CircuitBreaker breaker = getCircuitBreaker(breakers, endpoint);
+            int permit = breaker.acquire();
+            if (permit == CircuitBreaker.OPEN) {
+                if (limiter != null) {
+                    limiter.release(0, false);
+                }
+                pendingCall.putResponse(Response.createResponse(request.getId(), ResponseCode.CIRCUIT_BREAKER_OPEN, ResponseCode.CIRCUIT_BREAKER_OPEN_MSG));
+                return pendingCall;
             }
+            pendingCall.getFuture().whenComplete((Response response, Throwable e) -> breaker.record(permit, !isFailure(response)));
         }
-        Channel channel = getChannel(request.getHost(), request.getPort());
+        long startTime = System.nanoTime();
+        if (!request.isOneway()) { // 单向调用只有写出耗时，不计入端点统计
+            EndpointStats stats = getEndpointStats(endpoint);
+            stats.begin();
+            pendingCall.getFuture().whenComplete((Response response, Throwable e) -> stats.end(elapsed(request, response, startTime)));
+        }
+        if (limiter != null) {
+            ConcurrencyLimiter l = limiter;
+            pendingCall.getFuture().whenComplete((Response response, Throwable e) -> l.release(System.nanoTime() - startTime, isDropped(response)));
+        }
+        CompletableFuture<Channel> channelFuture = getChannelPool(endpoint).acquire();
+        Channel channel = channelFuture.getNow(null);
+        if (channel != null) {
+            send(pendingCall, channel);
+        } else {
+            channelFuture.whenComplete((ch, e) -> send(pendingCall, ch));
+        }
+        return pendingCall;
+    }
+
+    /**
+     * 在连接上登记并发送请求
+     *
+     * @param pendingCall 等待响应的调用
+     * @param channel 连接，为空时调用以连接失败结束
+     */
+    private void send(PendingCall pendingCall, Channel channel) {
+        Request request = pendingCall.getRequest();
         if (channel == null) {
-            return Response.createResponse(request.getId(), ResponseCode.CONNECTION_FAILURE, ResponseCode.CONNECTION_FAILURE_MSG);
+            LOGGER.error("yurpc.invoke() request = {} no connection to {}:{}", request, pendingCall.getHost(), pendingCall.getPort());
+            pendingCall.putResponse(Response.createResponse(request.getId(), ResponseCode.CONNECTION_FAILURE, ResponseCode.CONNECTION_FAILURE_MSG));
+            return;
+        }
+        Connection connection = Connection.get(channel);
+        request.setSerializer(connection.select(request.getSerializer() != null ? request.getSerializer() : ClientConfig.serializer));
+        request.setMethodId(request.getSignature() != null ? connection.getMethodId(request.getSignature()) : connection.getMethodId(request.getMethod(), request.getParamTypes()));
+        if (request.isOneway()) {
+            sendOneway(pendingCall, channel);
+            return;
+        }
+        if (!PendingCalls.get(channel).put(pendingCall)) {
+            LOGGER.error("yurpc.invoke() request = {} channel = {} is closed or has too many pending calls", request, channel);
+            pendingCall.putResponse(Response.createResponse(request.getId(), ResponseCode.CONNECTION_FAILURE, ResponseCode.CONNECTION_FAILURE_MSG));
+            return;
         }
-        this.requests.put(request.getId(), request);
-        channel.writeAndFlush(request.toString()).addListener((ChannelFutureListener) (ChannelFuture f) -> {
+        // 超时从发送时开始计算，不超过继承的截止时间；截止时间随请求发送给提供者，重试和对冲的请求沿用第一次发送的截止时间
+        long now = System.nanoTime();
+        long deadline = now + TimeUnit.MILLISECONDS.toNanos(timeoutMS(request));
+        if (request.getDeadline() == 0 || deadline - request.getDeadline() < 0) {
+            request.setDeadline(deadline);
+        }
+        pendingCall.setTimeout(this.timer.newTimeout((Timeout t) -> timeout(pendingCall), request.getDeadline() - now, TimeUnit.NANOSECONDS));
+        channel.writeAndFlush(request).addListener((ChannelFutureListener) (ChannelFuture f) -> {
             if (f.isSuccess()) {
-                request.setSendOk(Boolean.TRUE);
+                pendingCall.setSendOk(Boolean.TRUE);
                 return;
             }
-            request.setSendOk(Boolean.FALSE);
-            this.requests.remove(request.getId());
-            request.putResponse(null);
-            LOGGER.error("yurpc.invoke() request = {} failure exception = {}", request, f.cause());
+            pendingCall.setSendOk(Boolean.FALSE);
+            if (pendingCall.detach()) {
+                LOGGER.error("yurpc.invoke() request = {} failure exception = {}", request, f.cause());
+                pendingCall.putResponse(Response.createResponse(request.getId(), ResponseCode.CONNECTION_FAILURE, ResponseCode.CONNECTION_FAILURE_MSG));
+            }
         });
-        try {
-            return request.waitResponse(ClientConfig.invokeTimeoutMS, TimeUnit.MILLISECONDS);
-        } catch (Throwable e) {
-            LOGGER.error(e.getMessage());
-        }
-        this.requests.remove(request.getId());
-        request.putResponse(null);
-        LOGGER.error("yurpc.invoke() request = {} timeout (wait time > {} ms)", request, ClientConfig.invokeTimeoutMS);
-        return Response.createResponse(request.getId(), ResponseCode.INVOKE_TIMEOUT, ResponseCode.INVOKE_TIMEOUT_MSG);
     }
 
     /**
-     * 获取通道
+     * 请求使用的负载均衡组件
      *
-     * @param host 主机
-     * @param port 端口
-     * @return 通道
+     * @param request 请求
+     * @return 负载均衡组件，有路由键时使用一致性哈希，名字不存在时使用默认组件
      */
-    private Channel getChannel(String host, int port) {
-        String address = String.format("%s:%d", host, port);
-        if (!this.addressChannel.containsKey(address)) {
-            synchronized (this) {
-                if (!this.addressChannel.containsKey(address)) {
-                    ChannelFuture channelFuture = this.bootstrap.connect(new InetSocketAddress(host, port));
-                    if (channelFuture.awaitUninterruptibly(ClientConfig.connectionTimeoutMS)) {
-                        if (channelFuture.channel().isActive()) {
-                            YuRPCClientImpl.this.addressChannel.put(address, channelFuture.channel());
-                        }
-                    }
-                }
+    private static LoadBalancer getLoadBalancer(Request request) {
+        if (request.getRouteKey() != null) {
+            return LoadBalancerFactory.get(ConsistentHashLoadBalancer.NAME);
+        }
+        LoadBalancer loadBalancer = LoadBalancerFactory.get(request.getLoadBalancer() != null ? request.getLoadBalancer() : ClientConfig.loadBalancer);
+        return loadBalancer != null ? loadBalancer : LoadBalancerFactory.getDefault();
+    }
+
+    /**
+     * 单向调用不登记到调用表，也不设置超时，写出后即结束
+     *
+     * @param pendingCall 调用
+     * @param channel 连接
+     */
+    private void sendOneway(PendingCall pendingCall, Channel channel) {
+        Request request = pendingCall.getRequest();
+        channel.writeAndFlush(request).addListener((ChannelFutureListener) (ChannelFuture f) -> {
+            pendingCall.setSendOk(f.isSuccess());
+            if (f.isSuccess()) {
+                pendingCall.putResponse(Response.createResponse(request.getId(), null));
+                return;
             }
+            LOGGER.error("yurpc.invoke() oneway request = {} failure exception = {}", request, f.cause());
+            pendingCall.putResponse(Response.createResponse(request.getId(), ResponseCode.CONNECTION_FAILURE, ResponseCode.CONNECTION_FAILURE_MSG));
+        });
+    }
+
+    /**
+     * 端点的并发限制
+     *
+     * @param endpoint 端点
+     * @return 并发限制
+     */
+    private ConcurrencyLimiter getConcurrencyLimiter(Endpoint endpoint) {
+        ConcurrencyLimiter limiter = this.concurrencyLimiters.get(endpoint);
+        if (limiter == null) {
+            limiter = this.concurrencyLimiters.computeIfAbsent(endpoint, (Endpoint e) -> new ConcurrencyLimiter(ClientConfig.maxConcurrency));
         }
-        Channel channel = this.addressChannel.get(address);
-        if (channel == null) {
-            LOGGER.error("getChannel() host = {} port = {} channel is null", host, port);
+        return limiter;
+    }
+
+    /**
+     * 各端点当前的并发限制
+     *
+     * @return 端点到并发限制的映射
+     */
+    @Override
+    public Map<Endpoint, Integer> getConcurrencyLimits() {
+        Map<Endpoint, Integer> limits = new HashMap();
+        this.concurrencyLimiters.forEach((Endpoint endpoint, ConcurrencyLimiter limiter) -> limits.put(endpoint, limiter.getLimit()));
+        return limits;
+    }
+
+    /**
+     * 方法在各端点上的熔断器
+     *
+     * @param request 请求
+     * @return 端点到熔断器的映射，关闭熔断时返回 null
+     */
+    private Map<Endpoint, CircuitBreaker> getCircuitBreakers(Request request) {
+        if (ClientConfig.circuitBreakerErrorPercent <= 0) {
             return null;
         }
-        if (!channel.isActive()) {
-            this.addressChannel.remove(address);
-            LOGGER.error("getChannel() host = {} port = {} channel is inactive", host, port);
-            return null;
+        String key = request.getSignature() != null ? request.getSignature() : request.getMethod();
+        Map<Endpoint, CircuitBreaker> breakers = this.circuitBreakers.get(key);
+        if (breakers == null) {
+            breakers = this.circuitBreakers.computeIfAbsent(key, (String k) -> new ConcurrentHashMap());
         }
-        return channel;
+        return breakers;
+    }
+
+    private static CircuitBreaker getCircuitBreaker(Map<Endpoint, CircuitBreaker> breakers, Endpoint endpoint) {
+        CircuitBreaker breaker = breakers.get(endpoint);
+        if (breaker == null) {
+            breaker = breakers.computeIfAbsent(endpoint, (Endpoint e) -> new CircuitBreaker(ClientConfig.circuitBreakerErrorPercent,
+                    ClientConfig.circuitBreakerMinRequests, ClientConfig.circuitBreakerWindowMS, ClientConfig.circuitBreakerOpenMS));
+        }
+        return breaker;
     }
 
     /**
-     * 获得请求对象容器
+     * 去掉熔断打开的端点，都可用时返回原列表
      *
-     * @return 请求对象容器
+     * @param endpoints 端点
+     * @param breakers 端点到熔断器的映射
+     * @return 可用的端点
      */
-    @Override
-    public Map<Long, Request> getRequests() {
-        return this.requests;
+    private static List<Endpoint> available(List<Endpoint> endpoints, Map<Endpoint, CircuitBreaker> breakers) {
+        List<Endpoint> available = null;
+        for (int i = 0; i < endpoints.size(); i++) {
+            CircuitBreaker breaker = breakers.get(endpoints.get(i));
+            boolean ok = breaker == null || breaker.isAvailable();
+            if (!ok && available == null) {
+                available = new ArrayList(endpoints.subList(0, i));
+            } else if (ok && available != null) {
+                available.add(endpoints.get(i));
+            }
+        }
+        return available == null ? endpoints : available;
+    }
+
+    /**
+     * 超时、连接失败、提供者过载拒绝、提供者丢弃过期请求和提供者限流，并发限制按比例回退
+     *
+     * @param response 响应
+     * @return 是否丢弃
+     */
+    private static boolean isDropped(Response response) {
+        return response == null || ResponseCode.INVOKE_TIMEOUT.equals(response.getCode())
+                || ResponseCode.CONNECTION_FAILURE.equals(response.getCode())
+                || ResponseCode.SERVER_OVERLOADED.equals(response.getCode())
+                || ResponseCode.DEADLINE_EXCEEDED.equals(response.getCode())
+                || ResponseCode.RATE_LIMITED.equals(response.getCode());
+    }
+
+    /**
+     * 计入熔断的失败：超时、连接失败和服务端异常
+     *
+     * @param response 响应
+     * @return 是否失败
+     */
+    private static boolean isFailure(Response response) {
+        return response == null || ResponseCode.INVOKE_TIMEOUT.equals(response.getCode())
+                || ResponseCode.CONNECTION_FAILURE.equals(response.getCode())
+                || ResponseCode.SERVER_ERROR.equals(response.getCode());
+    }
+
+    /**
+     * 方法的耗时分布
+     *
+     * @param request 请求
+     * @return 耗时分布
+     */
+    private LatencyHistogram getLatencyHistogram(Request request) {
+        String key = request.getSignature() != null ? request.getSignature() : request.getMethod();
+        LatencyHistogram histogram = this.latencies.get(key);
+        if (histogram == null) {
+            histogram = this.latencies.computeIfAbsent(key, (String k) -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    /**
+     * 端点的调用统计
+     *
+     * @param endpoint 端点
+     * @return 调用统计
+     */
+    private EndpointStats getEndpointStats(Endpoint endpoint) {
+        EndpointStats stats = this.endpointStats.get(endpoint);
+        if (stats == null) {
+            stats = this.endpointStats.computeIfAbsent(endpoint, (Endpoint e) -> new EndpointStats());
+        }
+        return stats;
+    }
+
+    /**
+     * 调用耗时，被丢弃的调用（超时、连接失败、过载拒绝、过期丢弃、限流）按超时时间计，避免故障或过载节点因为失败得快而被优先选择
+     *
+     * @param request 请求
+     * @param response 响应
+     * @param startTime 开始时间
+     * @return 纳秒
+     */
+    private static long elapsed(Request request, Response response, long startTime) {
+        long nanos = System.nanoTime() - startTime;
+        if (response != null && isDropped(response)) {
+            nanos = Math.max(nanos, TimeUnit.MILLISECONDS.toNanos(timeoutMS(request)));
+        }
+        return nanos;
+    }
+
+    /**
+     * 调用超时时间
+     *
+     * @param request 请求
+     * @return 请求指定的超时时间，未指定时使用客户端配置
+     */
+    private static int timeoutMS(Request request) {
+        return request.getTimeoutMS() > 0 ? request.getTimeoutMS() : ClientConfig.invokeTimeoutMS;
+    }
+
+    /**
+     * 调用超时
+     *
+     * @param pendingCall 等待响应的调用
+     */
+    private void timeout(PendingCall pendingCall) {
+        if (pendingCall.detach()) {
+            LOGGER.error("yurpc.invoke() request = {} timeout (wait time > {} ms)", pendingCall.getRequest(), timeoutMS(pendingCall.getRequest()));
+            pendingCall.putResponse(Response.createResponse(pendingCall.getId(), ResponseCode.INVOKE_TIMEOUT, ResponseCode.INVOKE_TIMEOUT_MSG));
+        }
+    }
+
+    /**
+     * 获取端点的连接池
+     *
+     * @param endpoint 端点
+     * @return 连接池
+     */
+    private ChannelPool getChannelPool(Endpoint endpoint) {
+        ChannelPool channelPool = this.channelPools.get(endpoint);
+        if (channelPool == null) {
+            channelPool = this.channelPools.computeIfAbsent(endpoint, (Endpoint e) -> new ChannelPool(this.bootstrap, e, ClientConfig.connectionsPerEndpoint, this::handshake));
+        }
+        return channelPool;
+    }
+
+    /**
+     * 握手，协商连接使用的序列化组件；旧协议或对端不响应时只使用默认组件
+     *
+     * @param channel 通道
+     * @return 握手完成时结束的 future
+     */
+    private CompletableFuture<Handshake> handshake(Channel channel) {
+        Connection connection = Connection.get(channel);
+        if (ClientConfig.protocolVersion == ProtocolConsts.VERSION_1) {
+            return connection.getHandshakeFuture();
+        }
+        Handshake handshake = new Handshake();
+        handshake.setSerializers(SerializerFactory.names());
+        handshake.setCompressor(StringUtils.isBlank(ClientConfig.compressor) ? null : ClientConfig.compressor);
+        handshake.setDeadline(Boolean.TRUE);
+        Request request = Request.createEvent(ProtocolConsts.EVENT_HANDSHAKE);
+        request.setParams(new Object[]{handshake});
+        request.setParamTypes(new String[]{Handshake.class.getName()});
+        request.setSerializer(FastjsonSerializer.NAME);
+        channel.writeAndFlush(request);
+        channel.eventLoop().schedule(() -> {
+            if (!connection.getHandshakeFuture().isDone()) {
+                LOGGER.warn("handshake() channel = {} timeout, use serializer = {}", channel, SerializerFactory.DEFAULT_SERIALIZER);
+                connection.complete(null);
+            }
+        }, ClientConfig.connectionTimeoutMS, TimeUnit.MILLISECONDS);
+        return connection.getHandshakeFuture();
     }
 
     /**
@@ -243,6 +616,25 @@ public class YuRPCClientImpl implements YuRPCClient {
         return this.clientInvocationHandler.proxy(clazz);
     }
 
+    /**
+     * 获得接口的代理
+     *
+     * @param <T> 类型
+     * @param clazz 接口
+     * @param consumerConfig 服务消费者配置
+     * @return 代理对象
+     */
+    @Override
+    public <T> T proxy(Class<T> clazz, ConsumerConfig consumerConfig) {
+        if (consumerConfig == null) {
+            return proxy(clazz);
+        }
+        ClientInvocationHandler handler = new ClientInvocationHandler();
+        handler.setYuRPCClient(this);
+        handler.setConsumerConfig(consumerConfig);
+        return handler.proxy(clazz);
+    }
+
     /**
      * 修改器
      *
@@ -16,8 +16,9 @@
 package com.github.xincao9.yurpc.core.impl;
 
 import com.github.xincao9.yurpc.core.YuRPCServer;
-import com.github.xincao9.yurpc.core.codec.StringDecoder;
-import com.github.xincao9.yurpc.core.codec.StringEncoder;
+import com.github.xincao9.yurpc.core.annotation.RateLimit;
+import com.github.xincao9.yurpc.core.codec.ProtocolDetector;
+import com.github.xincao9.yurpc.core.config.ProviderConfig;
 import com.github.xincao9.yurpc.core.config.ServerConfig;
 import com.github.xincao9.yurpc.core.DiscoveryService;
 import io.netty.bootstrap.ServerBootstrap;
@@ -34,9 +35,17 @@ import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.util.concurrent.Future;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -58,6 +67,9 @@ public class YuRPCServerImpl implements YuRPCServer {
     private final Integer boss;
     private final Integer worker;
     private DiscoveryService discoveryService;
+    private final EventLoopStats eventLoopStats = new EventLoopStats();
+    private ServerHandler serverHandler;
+    private final List<ThreadPoolExecutor> executors = new ArrayList(); // 服务独占的线程池
 
     /**
      * 构造器
@@ -102,6 +114,7 @@ public class YuRPCServerImpl implements YuRPCServer {
         ServerBootstrap bootstrap = new ServerBootstrap();
         ServerHandler serverHandler = new ServerHandler();
         serverHandler.setYuRPCServer(this);
+        this.serverHandler = serverHandler;
         if (this.boss == 0) {
             bootstrap.group(this.workerGroup);
         } else {
@@ -113,8 +126,7 @@ public class YuRPCServerImpl implements YuRPCServer {
                 @Override
                 public void initChannel(SocketChannel ch) throws Exception {
                     ch.pipeline().addLast(
-                        new StringEncoder(),
-                        new StringDecoder(),
+                        new ProtocolDetector(),
                         serverHandler,
                         new IdleStateHandler(0, 0, 60, TimeUnit.SECONDS),
                         new HeartbeatHandler()
@@ -144,9 +156,20 @@ public class YuRPCServerImpl implements YuRPCServer {
         if (this.bossGroup != null) {
             this.bossGroup.shutdownGracefully();
         }
+        if (this.serverHandler != null) {
+            this.serverHandler.shutdown();
+        }
+        synchronized (this) {
+            for (ThreadPoolExecutor executor : executors) {
+                executor.shutdown();
+            }
+        }
     }
 
     private final Map<String, Object> componentes = new HashMap();
+    private final Map<String, ProviderConfig> providerConfigs = new HashMap();
+    private final Map<String, ServiceMethod> signatureServiceMethods = new ConcurrentHashMap();
+    private volatile ServiceMethod[] idServiceMethods = new ServiceMethod[1]; // 编号从 1 开始，0 表示按名字调用
 
     /**
      * 服务注册
@@ -156,20 +179,146 @@ public class YuRPCServerImpl implements YuRPCServer {
      */
     @Override
     public <T> void register(T obj) {
+        register(obj, null);
+    }
+
+    /**
+     * 服务注册
+     *
+     * @param <T> 组建类型
+     * @param obj 服务组件
+     * @param providerConfig 服务提供者配置
+     */
+    @Override
+    public synchronized <T> void register(T obj, ProviderConfig providerConfig) {
         Objects.requireNonNull(obj);
         Class<?>[] clazzes = obj.getClass().getInterfaces();
         if (clazzes == null || clazzes.length <= 0) {
             LOGGER.error("class = {} invalid format", obj.getClass().getCanonicalName());
             return;
         }
+        ThreadPoolExecutor executor = null;
+        if (providerConfig != null && providerConfig.getThreads() != null && providerConfig.getThreads() > 0) {
+            int queueSize = providerConfig.getQueueSize() != null ? providerConfig.getQueueSize() : ServerConfig.queueSize;
+            executor = new BoundedExecutor("yurpc-" + obj.getClass().getSimpleName(), providerConfig.getThreads(), queueSize, ServerConfig.queueTargetMS, ServerConfig.queueIntervalMS);
+            executors.add(executor);
+        }
         for (Class clazz : clazzes) {
             componentes.put(clazz.getTypeName(), obj);
+            Integer rateLimit = ServerConfig.rateLimits.get(clazz.getTypeName());
+            if (rateLimit == null && providerConfig != null) {
+                rateLimit = providerConfig.getRateLimit();
+            }
+            registerMethods(clazz, obj, executor, rateLimiter(rateLimit));
+            if (providerConfig != null) {
+                providerConfigs.put(clazz.getTypeName(), providerConfig);
+            }
             if (discoveryService != null) {
                 discoveryService.register(Endpoint.create(clazz.getTypeName()));
             }
         }
     }
 
+    /**
+     * 生成方法表，按签名排序后依次编号。yurpc.server.rateLimits 中 服务名.方法名 的配置由同名的重载方法共用一个限流器，
+     * 方法上的 @RateLimit 只限制该方法本身
+     *
+     * @param clazz 接口
+     * @param obj 服务组件
+     * @param executor 服务独占的线程池，为空时使用共享线程池
+     * @param serviceRateLimiter 服务的限流器，为空时不限流
+     */
+    private void registerMethods(Class<?> clazz, Object obj, Executor executor, RateLimiter serviceRateLimiter) {
+        Method[] methods = clazz.getMethods();
+        Arrays.sort(methods, Comparator.comparing((Method method) -> ServiceMethod.signature(method.getName(), method.getParameterTypes())));
+        ServiceMethod[] serviceMethods = Arrays.copyOf(idServiceMethods, idServiceMethods.length + methods.length);
+        int id = idServiceMethods.length;
+        Map<String, RateLimiter> nameRateLimiters = new HashMap();
+        for (Method method : methods) {
+            String name = clazz.getTypeName() + '.' + method.getName();
+            Integer rateLimit = ServerConfig.rateLimits.get(name);
+            RateLimiter methodRateLimiter;
+            if (rateLimit != null) {
+                methodRateLimiter = nameRateLimiters.computeIfAbsent(name, (String k) -> rateLimiter(rateLimit));
+            } else {
+                methodRateLimiter = rateLimiter(rateLimit(obj, method));
+            }
+            ServiceMethod serviceMethod = new ServiceMethod(id, clazz.getTypeName(), obj, method, executor, serviceRateLimiter, methodRateLimiter);
+            serviceMethods[id++] = serviceMethod;
+            signatureServiceMethods.put(serviceMethod.getSignature(), serviceMethod);
+        }
+        idServiceMethods = serviceMethods;
+    }
+
+    /**
+     * 方法上 @RateLimit 声明的每秒许可数，实现类的方法优先于接口方法
+     *
+     * @param obj 服务组件
+     * @param method 接口方法
+     * @return 每秒许可数，没有声明时返回 null
+     */
+    private static Integer rateLimit(Object obj, Method method) {
+        RateLimit rateLimit = null;
+        try {
+            rateLimit = obj.getClass().getMethod(method.getName(), method.getParameterTypes()).getAnnotation(RateLimit.class);
+        } catch (NoSuchMethodException e) {
+            // 接口方法总有实现
+        }
+        if (rateLimit == null) {
+            rateLimit = method.getAnnotation(RateLimit.class);
+        }
+        return rateLimit == null ? null : rateLimit.value();
+    }
+
+    private static RateLimiter rateLimiter(Integer rateLimit) {
+        return rateLimit != null && rateLimit > 0 ? new RateLimiter(rateLimit) : null;
+    }
+
+    /**
+     * 根据编号获取服务方法
+     *
+     * @param id 方法编号
+     * @return 服务方法
+     */
+    @Override
+    public ServiceMethod getServiceMethod(int id) {
+        ServiceMethod[] serviceMethods = idServiceMethods;
+        return id > 0 && id < serviceMethods.length ? serviceMethods[id] : null;
+    }
+
+    /**
+     * 根据签名获取服务方法
+     *
+     * @param signature 方法签名
+     * @return 服务方法
+     */
+    @Override
+    public ServiceMethod getServiceMethod(String signature) {
+        return signatureServiceMethods.get(signature);
+    }
+
+    /**
+     * 方法表
+     *
+     * @return 方法签名到编号的映射
+     */
+    @Override
+    public Map<String, Integer> getMethodTable() {
+        Map<String, Integer> methodTable = new HashMap();
+        signatureServiceMethods.forEach((signature, serviceMethod) -> methodTable.put(signature, serviceMethod.getId()));
+        return methodTable;
+    }
+
+    /**
+     * 每条消息占用 IO 线程的时间
+     *
+     * @return 统计
+     */
+    @Override
+    public EventLoopStats getEventLoopStats() {
+        return eventLoopStats;
+    }
+
     /**
      * 获取组建
      *
@@ -181,6 +330,17 @@ public class YuRPCServerImpl implements YuRPCServer {
         return componentes.get(name);
     }
 
+    /**
+     * 获取服务提供者配置
+     *
+     * @param name 组建类型名
+     * @return 服务提供者配置
+     */
+    @Override
+    public ProviderConfig getProviderConfig(String name) {
+        return providerConfigs.get(name);
+    }
+
     /**
      * 修改器
      *
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.loadbalancer;
+
+import com.github.xincao9.yurpc.core.protocol.Endpoint;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 一致性哈希，按请求的路由键选择端点；每个端点在环上有多个虚拟节点，没有路由键时随机选择
+ *
+ * <p>哈希环按服务的全部端点建立，只在端点变化时重建；重试、熔断排除的端点在查找时沿环跳过，
+ * 结果与去掉这些端点重建的环相同</p>
+ *
+ * @author xincao9@gmail.com
+ */
+public class ConsistentHashLoadBalancer implements LoadBalancer {
+
+    public static final String NAME = "consistentHash";
+    private static final int VIRTUAL_NODES = 160;
+
+    private final Map<String, Ring> rings = new ConcurrentHashMap(); // 服务名到哈希环，端点变化时重建
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints, Request request, Function<Endpoint, EndpointStats> stats) {
+        return select(endpoints, endpoints, request, stats);
+    }
+
+    @Override
+    public Endpoint select(List<Endpoint> all, List<Endpoint> endpoints, Request request, Function<Endpoint, EndpointStats> stats) {
+        if (request.getRouteKey() == null) {
+            return endpoints.get(ThreadLocalRandom.current().nextInt(endpoints.size()));
+        }
+        String service = StringUtils.substringBeforeLast(request.getMethod(), ".");
+        Ring ring = rings.get(service);
+        if (ring == null || !ring.matches(all)) {
+            ring = new Ring(all);
+            rings.put(service, ring);
+        }
+        return ring.get(hash(request.getRouteKey()), all == endpoints ? null : endpoints);
+    }
+
+    /**
+     * 64 位 FNV-1a，再经过 murmur3 的混合函数打散
+     *
+     * @param key 键
+     * @return 哈希值
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 哈希环，虚拟节点按哈希值排序，查找时二分
+     */
+    private static class Ring {
+
+        private final List<Endpoint> source; // 构建时的端点列表，服务发现没有变化时是同一个对象
+        private final Set<Endpoint> members;
+        private final long[] hashes;
+        private final Endpoint[] nodes;
+
+        Ring(List<Endpoint> endpoints) {
+            this.source = endpoints;
+            this.members = new HashSet(endpoints);
+            int size = endpoints.size() * VIRTUAL_NODES;
+            long[] keys = new long[size];
+            Endpoint[] owners = new Endpoint[size];
+            int n = 0;
+            for (Endpoint endpoint : endpoints) {
+                for (int i = 0; i < VIRTUAL_NODES; i++) {
+                    keys[n] = hash(endpoint.getHost() + ':' + endpoint.getPort() + '#' + i);
+                    owners[n] = endpoint;
+                    n++;
+                }
+            }
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+            this.hashes = new long[size];
+            this.nodes = new Endpoint[size];
+            for (int i = 0; i < size; i++) {
+                this.hashes[i] = keys[order[i]];
+                this.nodes[i] = owners[order[i]];
+            }
+        }
+
+        boolean matches(List<Endpoint> endpoints) {
+            return this.source == endpoints || (this.members.size() == endpoints.size() && this.members.containsAll(endpoints));
+        }
+
+        /**
+         * 顺时针查找第一个候选端点的虚拟节点
+         *
+         * @param hash 键的哈希
+         * @param candidates 候选端点，为空时不限制
+         * @return 端点，环上没有候选端点时随机选择一个候选端点
+         */
+        Endpoint get(long hash, List<Endpoint> candidates) {
+            int i = Arrays.binarySearch(hashes, hash);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            for (int n = 0; n < nodes.length; n++) {
+                Endpoint node = nodes[(i + n) % nodes.length];
+                if (candidates == null || candidates.contains(node)) {
+                    return node;
+                }
+            }
+            return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.loadbalancer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 客户端对单个端点的调用统计：进行中的调用数和按时间衰减的平均耗时
+ *
+ * @author xincao9@gmail.com
+ */
+public class EndpointStats {
+
+    private static final double DECAY_NANOS = TimeUnit.SECONDS.toNanos(1); // 平均耗时的衰减时间常数
+
+    private final AtomicInteger active = new AtomicInteger();
+    private volatile double latency; // 纳秒，0 表示还没有样本
+    private volatile long updateTime = System.nanoTime();
+
+    /**
+     * 调用开始
+     */
+    public void begin() {
+        active.incrementAndGet();
+    }
+
+    /**
+     * 调用结束，并发更新时可能丢失个别样本，对统计结果没有影响
+     *
+     * @param nanos 耗时
+     */
+    public void end(long nanos) {
+        active.decrementAndGet();
+        long now = System.nanoTime();
+        double old = this.latency;
+        if (old == 0) {
+            this.latency = nanos;
+        } else {
+            double w = Math.exp(-(now - this.updateTime) / DECAY_NANOS);
+            this.latency = old * w + nanos * (1 - w);
+        }
+        this.updateTime = now;
+    }
+
+    /**
+     * 进行中的调用数
+     *
+     * @return 调用数
+     */
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * 平均耗时
+     *
+     * @return 纳秒，还没有样本时为 0
+     */
+    public double getLatency() {
+        return latency;
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.loadbalancer;
+
+import com.github.xincao9.yurpc.core.protocol.Endpoint;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * 选择进行中调用数最少的端点，相同时从随机位置开始取第一个
+ *
+ * @author xincao9@gmail.com
+ */
+public class LeastActiveLoadBalancer implements LoadBalancer {
+
+    public static final String NAME = "leastActive";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints, Request request, Function<Endpoint, EndpointStats> stats) {
+        int size = endpoints.size();
+        int start = ThreadLocalRandom.current().nextInt(size);
+        Endpoint best = null;
+        int least = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Endpoint endpoint = endpoints.get((start + i) % size);
+            int active = stats.apply(endpoint).getActive();
+            if (active < least) {
+                least = active;
+                best = endpoint;
+            }
+        }
+        return best;
+    }
+
+}
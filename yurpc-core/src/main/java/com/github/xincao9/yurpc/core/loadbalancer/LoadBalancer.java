@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.loadbalancer;
+
+import com.github.xincao9.yurpc.core.protocol.Endpoint;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 负载均衡扩展点，通过 ServiceLoader 加载
+ * (META-INF/services/com.github.xincao9.yurpc.core.loadbalancer.LoadBalancer)
+ *
+ * <p>实现在所有调用间共享，需要线程安全</p>
+ *
+ * @author xincao9@gmail.com
+ */
+public interface LoadBalancer {
+
+    /**
+     * 名字，用于配置
+     *
+     * @return 名字
+     */
+    String getName();
+
+    /**
+     * 选择端点
+     *
+     * @param endpoints 候选端点，至少两个
+     * @param request 请求
+     * @param stats 客户端统计的端点调用情况
+     * @return 端点
+     */
+    Endpoint select(List<Endpoint> endpoints, Request request, Function<Endpoint, EndpointStats> stats);
+
+    /**
+     * 选择端点，重试、对冲和熔断时候选端点是全部端点的子集；按全部端点建立状态的实现（如一致性哈希）覆盖该方法
+     *
+     * @param all 服务的全部端点
+     * @param endpoints 候选端点，至少两个
+     * @param request 请求
+     * @param stats 客户端统计的端点调用情况
+     * @return 端点
+     */
+    default Endpoint select(List<Endpoint> all, List<Endpoint> endpoints, Request request, Function<Endpoint, EndpointStats> stats) {
+        return select(endpoints, request, stats);
+    }
+}
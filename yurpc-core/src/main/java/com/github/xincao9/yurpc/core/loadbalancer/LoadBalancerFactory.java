@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 负载均衡组件工厂
+ *
+ * @author xincao9@gmail.com
+ */
+public class LoadBalancerFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadBalancerFactory.class);
+
+    public static final String DEFAULT_LOAD_BALANCER = RandomLoadBalancer.NAME;
+
+    private static final Map<String, LoadBalancer> NAME_LOAD_BALANCER = new ConcurrentHashMap();
+    private static final List<String> NAMES;
+
+    static {
+        List<String> names = new ArrayList();
+        for (LoadBalancer loadBalancer : ServiceLoader.load(LoadBalancer.class, LoadBalancerFactory.class.getClassLoader())) {
+            if (NAME_LOAD_BALANCER.containsKey(loadBalancer.getName())) {
+                LOGGER.warn("load balancer = {} duplicate, ignored", loadBalancer.getName());
+                continue;
+            }
+            NAME_LOAD_BALANCER.put(loadBalancer.getName(), loadBalancer);
+            names.add(loadBalancer.getName());
+        }
+        NAMES = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * 根据名字获取
+     *
+     * @param name 名字
+     * @return 负载均衡组件，不存在时返回 null
+     */
+    public static LoadBalancer get(String name) {
+        return name == null ? null : NAME_LOAD_BALANCER.get(name);
+    }
+
+    /**
+     * 默认负载均衡组件
+     *
+     * @return 随机选择
+     */
+    public static LoadBalancer getDefault() {
+        return NAME_LOAD_BALANCER.get(DEFAULT_LOAD_BALANCER);
+    }
+
+    /**
+     * 已加载的负载均衡组件名字
+     *
+     * @return 名字列表
+     */
+    public static List<String> names() {
+        return NAMES;
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.loadbalancer;
+
+import com.github.xincao9.yurpc.core.protocol.Endpoint;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * 随机取两个端点，选择 平均耗时 ×（进行中调用数 + 1）较小的一个（power of two choices）
+ *
+ * <p>还没有耗时样本的端点代价最低，会优先被探测</p>
+ *
+ * @author xincao9@gmail.com
+ */
+public class P2CLoadBalancer implements LoadBalancer {
+
+    public static final String NAME = "p2c";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints, Request request, Function<Endpoint, EndpointStats> stats) {
+        int size = endpoints.size();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(size);
+        int j = random.nextInt(size - 1);
+        if (j >= i) {
+            j++;
+        }
+        Endpoint a = endpoints.get(i);
+        Endpoint b = endpoints.get(j);
+        return cost(stats.apply(a)) <= cost(stats.apply(b)) ? a : b;
+    }
+
+    private static double cost(EndpointStats stats) {
+        return (stats.getLatency() + 1) * (stats.getActive() + 1);
+    }
+
+}
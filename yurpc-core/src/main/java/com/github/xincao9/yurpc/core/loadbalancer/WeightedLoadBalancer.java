@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.loadbalancer;
+
+import com.github.xincao9.yurpc.core.constant.ServerConsts;
+import com.github.xincao9.yurpc.core.protocol.Endpoint;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * 按提供者配置的权重随机选择
+ *
+ * @author xincao9@gmail.com
+ */
+public class WeightedLoadBalancer implements LoadBalancer {
+
+    public static final String NAME = "weighted";
+    private static final int DEFAULT_WEIGHT = Integer.parseInt(ServerConsts.DEFAULT_WEIGHT);
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints, Request request, Function<Endpoint, EndpointStats> stats) {
+        int total = 0;
+        for (Endpoint endpoint : endpoints) {
+            total += weight(endpoint);
+        }
+        if (total <= 0) {
+            return endpoints.get(ThreadLocalRandom.current().nextInt(endpoints.size()));
+        }
+        int offset = ThreadLocalRandom.current().nextInt(total);
+        for (Endpoint endpoint : endpoints) {
+            offset -= weight(endpoint);
+            if (offset < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private static int weight(Endpoint endpoint) {
+        return endpoint.getWeight() == null ? DEFAULT_WEIGHT : Math.max(0, endpoint.getWeight());
+    }
+
+}
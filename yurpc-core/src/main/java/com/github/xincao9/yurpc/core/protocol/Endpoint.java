@@ -20,6 +20,7 @@ import com.alibaba.fastjson.serializer.SerializerFeature;
 import com.github.xincao9.yurpc.core.config.ServerConfig;
 import com.github.xincao9.yurpc.core.util.HostUtils;
 import java.util.Date;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
@@ -32,6 +33,7 @@ public class Endpoint {
     private String instanceId;
     private String host;
     private Integer port;
+    private Integer weight; // 负载均衡权重，为空时使用默认权重
     private String name;
     private Date createTime;
 
@@ -46,6 +48,7 @@ public class Endpoint {
         node.setInstanceId(UUID.randomUUID().toString());
         node.setHost(HostUtils.getLocalAddress());
         node.setPort(ServerConfig.port);
+        node.setWeight(ServerConfig.weight);
         node.setName(name);
         node.setCreateTime(new Date());
         return node;
@@ -75,6 +78,14 @@ public class Endpoint {
         this.port = port;
     }
 
+    public Integer getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Integer weight) {
+        this.weight = weight;
+    }
+
     public String getName() {
         return name;
     }
@@ -91,6 +102,29 @@ public class Endpoint {
         this.createTime = createTime;
     }
 
+    /**
+     * 同一地址的端点视为相同，客户端按地址复用连接池
+     *
+     * @param o 对象
+     * @return 是否相同
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Endpoint)) {
+            return false;
+        }
+        Endpoint that = (Endpoint) o;
+        return Objects.equals(host, that.host) && Objects.equals(port, that.port);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(host, port);
+    }
+
     @Override
     public String toString () {
         return JSONObject.toJSONString(this, SerializerFeature.DisableCircularReferenceDetect);
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.protocol;
+
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+
+/**
+ * 协议帧，持有未反序列化的消息体
+ *
+ * @author xincao9@gmail.com
+ */
+public class Frame extends DefaultByteBufHolder {
+
+    private final byte version;
+    private final byte flags;
+    private final byte serializer;
+    private final long id;
+
+    public Frame(byte version, byte flags, byte serializer, long id, ByteBuf body) {
+        super(body);
+        this.version = version;
+        this.flags = flags;
+        this.serializer = serializer;
+        this.id = id;
+    }
+
+    /**
+     * 创建旧协议帧，头部信息都在 JSON 消息体中
+     *
+     * @param body 消息体
+     * @return 协议帧
+     */
+    public static Frame legacy(ByteBuf body) {
+        return new Frame(ProtocolConsts.VERSION_1, (byte) 0, ProtocolConsts.SERIALIZER_FASTJSON, -1L, body);
+    }
+
+    public byte getVersion() {
+        return version;
+    }
+
+    public byte getFlags() {
+        return flags;
+    }
+
+    public byte getSerializer() {
+        return serializer;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public boolean isLegacy() {
+        return version == ProtocolConsts.VERSION_1;
+    }
+
+    public boolean isRequest() {
+        return (flags & ProtocolConsts.FLAG_REQUEST) != 0;
+    }
+
+    public boolean isResponse() {
+        return (flags & ProtocolConsts.FLAG_RESPONSE) != 0;
+    }
+
+    public boolean isEvent() {
+        return (flags & ProtocolConsts.FLAG_EVENT) != 0;
+    }
+
+    public boolean isOneway() {
+        return (flags & ProtocolConsts.FLAG_ONEWAY) != 0;
+    }
+
+    public boolean hasDeadline() {
+        return (flags & ProtocolConsts.FLAG_DEADLINE) != 0;
+    }
+
+    public boolean isCompressed() {
+        return (flags & ProtocolConsts.FLAG_COMPRESSED) != 0;
+    }
+
+    @Override
+    public Frame replace(ByteBuf content) {
+        return new Frame(version, flags, serializer, id, content);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Frame(version=%d, flags=%d, serializer=%d, id=%d, length=%d)", version, flags, serializer, id, content().readableBytes());
+    }
+
+}
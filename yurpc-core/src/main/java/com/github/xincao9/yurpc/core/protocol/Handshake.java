@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.protocol;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 握手消息，客户端发送支持的能力，服务端返回协商结果
+ *
+ * @author xincao9@gmail.com
+ */
+public class Handshake {
+
+    private List<String> serializers; // 序列化组件名字
+    private Map<String, Integer> methods; // 服务端方法表，方法签名到编号
+    private String compressor; // 客户端期望的压缩组件，服务端返回双方都支持时的名字，否则为空
+    private Boolean deadline; // 服务端支持 FLAG_DEADLINE
+
+    public List<String> getSerializers() {
+        return serializers;
+    }
+
+    public void setSerializers(List<String> serializers) {
+        this.serializers = serializers;
+    }
+
+    public Map<String, Integer> getMethods() {
+        return methods;
+    }
+
+    public void setMethods(Map<String, Integer> methods) {
+        this.methods = methods;
+    }
+
+    public String getCompressor() {
+        return compressor;
+    }
+
+    public void setCompressor(String compressor) {
+        this.compressor = compressor;
+    }
+
+    public Boolean getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Boolean deadline) {
+        this.deadline = deadline;
+    }
+
+}
@@ -16,15 +16,13 @@
 package com.github.xincao9.yurpc.core.protocol;
 
 import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.annotation.JSONField;
 import com.alibaba.fastjson.serializer.SerializerFeature;
-import com.github.xincao9.yurpc.core.config.ClientConfig;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
+import java.lang.reflect.Type;
 import java.util.concurrent.atomic.AtomicLong;
-import org.apache.commons.lang3.RandomUtils;
 
 /**
- * 请求体
+ * 请求体，只包含线上传输的字段；客户端等待响应的状态保存在 PendingCall 中
  *
  * @author xincao9@gmail.com
  */
@@ -37,13 +35,30 @@ public class Request {
     private String[] paramTypes;
     private static final AtomicLong COUNTER = new AtomicLong(0);
     private String method;
-    private Long createTime;
-    private String host;
-    private int port;
-    private final CountDownLatch countDownLatch = new CountDownLatch(1);
-    private Response response;
-    private Boolean sendOk;
-    private Boolean direct = Boolean.FALSE;
+    @JSONField(serialize = false, deserialize = false)
+    private String serializer; // 序列化组件名字，旧协议固定为 fastjson
+    @JSONField(serialize = false, deserialize = false)
+    private int methodId; // 握手下发的方法编号，0 表示按名字调用
+    @JSONField(serialize = false, deserialize = false)
+    private Type[] genericParamTypes; // 参数的声明类型，为空时使用 paramTypes
+    @JSONField(serialize = false, deserialize = false)
+    private Type returnType; // 返回值的声明类型，void 时为空
+    @JSONField(serialize = false, deserialize = false)
+    private String signature; // 方法签名，由客户端方法描述预先计算
+    @JSONField(serialize = false, deserialize = false)
+    private int timeoutMS; // 调用超时时间，0 表示使用 yurpc.client.invokeTimeoutMS
+    @JSONField(serialize = false, deserialize = false)
+    private String loadBalancer; // 负载均衡组件名字，为空时使用 yurpc.client.loadBalancer
+    @JSONField(serialize = false, deserialize = false)
+    private String routeKey; // 路由键，不为空时按一致性哈希选择端点
+    @JSONField(serialize = false, deserialize = false)
+    private boolean idempotent; // 幂等，允许重试
+    @JSONField(serialize = false, deserialize = false)
+    private boolean hedge; // 允许发送对冲请求
+    @JSONField(serialize = false, deserialize = false)
+    private boolean oneway; // 单向调用，新协议通过 FLAG_ONEWAY 传输，提供者不回写响应
+    @JSONField(serialize = false, deserialize = false)
+    private long deadline; // 截止时间，System.nanoTime() 时间，0 表示没有；新协议以剩余时间传输
 
     /**
      * 创建请求体
@@ -57,18 +72,14 @@ public class Request {
         Request request = new Request();
         request.setRequestType(requestType);
         request.setEventType(false);
-        request.setId(COUNTER.getAndIncrement());
+        request.setId(0L); // 发送时由连接的调用表分配
         request.setMethod(method);
         request.setParams(params);
-        request.setCreateTime(System.currentTimeMillis());
-        Pair<String, Integer> pair = ClientConfig.serverList.get(RandomUtils.nextInt(0, ClientConfig.serverList.size()));
-        request.setHost(pair.getO1());
-        request.setPort(pair.getO2());
         return request;
     }
 
     /**
-     * 创建事件
+     * 创建事件，事件作用于连接本身，不需要选择节点
      *
      * @param method
      * @return
@@ -79,35 +90,35 @@ public class Request {
         request.setEventType(true);
         request.setId(COUNTER.getAndIncrement());
         request.setMethod(method);
-        request.setCreateTime(System.currentTimeMillis());
-        Pair<String, Integer> pair = ClientConfig.serverList.get(RandomUtils.nextInt(0, ClientConfig.serverList.size()));
-        request.setHost(pair.getO1());
-        request.setPort(pair.getO2());
         return request;
     }
 
     /**
-     * 等待响应
+     * 复制请求，用于重试和对冲；每次发送都会分配新的请求编号，所以不能共用同一个对象
      *
-     * @param <T>
-     * @param timeout
-     * @param timeUnit
-     * @return
-     * @throws InterruptedException
+     * @return 请求
      */
-    public <T> Response<T> waitResponse(int timeout, TimeUnit timeUnit) throws InterruptedException {
-        this.countDownLatch.await(timeout, timeUnit);
-        return response;
-    }
-
-    /**
-     * 设置返回值
-     *
-     * @param response
-     */
-    public void putResponse(Response response) {
-        this.response = response;
-        this.countDownLatch.countDown();
+    public Request copy() {
+        Request request = new Request();
+        request.setRequestType(requestType);
+        request.setEventType(eventType);
+        request.setId(id);
+        request.setParams(params);
+        request.setParamTypes(paramTypes);
+        request.setMethod(method);
+        request.setSerializer(serializer);
+        request.setMethodId(methodId);
+        request.setGenericParamTypes(genericParamTypes);
+        request.setReturnType(returnType);
+        request.setSignature(signature);
+        request.setTimeoutMS(timeoutMS);
+        request.setLoadBalancer(loadBalancer);
+        request.setRouteKey(routeKey);
+        request.setIdempotent(idempotent);
+        request.setHedge(hedge);
+        request.setOneway(oneway);
+        request.setDeadline(deadline);
+        return request;
     }
 
     public Boolean getRequestType() {
@@ -158,56 +169,100 @@ public class Request {
         this.method = method;
     }
 
-    public Long getCreateTime() {
-        return createTime;
+    public String getSerializer() {
+        return serializer;
+    }
+
+    public void setSerializer(String serializer) {
+        this.serializer = serializer;
+    }
+
+    public int getMethodId() {
+        return methodId;
+    }
+
+    public void setMethodId(int methodId) {
+        this.methodId = methodId;
+    }
+
+    public Type[] getGenericParamTypes() {
+        return genericParamTypes;
+    }
+
+    public void setGenericParamTypes(Type[] genericParamTypes) {
+        this.genericParamTypes = genericParamTypes;
+    }
+
+    public Type getReturnType() {
+        return returnType;
+    }
+
+    public void setReturnType(Type returnType) {
+        this.returnType = returnType;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+
+    public int getTimeoutMS() {
+        return timeoutMS;
+    }
+
+    public void setTimeoutMS(int timeoutMS) {
+        this.timeoutMS = timeoutMS;
     }
 
-    public void setCreateTime(Long createTime) {
-        this.createTime = createTime;
+    public String getLoadBalancer() {
+        return loadBalancer;
     }
 
-    public String getHost() {
-        return host;
+    public void setLoadBalancer(String loadBalancer) {
+        this.loadBalancer = loadBalancer;
     }
 
-    public void setHost(String host) {
-        this.host = host;
+    public String getRouteKey() {
+        return routeKey;
     }
 
-    public int getPort() {
-        return port;
+    public void setRouteKey(String routeKey) {
+        this.routeKey = routeKey;
     }
 
-    public void setPort(int port) {
-        this.port = port;
+    public boolean isIdempotent() {
+        return idempotent;
     }
 
-    public Object getResponse() {
-        return response;
+    public long getDeadline() {
+        return deadline;
     }
 
-    public void setResponse(Response response) {
-        this.response = response;
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
     }
 
-    public Boolean getSendOk() {
-        return sendOk;
+    public boolean isOneway() {
+        return oneway;
     }
 
-    public void setSendOk(Boolean sendOk) {
-        this.sendOk = sendOk;
+    public void setOneway(boolean oneway) {
+        this.oneway = oneway;
     }
 
-    public Boolean isDirect () {
-        return getDirect();
+    public void setIdempotent(boolean idempotent) {
+        this.idempotent = idempotent;
     }
 
-    public Boolean getDirect() {
-        return direct;
+    public boolean isHedge() {
+        return hedge;
     }
 
-    public void setDirect(Boolean direct) {
-        this.direct = direct;
+    public void setHedge(boolean hedge) {
+        this.hedge = hedge;
     }
 
     @Override
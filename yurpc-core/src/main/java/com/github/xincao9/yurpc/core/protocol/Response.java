@@ -16,8 +16,10 @@
 package com.github.xincao9.yurpc.core.protocol;
 
 import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.annotation.JSONField;
 import com.alibaba.fastjson.serializer.SerializerFeature;
 import com.github.xincao9.yurpc.core.constant.ResponseCode;
+import java.lang.reflect.Type;
 
 /**
  * 响应体
@@ -30,8 +32,13 @@ public class Response<T> {
     private Long id; // response id
     private Integer code = ResponseCode.OK; // response code
     private T data;
-    private String msg = ResponseCode.OK_MSG;
-    private final Long createTime = System.currentTimeMillis();
+    private String msg; // 只在失败时携带
+    @JSONField(serialize = false, deserialize = false)
+    private Boolean eventType = Boolean.FALSE; // whether the response answers an event
+    @JSONField(serialize = false, deserialize = false)
+    private String serializer; // 序列化组件名字
+    @JSONField(serialize = false, deserialize = false)
+    private Type dataType = Object.class; // data 的声明类型，编解码两端必须一致
 
     public static <T> Response<T> createResponse(Long id, T data) {
         Response response = new Response();
@@ -80,8 +87,28 @@ public class Response<T> {
         this.msg = msg;
     }
 
-    public Long getCreateTime() {
-        return createTime;
+    public Boolean getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(Boolean eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getSerializer() {
+        return serializer;
+    }
+
+    public void setSerializer(String serializer) {
+        this.serializer = serializer;
+    }
+
+    public Type getDataType() {
+        return dataType;
+    }
+
+    public void setDataType(Type dataType) {
+        this.dataType = dataType;
     }
 
     @Override
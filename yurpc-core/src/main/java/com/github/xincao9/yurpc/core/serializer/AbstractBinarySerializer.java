@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.serializer;
+
+import io.netty.buffer.ByteBuf;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * 二进制序列化基类
+ *
+ * <p>值以一个字节的类型标记开头，整数使用 zigzag 变长编码，字符串为 UTF-8；
+ * 类名在一次序列化中只写一次，之后以编号引用，与声明类型相同的类不写类名</p>
+ *
+ * @author xincao9@gmail.com
+ */
+public abstract class AbstractBinarySerializer implements Serializer {
+
+    public static final byte NULL = 0;
+    public static final byte TRUE = 1;
+    public static final byte FALSE = 2;
+    public static final byte BYTE = 3;
+    public static final byte SHORT = 4;
+    public static final byte INT = 5;
+    public static final byte LONG = 6;
+    public static final byte FLOAT = 7;
+    public static final byte DOUBLE = 8;
+    public static final byte CHAR = 9;
+    public static final byte STRING = 10;
+    public static final byte BYTES = 11;
+    public static final byte BIG_DECIMAL = 12;
+    public static final byte BIG_INTEGER = 13;
+    public static final byte DATE = 14;
+    public static final byte ENUM = 15;
+    public static final byte ARRAY = 16;
+    public static final byte LIST = 17;
+    public static final byte SET = 18;
+    public static final byte MAP = 19;
+    public static final byte OBJECT = 20;
+    public static final byte OPTIONAL = 21;
+
+    private final boolean positional;
+
+    /**
+     * 构造器
+     *
+     * @param positional true 按字段顺序写值不写字段名，false 每个类写一次字段名
+     */
+    protected AbstractBinarySerializer(boolean positional) {
+        this.positional = positional;
+    }
+
+    @Override
+    public void serialize(Object obj, Type type, ByteBuf out) throws IOException {
+        new BinaryWriter(out, positional).writeValue(obj, type == null ? TypeInfo.OBJECT : TypeInfo.of(type));
+    }
+
+    @Override
+    public Object deserialize(ByteBuf in, Type type) throws IOException {
+        return new BinaryReader(in, positional).readValue(type == null ? null : TypeInfo.of(type));
+    }
+
+}
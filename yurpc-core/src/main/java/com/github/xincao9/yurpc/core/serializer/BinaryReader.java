@@ -0,0 +1,401 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.serializer;
+
+import static com.github.xincao9.yurpc.core.serializer.AbstractBinarySerializer.*;
+import com.github.xincao9.yurpc.core.util.ByteBufUtils;
+import io.netty.buffer.ByteBuf;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 二进制读取器，一次反序列化使用一个实例；声明类型为 null 表示跳过该值
+ *
+ * @author xincao9@gmail.com
+ */
+public class BinaryReader {
+
+    private final ByteBuf in;
+    private final boolean positional;
+    private List<ClassRef> classes;
+
+    public BinaryReader(ByteBuf in, boolean positional) {
+        this.in = in;
+        this.positional = positional;
+    }
+
+    /**
+     * 读值
+     *
+     * @param type 声明类型，null 表示跳过
+     * @return 值
+     * @throws IOException 异常
+     */
+    public Object readValue(TypeInfo type) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case BYTE:
+                return in.readByte();
+            case SHORT:
+                return (short) ByteBufUtils.readZigZagInt(in);
+            case INT:
+                return ByteBufUtils.readZigZagInt(in);
+            case LONG:
+                return ByteBufUtils.readZigZagLong(in);
+            case FLOAT:
+                return in.readFloat();
+            case DOUBLE:
+                return in.readDouble();
+            case CHAR:
+                return in.readChar();
+            case STRING:
+                return ByteBufUtils.readString(in);
+            case BYTES: {
+                byte[] bytes = new byte[readLength()];
+                in.readBytes(bytes);
+                return bytes;
+            }
+            case BIG_DECIMAL:
+                return new BigDecimal(ByteBufUtils.readString(in));
+            case BIG_INTEGER: {
+                byte[] bytes = new byte[readLength()];
+                in.readBytes(bytes);
+                return new BigInteger(bytes);
+            }
+            case DATE:
+                return readDate(type);
+            case ENUM:
+                return readEnum(type);
+            case ARRAY:
+                return readArray(type);
+            case LIST:
+            case SET:
+                return readCollection(type, tag == SET);
+            case MAP:
+                return readMap(type);
+            case OBJECT:
+                return readObject(type);
+            case OPTIONAL:
+                return readOptional(type);
+            default:
+                throw new IOException(String.format("unknown tag = %d", tag));
+        }
+    }
+
+    private int readLength() throws IOException {
+        int length = ByteBufUtils.readVarInt(in);
+        if (length < 0 || length > in.readableBytes()) {
+            throw new IOException(String.format("length = %d out of range", length));
+        }
+        return length;
+    }
+
+    private Object readDate(TypeInfo type) throws IOException {
+        long time = ByteBufUtils.readZigZagLong(in);
+        Class<?> raw = type == null ? Date.class : type.getRawClass();
+        if (raw != Date.class && Date.class.isAssignableFrom(raw)) {
+            Date date = (Date) ClassInfo.get(raw).newInstance();
+            date.setTime(time);
+            return date;
+        }
+        return new Date(time);
+    }
+
+    private Object readEnum(TypeInfo type) throws IOException {
+        ClassRef classRef = readClass(type, false);
+        String name = ByteBufUtils.readString(in);
+        if (type == null) {
+            return null;
+        }
+        Class enumClass = classRef.getClazz();
+        if (enumClass == null || !enumClass.isEnum()) {
+            throw new IOException(String.format("class = %s is not enum", enumClass));
+        }
+        return Enum.valueOf(enumClass, name);
+    }
+
+    private Object readArray(TypeInfo type) throws IOException {
+        ClassRef classRef = readClass(type, false);
+        int length = readLength();
+        if (type == null) {
+            for (int i = 0; i < length; i++) {
+                readValue(null);
+            }
+            return null;
+        }
+        Class<?> componentType = classRef.getClazz().getComponentType();
+        if (componentType == null) {
+            throw new IOException(String.format("class = %s is not array", classRef.getClazz().getName()));
+        }
+        TypeInfo componentInfo = classRef.getClazz() == type.getRawClass() ? type.getComponent() : TypeInfo.of(componentType);
+        Object array = Array.newInstance(componentType, length);
+        for (int i = 0; i < length; i++) {
+            Object element = readValue(componentInfo);
+            if (element != null || !componentType.isPrimitive()) {
+                Array.set(array, i, element);
+            }
+        }
+        return array;
+    }
+
+    private Object readCollection(TypeInfo type, boolean set) throws IOException {
+        int size = readLength();
+        if (type == null) {
+            for (int i = 0; i < size; i++) {
+                readValue(null);
+            }
+            return null;
+        }
+        Class<?> raw = type.getRawClass();
+        Collection collection;
+        if (Collection.class.isAssignableFrom(raw) && isConcrete(raw)) {
+            collection = (Collection) ClassInfo.get(raw).newInstance();
+        } else {
+            collection = set ? new LinkedHashSet() : new ArrayList(size);
+            checkAssignable(raw, collection.getClass());
+        }
+        TypeInfo elementType = type.getArgument(0);
+        for (int i = 0; i < size; i++) {
+            collection.add(readValue(elementType));
+        }
+        return collection;
+    }
+
+    private Object readMap(TypeInfo type) throws IOException {
+        int size = readLength();
+        if (type == null) {
+            for (int i = 0; i < size; i++) {
+                readValue(null);
+                readValue(null);
+            }
+            return null;
+        }
+        Class<?> raw = type.getRawClass();
+        Map map;
+        if (Map.class.isAssignableFrom(raw) && isConcrete(raw)) {
+            map = (Map) ClassInfo.get(raw).newInstance();
+        } else {
+            map = new LinkedHashMap();
+            checkAssignable(raw, LinkedHashMap.class);
+        }
+        TypeInfo keyType = type.getArgument(0);
+        TypeInfo valueType = type.getArgument(1);
+        for (int i = 0; i < size; i++) {
+            Object key = readValue(keyType);
+            map.put(key, readValue(valueType));
+        }
+        return map;
+    }
+
+    private Object readObject(TypeInfo type) throws IOException {
+        ClassRef classRef = readClass(type, !positional);
+        int[] indexes = classRef.getIndexes();
+        if (indexes == null) {
+            throw new IOException("class reference unresolved");
+        }
+        if (type == null) {
+            for (int i = 0; i < indexes.length; i++) {
+                readValue(null);
+            }
+            return null;
+        }
+        Class<?> clazz = classRef.getClazz();
+        Field[] fields = ClassInfo.get(clazz).getFields();
+        TypeInfo[] fieldTypes = (clazz == type.getRawClass() ? type : TypeInfo.of(clazz)).getFields();
+        Object obj = ClassInfo.get(clazz).newInstance();
+        try {
+            for (int index : indexes) {
+                if (index < 0) {
+                    readValue(null);
+                    continue;
+                }
+                Field field = fields[index];
+                Class<?> fieldType = field.getType();
+                if (positional && fieldType.isPrimitive()) {
+                    readPrimitive(field, obj, fieldType);
+                    continue;
+                }
+                Object value = readValue(fieldTypes[index]);
+                if (value != null || !fieldType.isPrimitive()) {
+                    field.set(obj, value);
+                }
+            }
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new IOException(String.format("class = %s field binding failure", clazz.getName()), e);
+        }
+        return obj;
+    }
+
+    private Object readOptional(TypeInfo type) throws IOException {
+        if (type == null) {
+            readValue(null);
+            return null;
+        }
+        checkAssignable(type.getRawClass(), Optional.class);
+        return Optional.ofNullable(readValue(type.getArgument(0)));
+    }
+
+    private void readPrimitive(Field field, Object obj, Class<?> fieldType) throws IllegalAccessException {
+        if (fieldType == int.class) {
+            field.setInt(obj, ByteBufUtils.readZigZagInt(in));
+        } else if (fieldType == long.class) {
+            field.setLong(obj, ByteBufUtils.readZigZagLong(in));
+        } else if (fieldType == boolean.class) {
+            field.setBoolean(obj, in.readBoolean());
+        } else if (fieldType == double.class) {
+            field.setDouble(obj, in.readDouble());
+        } else if (fieldType == float.class) {
+            field.setFloat(obj, in.readFloat());
+        } else if (fieldType == short.class) {
+            field.setShort(obj, (short) ByteBufUtils.readZigZagInt(in));
+        } else if (fieldType == byte.class) {
+            field.setByte(obj, in.readByte());
+        } else {
+            field.setChar(obj, in.readChar());
+        }
+    }
+
+    /**
+     * 读类引用，与 BinaryWriter.writeClass 对应
+     *
+     * @param type 声明类型，null 表示跳过
+     * @param schema 新类是否附带字段名
+     * @return 类引用
+     * @throws IOException 异常
+     */
+    private ClassRef readClass(TypeInfo type, boolean schema) throws IOException {
+        if (classes == null) {
+            classes = new ArrayList();
+        }
+        int index = ByteBufUtils.readVarInt(in);
+        ClassRef classRef;
+        if (index == 0) {
+            String name = ByteBufUtils.readString(in);
+            Class<?> clazz;
+            boolean named = name != null && !name.isEmpty();
+            if (!named) {
+                clazz = type == null ? null : type.getRawClass();
+            } else {
+                clazz = ClassInfo.forName(name);
+            }
+            int[] indexes = null;
+            if (schema) {
+                int count = readLength();
+                ClassInfo classInfo = clazz == null ? null : ClassInfo.get(clazz);
+                indexes = new int[count];
+                for (int i = 0; i < count; i++) {
+                    String fieldName = ByteBufUtils.readString(in);
+                    indexes[i] = classInfo == null ? -1 : classInfo.getFieldIndex(fieldName);
+                }
+            } else if (clazz != null && !clazz.isArray() && !clazz.isEnum()) {
+                indexes = ClassInfo.get(clazz).getIndexes();
+            }
+            classRef = new ClassRef(clazz, indexes, named);
+            classes.add(classRef);
+        } else if (index <= classes.size()) {
+            classRef = classes.get(index - 1);
+        } else {
+            throw new IOException(String.format("class reference = %d out of range", index));
+        }
+        if (type != null) {
+            if (classRef.getClazz() == null) {
+                throw new IOException("class reference unresolved");
+            }
+            checkAssignable(type.getRawClass(), classRef.getClazz());
+            if (classRef.isNamed()) {
+                checkPermitted(type.getRawClass(), classRef.getClazz());
+            }
+        }
+        return classRef;
+    }
+
+    /**
+     * 对端按名字指定的类：声明类型是具体类（不是 Object）时接受其子类，否则只接受 ClassInfo.register 注册过的类，
+     * 避免对端在 Object、接口类型的位置构造任意类并触发其 hashCode、equals 等方法
+     *
+     * @param declared 声明类型
+     * @param actual 对端指定的类
+     * @throws IOException 不允许
+     */
+    private static void checkPermitted(Class<?> declared, Class<?> actual) throws IOException {
+        Class<?> component = declared;
+        while (component.isArray()) {
+            component = component.getComponentType();
+        }
+        if (ClassInfo.isRegistered(actual) || (component != Object.class && isConcrete(component))) {
+            return;
+        }
+        throw new IOException(String.format("class = %s is not registered, declared type = %s", actual.getName(), declared.getName()));
+    }
+
+    private static boolean isConcrete(Class<?> clazz) {
+        return !clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers());
+    }
+
+    private static void checkAssignable(Class<?> declared, Class<?> actual) throws IOException {
+        if (!declared.isAssignableFrom(actual)) {
+            throw new IOException(String.format("class = %s is not assignable to %s", actual.getName(), declared.getName()));
+        }
+    }
+
+    /**
+     * 已读取的类
+     */
+    private static class ClassRef {
+
+        private final Class<?> clazz;
+        private final int[] indexes; // 对端字段顺序对应的本地字段下标，-1 表示跳过
+        private final boolean named; // 对端写出了类名，与声明类型不同
+
+        ClassRef(Class<?> clazz, int[] indexes, boolean named) {
+            this.clazz = clazz;
+            this.indexes = indexes;
+            this.named = named;
+        }
+
+        Class<?> getClazz() {
+            return clazz;
+        }
+
+        int[] getIndexes() {
+            return indexes;
+        }
+
+        boolean isNamed() {
+            return named;
+        }
+
+    }
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.serializer;
+
+import static com.github.xincao9.yurpc.core.serializer.AbstractBinarySerializer.*;
+import com.github.xincao9.yurpc.core.util.ByteBufUtils;
+import io.netty.buffer.ByteBuf;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 二进制写入器，一次序列化使用一个实例
+ *
+ * @author xincao9@gmail.com
+ */
+public class BinaryWriter {
+
+    private final ByteBuf out;
+    private final boolean positional;
+    private Map<Class, Integer> classes;
+
+    public BinaryWriter(ByteBuf out, boolean positional) {
+        this.out = out;
+        this.positional = positional;
+    }
+
+    /**
+     * 写值
+     *
+     * @param value 值
+     * @param type 声明类型
+     * @throws IOException 异常
+     */
+    public void writeValue(Object value, TypeInfo type) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+            return;
+        }
+        Class<?> clazz = value.getClass();
+        if (clazz == String.class) {
+            out.writeByte(STRING);
+            ByteBufUtils.writeString(out, (String) value);
+        } else if (clazz == Integer.class) {
+            out.writeByte(INT);
+            ByteBufUtils.writeZigZagInt(out, (Integer) value);
+        } else if (clazz == Long.class) {
+            out.writeByte(LONG);
+            ByteBufUtils.writeZigZagLong(out, (Long) value);
+        } else if (clazz == Boolean.class) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (clazz == Double.class) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (clazz == Float.class) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (clazz == Short.class) {
+            out.writeByte(SHORT);
+            ByteBufUtils.writeZigZagInt(out, (Short) value);
+        } else if (clazz == Byte.class) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (clazz == Character.class) {
+            out.writeByte(CHAR);
+            out.writeChar((Character) value);
+        } else if (clazz == byte[].class) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(BYTES);
+            ByteBufUtils.writeVarInt(out, bytes.length);
+            out.writeBytes(bytes);
+        } else if (clazz == BigDecimal.class) {
+            out.writeByte(BIG_DECIMAL);
+            ByteBufUtils.writeString(out, value.toString());
+        } else if (clazz == BigInteger.class) {
+            byte[] bytes = ((BigInteger) value).toByteArray();
+            out.writeByte(BIG_INTEGER);
+            ByteBufUtils.writeVarInt(out, bytes.length);
+            out.writeBytes(bytes);
+        } else if (value instanceof Date) {
+            out.writeByte(DATE);
+            ByteBufUtils.writeZigZagLong(out, ((Date) value).getTime());
+        } else if (value instanceof Enum) {
+            out.writeByte(ENUM);
+            writeClass(((Enum) value).getDeclaringClass(), type, false);
+            ByteBufUtils.writeString(out, ((Enum) value).name());
+        } else if (clazz.isArray()) {
+            out.writeByte(ARRAY);
+            writeClass(clazz, type, false);
+            int length = Array.getLength(value);
+            ByteBufUtils.writeVarInt(out, length);
+            TypeInfo componentType = clazz == type.getRawClass() ? type.getComponent() : TypeInfo.of(clazz.getComponentType());
+            for (int i = 0; i < length; i++) {
+                writeValue(Array.get(value, i), componentType);
+            }
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection) value;
+            out.writeByte(value instanceof Set ? SET : LIST);
+            ByteBufUtils.writeVarInt(out, collection.size());
+            TypeInfo elementType = type.getArgument(0);
+            for (Object element : collection) {
+                writeValue(element, elementType);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map) value;
+            out.writeByte(MAP);
+            ByteBufUtils.writeVarInt(out, map.size());
+            TypeInfo keyType = type.getArgument(0);
+            TypeInfo valueType = type.getArgument(1);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(entry.getKey(), keyType);
+                writeValue(entry.getValue(), valueType);
+            }
+        } else if (value instanceof Optional) {
+            out.writeByte(OPTIONAL);
+            writeValue(((Optional) value).orElse(null), type.getArgument(0));
+        } else {
+            writeObject(value, clazz, type);
+        }
+    }
+
+    private void writeObject(Object value, Class<?> clazz, TypeInfo type) throws IOException {
+        Field[] fields = ClassInfo.get(clazz).getFields();
+        TypeInfo[] fieldTypes = (clazz == type.getRawClass() ? type : TypeInfo.of(clazz)).getFields();
+        out.writeByte(OBJECT);
+        writeClass(clazz, type, !positional);
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                Field field = fields[i];
+                Class<?> fieldType = field.getType();
+                if (positional && fieldType.isPrimitive()) {
+                    writePrimitive(field, value, fieldType);
+                } else {
+                    writeValue(field.get(value), fieldTypes[i]);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void writePrimitive(Field field, Object value, Class<?> fieldType) throws IllegalAccessException {
+        if (fieldType == int.class) {
+            ByteBufUtils.writeZigZagInt(out, field.getInt(value));
+        } else if (fieldType == long.class) {
+            ByteBufUtils.writeZigZagLong(out, field.getLong(value));
+        } else if (fieldType == boolean.class) {
+            out.writeBoolean(field.getBoolean(value));
+        } else if (fieldType == double.class) {
+            out.writeDouble(field.getDouble(value));
+        } else if (fieldType == float.class) {
+            out.writeFloat(field.getFloat(value));
+        } else if (fieldType == short.class) {
+            ByteBufUtils.writeZigZagInt(out, field.getShort(value));
+        } else if (fieldType == byte.class) {
+            out.writeByte(field.getByte(value));
+        } else {
+            out.writeChar(field.getChar(value));
+        }
+    }
+
+    /**
+     * 写类引用：0 表示新类（随后是类名，与声明类型相同时为空串），n 表示第 n 个已写入的类
+     *
+     * @param clazz 类
+     * @param type 声明类型
+     * @param schema 新类是否附带字段名
+     * @throws IOException 异常
+     */
+    private void writeClass(Class<?> clazz, TypeInfo type, boolean schema) throws IOException {
+        if (classes == null) {
+            classes = new IdentityHashMap();
+        }
+        Integer index = classes.get(clazz);
+        if (index != null) {
+            ByteBufUtils.writeVarInt(out, index);
+            return;
+        }
+        classes.put(clazz, classes.size() + 1);
+        out.writeByte(0);
+        ByteBufUtils.writeString(out, clazz == type.getRawClass() ? "" : clazz.getName());
+        if (schema) {
+            Field[] fields = ClassInfo.get(clazz).getFields();
+            ByteBufUtils.writeVarInt(out, fields.length);
+            for (Field field : fields) {
+                ByteBufUtils.writeString(out, field.getName());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.serializer;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 类的序列化元信息缓存（字段顺序：父类在前，同一类中按名字排序）
+ *
+ * @author xincao9@gmail.com
+ */
+public class ClassInfo {
+
+    private static final Map<Class, ClassInfo> CLASS_INFOS = new ConcurrentHashMap();
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassInfo.class);
+    private static final Map<String, Class> NAME_CLASS = new ConcurrentHashMap();
+    private static final Set<Class> REGISTERED = ConcurrentHashMap.newKeySet(); // 允许对端按名字指定的类
+
+    static {
+        for (Class clazz : new Class[]{boolean.class, byte.class, short.class, char.class, int.class, long.class, float.class, double.class, void.class}) {
+            NAME_CLASS.put(clazz.getName(), clazz);
+        }
+        for (Class clazz : new Class[]{Object.class, String.class, Boolean.class, Byte.class, Short.class, Character.class, Integer.class,
+            Long.class, Float.class, Double.class, BigDecimal.class, BigInteger.class, Date.class}) {
+            REGISTERED.add(clazz);
+        }
+    }
+
+    private final Class<?> clazz;
+    private final Field[] fields;
+    private final Map<String, Integer> nameIndex;
+    private final int[] indexes; // 0..n-1，按本地字段顺序读取时共用
+    private final Constructor<?> constructor;
+
+    private ClassInfo(Class<?> clazz) {
+        this.clazz = clazz;
+        List<Field> list = new ArrayList();
+        List<Class> hierarchy = new ArrayList();
+        for (Class c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+        for (Class c : hierarchy) {
+            Field[] declaredFields = c.getDeclaredFields();
+            Arrays.sort(declaredFields, Comparator.comparing(Field::getName));
+            for (Field field : declaredFields) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                list.add(field);
+            }
+        }
+        this.fields = list.toArray(new Field[0]);
+        this.nameIndex = new HashMap();
+        this.indexes = new int[this.fields.length];
+        for (int i = 0; i < this.fields.length; i++) {
+            this.nameIndex.putIfAbsent(this.fields[i].getName(), i);
+            this.indexes[i] = i;
+        }
+        Constructor<?> c = null;
+        try {
+            c = clazz.getDeclaredConstructor();
+            c.setAccessible(true);
+        } catch (NoSuchMethodException | RuntimeException e) {
+            c = null;
+        }
+        this.constructor = c;
+    }
+
+    /**
+     * 获取类的元信息
+     *
+     * @param clazz 类
+     * @return 元信息
+     * @throws IOException 类不支持序列化
+     */
+    public static ClassInfo get(Class<?> clazz) throws IOException {
+        ClassInfo classInfo = CLASS_INFOS.get(clazz);
+        if (classInfo != null) {
+            return classInfo;
+        }
+        if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
+            throw new IOException(String.format("class = %s is not instantiable", clazz.getName()));
+        }
+        try {
+            classInfo = new ClassInfo(clazz);
+        } catch (RuntimeException e) {
+            throw new IOException(String.format("class = %s unsupported: %s", clazz.getName(), e.getMessage()), e);
+        }
+        CLASS_INFOS.putIfAbsent(clazz, classInfo);
+        return classInfo;
+    }
+
+    /**
+     * 根据名字加载类
+     *
+     * @param name 类名
+     * @return 类
+     * @throws IOException 类不存在
+     */
+    public static Class<?> forName(String name) throws IOException {
+        Class clazz = NAME_CLASS.get(name);
+        if (clazz != null) {
+            return clazz;
+        }
+        try {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            clazz = Class.forName(name, false, classLoader != null ? classLoader : ClassInfo.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IOException(String.format("class = %s not found", name), e);
+        }
+        NAME_CLASS.putIfAbsent(name, clazz);
+        return clazz;
+    }
+
+    /**
+     * 注册允许对端在消息中按名字指定的类，声明类型为 Object、接口或抽象类的位置只接受注册过的类（及其数组）
+     *
+     * @param classes 类
+     */
+    public static void register(Class<?>... classes) {
+        for (Class<?> clazz : classes) {
+            REGISTERED.add(clazz);
+        }
+    }
+
+    /**
+     * 按名字注册，类不存在时只记录日志
+     *
+     * @param names 类名，逗号分隔
+     */
+    public static void register(String names) {
+        if (names == null) {
+            return;
+        }
+        for (String name : names.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            try {
+                register(forName(name));
+            } catch (IOException e) {
+                LOGGER.warn("allowed class = {} not found", name);
+            }
+        }
+    }
+
+    /**
+     * 是否注册过，数组按元素类型判断，基本类型数组总是允许
+     *
+     * @param clazz 类
+     * @return 是否允许
+     */
+    public static boolean isRegistered(Class<?> clazz) {
+        while (clazz.isArray()) {
+            clazz = clazz.getComponentType();
+        }
+        return clazz.isPrimitive() || REGISTERED.contains(clazz);
+    }
+
+    /**
+     * 通过无参构造器创建实例；不跳过构造器分配实例，避免绕过类自身的校验
+     *
+     * @return 实例
+     * @throws IOException 没有无参构造器
+     */
+    public Object newInstance() throws IOException {
+        if (constructor == null) {
+            throw new IOException(String.format("class = %s has no no-arg constructor", clazz.getName()));
+        }
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IOException(String.format("class = %s instantiation failure", clazz.getName()), e);
+        }
+    }
+
+    public Class<?> getClazz() {
+        return clazz;
+    }
+
+    public Field[] getFields() {
+        return fields;
+    }
+
+    /**
+     * 字段下标序列 0..n-1，调用方不要修改
+     *
+     * @return 下标序列
+     */
+    public int[] getIndexes() {
+        return indexes;
+    }
+
+    /**
+     * 字段下标
+     *
+     * @param name 字段名
+     * @return 在 getFields() 中的下标，不存在时返回 -1
+     */
+    public int getFieldIndex(String name) {
+        Integer index = nameIndex.get(name);
+        return index == null ? -1 : index;
+    }
+
+}
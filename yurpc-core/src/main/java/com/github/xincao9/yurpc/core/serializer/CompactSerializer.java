@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.serializer;
+
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+
+/**
+ * 紧凑二进制序列化，每个类只写一次字段名，字段按名字匹配，两端的类可以增删字段
+ *
+ * @author xincao9@gmail.com
+ */
+public class CompactSerializer extends AbstractBinarySerializer {
+
+    public static final String NAME = "compact";
+
+    public CompactSerializer() {
+        super(false);
+    }
+
+    @Override
+    public byte getId() {
+        return ProtocolConsts.SERIALIZER_COMPACT;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.serializer;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.util.CharsetUtil;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * fastjson 序列化，4 字节长度前缀 + JSON 文本
+ *
+ * @author xincao9@gmail.com
+ */
+public class FastjsonSerializer implements Serializer {
+
+    public static final String NAME = "fastjson";
+    private static final int MAX_ARRAY_LENGTH = 64 * 1024; // fastjson 按整个数组长度分配 char[]，只有不超过线程缓存大小时才能复用
+
+    @Override
+    public byte getId() {
+        return ProtocolConsts.SERIALIZER_FASTJSON;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void serialize(Object obj, Type type, ByteBuf out) throws IOException {
+        int lengthIndex = out.writerIndex();
+        out.writeInt(0);
+        try (ByteBufOutputStream os = new ByteBufOutputStream(out)) {
+            JSON.writeJSONString(os, obj, SerializerFeature.DisableCircularReferenceDetect);
+        }
+        out.setInt(lengthIndex, out.writerIndex() - lengthIndex - 4);
+    }
+
+    @Override
+    public Object deserialize(ByteBuf in, Type type) throws IOException {
+        int length = in.readInt();
+        ByteBuf data = in.readSlice(length);
+        return parse(data, type);
+    }
+
+    /**
+     * 直接从缓冲区解析 JSON，底层数组较小的堆内缓冲区直接使用数组，其他（直接内存、池化的大块数组）以流的方式读取
+     *
+     * @param <T> 类型
+     * @param byteBuf 缓冲区
+     * @param type 目标类型
+     * @return 对象
+     * @throws IOException 异常
+     */
+    public static <T> T parse(ByteBuf byteBuf, Type type) throws IOException {
+        if (byteBuf.hasArray() && byteBuf.array().length <= MAX_ARRAY_LENGTH) {
+            return JSON.parseObject(byteBuf.array(), byteBuf.arrayOffset() + byteBuf.readerIndex(), byteBuf.readableBytes(), CharsetUtil.UTF_8, type);
+        }
+        try (ByteBufInputStream is = new ByteBufInputStream(byteBuf.duplicate())) {
+            return JSON.parseObject(is, CharsetUtil.UTF_8, type);
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.serializer;
+
+import io.netty.buffer.ByteBuf;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * 序列化扩展点，通过 ServiceLoader 加载
+ * (META-INF/services/com.github.xincao9.yurpc.core.serializer.Serializer)
+ *
+ * <p>写入的值必须是自定界的，反序列化时恰好消费序列化时写入的字节</p>
+ *
+ * @author xincao9@gmail.com
+ */
+public interface Serializer {
+
+    /**
+     * 编号，写入帧头，全局唯一
+     *
+     * @return 编号
+     */
+    byte getId();
+
+    /**
+     * 名字，用于配置和握手协商
+     *
+     * @return 名字
+     */
+    String getName();
+
+    /**
+     * 序列化
+     *
+     * @param obj 对象
+     * @param type 声明类型，反序列化时必须使用相同的声明类型
+     * @param out 输出缓冲区
+     * @throws IOException 异常
+     */
+    void serialize(Object obj, Type type, ByteBuf out) throws IOException;
+
+    /**
+     * 反序列化
+     *
+     * @param in 输入缓冲区
+     * @param type 声明类型
+     * @return 对象
+     * @throws IOException 异常
+     */
+    Object deserialize(ByteBuf in, Type type) throws IOException;
+}
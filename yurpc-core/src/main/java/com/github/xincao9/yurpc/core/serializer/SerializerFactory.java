@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.serializer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 序列化组件工厂
+ *
+ * @author xincao9@gmail.com
+ */
+public class SerializerFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SerializerFactory.class);
+
+    public static final String DEFAULT_SERIALIZER = FastjsonSerializer.NAME;
+
+    private static final Serializer[] ID_SERIALIZER = new Serializer[128];
+    private static final Map<String, Serializer> NAME_SERIALIZER = new ConcurrentHashMap();
+    private static final List<String> NAMES;
+
+    static {
+        List<String> names = new ArrayList();
+        for (Serializer serializer : ServiceLoader.load(Serializer.class, SerializerFactory.class.getClassLoader())) {
+            byte id = serializer.getId();
+            if (id <= 0 || ID_SERIALIZER[id] != null || NAME_SERIALIZER.containsKey(serializer.getName())) {
+                LOGGER.warn("serializer = {} id = {} invalid or duplicate, ignored", serializer.getName(), id);
+                continue;
+            }
+            ID_SERIALIZER[id] = serializer;
+            NAME_SERIALIZER.put(serializer.getName(), serializer);
+            names.add(serializer.getName());
+        }
+        NAMES = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * 根据编号获取
+     *
+     * @param id 编号
+     * @return 序列化组件，不存在时返回 null
+     */
+    public static Serializer get(byte id) {
+        return id > 0 ? ID_SERIALIZER[id] : null;
+    }
+
+    /**
+     * 根据名字获取
+     *
+     * @param name 名字
+     * @return 序列化组件，不存在时返回 null
+     */
+    public static Serializer get(String name) {
+        return name == null ? null : NAME_SERIALIZER.get(name);
+    }
+
+    /**
+     * 默认的序列化组件
+     *
+     * @return 序列化组件
+     */
+    public static Serializer getDefault() {
+        return NAME_SERIALIZER.get(DEFAULT_SERIALIZER);
+    }
+
+    /**
+     * 已加载的序列化组件名字
+     *
+     * @return 名字列表
+     */
+    public static List<String> names() {
+        return NAMES;
+    }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.serializer;
+
+import com.alibaba.fastjson.util.ParameterizedTypeImpl;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 声明类型的绑定信息缓存：原始类、泛型参数、数组元素以及字段的声明类型（类型变量已按实际参数替换）
+ *
+ * <p>子节点在第一次使用时生成并缓存，读写时沿着绑定树向下，不再解析 Type</p>
+ *
+ * @author xincao9@gmail.com
+ */
+public class TypeInfo {
+
+    private static final Map<Type, TypeInfo> TYPE_INFOS = new ConcurrentHashMap();
+    private static final TypeInfo[] EMPTY = new TypeInfo[0];
+    public static final TypeInfo OBJECT = of(Object.class);
+
+    private final Type type;
+    private final Class<?> rawClass;
+    private final Type[] arguments;
+    private volatile TypeInfo[] argumentInfos;
+    private volatile TypeInfo componentInfo;
+    private volatile TypeInfo[] fieldInfos;
+
+    private TypeInfo(Type type) {
+        this.type = type;
+        this.rawClass = rawClass(type);
+        this.arguments = type instanceof ParameterizedType ? ((ParameterizedType) type).getActualTypeArguments() : new Type[0];
+    }
+
+    /**
+     * 获取声明类型的绑定信息
+     *
+     * @param type 声明类型
+     * @return 绑定信息
+     */
+    public static TypeInfo of(Type type) {
+        TypeInfo typeInfo = TYPE_INFOS.get(type);
+        if (typeInfo != null) {
+            return typeInfo;
+        }
+        typeInfo = new TypeInfo(resolve(type, Collections.emptyMap()));
+        TypeInfo old = TYPE_INFOS.putIfAbsent(type, typeInfo);
+        return old != null ? old : typeInfo;
+    }
+
+    /**
+     * 泛型参数，List&lt;T&gt; 的元素类型、Map&lt;K, V&gt; 的键值类型、Optional&lt;T&gt; 的值类型；没有时为 Object
+     *
+     * @param index 参数位置
+     * @return 参数的绑定信息
+     */
+    public TypeInfo getArgument(int index) {
+        TypeInfo[] infos = argumentInfos;
+        if (infos == null) {
+            infos = arguments.length == 0 ? EMPTY : new TypeInfo[arguments.length];
+            for (int i = 0; i < infos.length; i++) {
+                infos[i] = of(arguments[i]);
+            }
+            argumentInfos = infos;
+        }
+        return index < infos.length ? infos[index] : OBJECT;
+    }
+
+    /**
+     * 数组元素
+     *
+     * @return 元素的绑定信息，不是数组时为 Object
+     */
+    public TypeInfo getComponent() {
+        TypeInfo info = componentInfo;
+        if (info == null) {
+            Class<?> componentType = rawClass.getComponentType();
+            info = componentType == null ? OBJECT : of(componentType);
+            componentInfo = info;
+        }
+        return info;
+    }
+
+    /**
+     * 字段的绑定信息，与 ClassInfo.getFields() 一一对应
+     *
+     * @return 字段的绑定信息
+     * @throws IOException 类不支持序列化
+     */
+    public TypeInfo[] getFields() throws IOException {
+        TypeInfo[] infos = fieldInfos;
+        if (infos == null) {
+            Field[] fields = ClassInfo.get(rawClass).getFields();
+            Map<TypeVariable, Type> bindings = bindings();
+            infos = new TypeInfo[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                infos[i] = of(resolve(fields[i].getGenericType(), bindings));
+            }
+            fieldInfos = infos;
+        }
+        return infos;
+    }
+
+    /**
+     * 类型变量到实际参数的映射，沿父类向上传递
+     *
+     * @return 映射
+     */
+    private Map<TypeVariable, Type> bindings() {
+        Map<TypeVariable, Type> bindings = new HashMap();
+        TypeVariable[] variables = rawClass.getTypeParameters();
+        for (int i = 0; i < variables.length && i < arguments.length; i++) {
+            bindings.put(variables[i], arguments[i]);
+        }
+        for (Class c = rawClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            Type superType = c.getGenericSuperclass();
+            if (superType instanceof ParameterizedType) {
+                Type[] superArguments = ((ParameterizedType) superType).getActualTypeArguments();
+                TypeVariable[] superVariables = c.getSuperclass().getTypeParameters();
+                for (int i = 0; i < superVariables.length && i < superArguments.length; i++) {
+                    bindings.put(superVariables[i], resolve(superArguments[i], bindings));
+                }
+            }
+        }
+        return bindings;
+    }
+
+    /**
+     * 替换类型变量，通配符取上界，没有绑定的类型变量取第一个上界的原始类
+     *
+     * @param type 类型
+     * @param bindings 类型变量的绑定
+     * @return 只包含 Class 和 ParameterizedType 的类型
+     */
+    private static Type resolve(Type type, Map<TypeVariable, Type> bindings) {
+        if (type instanceof Class) {
+            return type;
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            Type[] arguments = parameterizedType.getActualTypeArguments();
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = resolve(arguments[i], bindings);
+            }
+            return new ParameterizedTypeImpl(arguments, parameterizedType.getOwnerType(), parameterizedType.getRawType());
+        }
+        if (type instanceof TypeVariable) {
+            Type bound = bindings.get(type);
+            return bound != null ? bound : rawClass(type);
+        }
+        if (type instanceof WildcardType) {
+            Type[] upperBounds = ((WildcardType) type).getUpperBounds();
+            return upperBounds.length > 0 ? resolve(upperBounds[0], bindings) : Object.class;
+        }
+        if (type instanceof GenericArrayType) {
+            Class<?> componentType = rawClass(resolve(((GenericArrayType) type).getGenericComponentType(), bindings));
+            return Array.newInstance(componentType, 0).getClass();
+        }
+        return Object.class;
+    }
+
+    /**
+     * 声明类型的原始类
+     *
+     * @param type 声明类型
+     * @return 原始类
+     */
+    public static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class) ((ParameterizedType) type).getRawType();
+        }
+        if (type instanceof TypeVariable) {
+            Type[] bounds = ((TypeVariable) type).getBounds();
+            return bounds.length > 0 ? rawClass(bounds[0]) : Object.class;
+        }
+        if (type instanceof WildcardType) {
+            Type[] upperBounds = ((WildcardType) type).getUpperBounds();
+            return upperBounds.length > 0 ? rawClass(upperBounds[0]) : Object.class;
+        }
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawClass(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        return Object.class;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Class<?> getRawClass() {
+        return rawClass;
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc.core.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.util.CharsetUtil;
+
+/**
+ * 缓冲区工具类，变长整数与字符串读写
+ *
+ * @author xincao9@gmail.com
+ */
+public class ByteBufUtils {
+
+    /**
+     * 写无符号变长整数
+     *
+     * @param byteBuf 缓冲区
+     * @param value 值
+     */
+    public static void writeVarInt(ByteBuf byteBuf, int value) {
+        while ((value & ~0x7F) != 0) {
+            byteBuf.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        byteBuf.writeByte(value);
+    }
+
+    /**
+     * 读无符号变长整数
+     *
+     * @param byteBuf 缓冲区
+     * @return 值
+     */
+    public static int readVarInt(ByteBuf byteBuf) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = byteBuf.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new CorruptedFrameException("malformed varint");
+    }
+
+    /**
+     * 写无符号变长长整数
+     *
+     * @param byteBuf 缓冲区
+     * @param value 值
+     */
+    public static void writeVarLong(ByteBuf byteBuf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            byteBuf.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        byteBuf.writeByte((int) value);
+    }
+
+    /**
+     * 读无符号变长长整数
+     *
+     * @param byteBuf 缓冲区
+     * @return 值
+     */
+    public static long readVarLong(ByteBuf byteBuf) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = byteBuf.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new CorruptedFrameException("malformed varlong");
+    }
+
+    /**
+     * 写有符号变长整数（zigzag 编码，小的负数也只占少量字节）
+     *
+     * @param byteBuf 缓冲区
+     * @param value 值
+     */
+    public static void writeZigZagInt(ByteBuf byteBuf, int value) {
+        writeVarInt(byteBuf, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * 读有符号变长整数
+     *
+     * @param byteBuf 缓冲区
+     * @return 值
+     */
+    public static int readZigZagInt(ByteBuf byteBuf) {
+        int value = readVarInt(byteBuf);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 写有符号变长长整数
+     *
+     * @param byteBuf 缓冲区
+     * @param value 值
+     */
+    public static void writeZigZagLong(ByteBuf byteBuf, long value) {
+        writeVarLong(byteBuf, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * 读有符号变长长整数
+     *
+     * @param byteBuf 缓冲区
+     * @return 值
+     */
+    public static long readZigZagLong(ByteBuf byteBuf) {
+        long value = readVarLong(byteBuf);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 写字符串，长度加一写入，0 表示 null
+     *
+     * @param byteBuf 缓冲区
+     * @param str 字符串
+     */
+    public static void writeString(ByteBuf byteBuf, String str) {
+        if (str == null) {
+            byteBuf.writeByte(0);
+            return;
+        }
+        int length = ByteBufUtil.utf8Bytes(str);
+        writeVarInt(byteBuf, length + 1);
+        ByteBufUtil.reserveAndWriteUtf8(byteBuf, str, length);
+    }
+
+    /**
+     * 读字符串
+     *
+     * @param byteBuf 缓冲区
+     * @return 字符串
+     */
+    public static String readString(ByteBuf byteBuf) {
+        int length = readVarInt(byteBuf) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > byteBuf.readableBytes()) {
+            throw new CorruptedFrameException("string length " + length + " exceeds readable bytes " + byteBuf.readableBytes());
+        }
+        String str = byteBuf.toString(byteBuf.readerIndex(), length, CharsetUtil.UTF_8);
+        byteBuf.skipBytes(length);
+        return str;
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.YuRPCClient;
+import com.github.xincao9.yurpc.core.YuRPCServer;
+import com.github.xincao9.yurpc.core.impl.MethodDescriptor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 异步调用：代理方法返回 CompletableFuture 时不阻塞调用线程，提供者返回 CompletableFuture 时完成后再响应
+ *
+ * @author xincao9@gmail.com
+ */
+public class AsyncInvocationTest {
+
+    public interface GreetService {
+
+        CompletableFuture<String> hello(String name);
+
+        CompletableFuture<String> fail(String name);
+
+        String sync(String name);
+    }
+
+    public static class GreetServiceImpl implements GreetService {
+
+        @Override
+        public CompletableFuture<String> hello(String name) {
+            CompletableFuture<String> future = new CompletableFuture();
+            new Thread(() -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                future.complete("hello " + name);
+            }).start();
+            return future;
+        }
+
+        @Override
+        public CompletableFuture<String> fail(String name) {
+            CompletableFuture<String> future = new CompletableFuture();
+            future.completeExceptionally(new IllegalStateException(name));
+            return future;
+        }
+
+        @Override
+        public String sync(String name) {
+            return name;
+        }
+    }
+
+    @Test
+    public void testDescriptor() throws Exception {
+        MethodDescriptor hello = new MethodDescriptor(GreetService.class.getMethod("hello", String.class));
+        Assert.assertTrue(hello.isAsync());
+        // 响应按 CompletableFuture 的类型参数解码
+        Assert.assertEquals(String.class, hello.getReturnType());
+        Assert.assertFalse(new MethodDescriptor(GreetService.class.getMethod("sync", String.class)).isAsync());
+    }
+
+    @Test
+    public void testInvoke() throws Throwable {
+        YuRPCServer server = YuRPCServer.defaultYuRPCServer();
+        server.register(new GreetServiceImpl());
+        server.start();
+        YuRPCClient client = YuRPCClient.defaultYuRPCClient();
+        client.start();
+        try {
+            GreetService greetService = client.proxy(GreetService.class);
+            Assert.assertEquals("warm", greetService.sync("warm"));
+            CompletableFuture<String> future = greetService.hello("yurpc");
+            Assert.assertFalse("proxy does not wait for the response", future.isDone());
+            Assert.assertEquals("hello yurpc", future.get(5, TimeUnit.SECONDS));
+            try {
+                greetService.fail("boom").get(5, TimeUnit.SECONDS);
+                Assert.fail("provider future failed");
+            } catch (ExecutionException e) {
+                // 提供者的 future 异常结束时返回 SERVER_ERROR，代理的 future 异常结束
+            }
+        } finally {
+            client.shutdown();
+            server.shutdown();
+        }
+    }
+}
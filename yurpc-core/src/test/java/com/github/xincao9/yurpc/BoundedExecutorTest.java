@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.impl.BoundedExecutor;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 有界业务线程池：先增加线程再排队，队列满时拒绝
+ *
+ * @author xincao9@gmail.com
+ */
+public class BoundedExecutorTest {
+
+    @Test
+    public void testGrowThreadsBeforeQueueing() throws Exception {
+        BoundedExecutor executor = new BoundedExecutor("bulkhead-test", 2, 2, 0, 0);
+        CountDownLatch block = new CountDownLatch(1);
+        AtomicInteger done = new AtomicInteger();
+        Runnable task = () -> {
+            try {
+                block.await();
+                done.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try {
+            executor.execute(task);
+            executor.execute(task);
+            Assert.assertEquals("threads grow before queueing", 2, executor.getPoolSize());
+            Assert.assertEquals(0, executor.getQueue().size());
+            executor.execute(task);
+            executor.execute(task);
+            Assert.assertEquals(2, executor.getPoolSize());
+            Assert.assertEquals(2, executor.getQueue().size());
+            try {
+                executor.execute(task);
+                Assert.fail("queue is full");
+            } catch (RejectedExecutionException e) {
+                // 线程和队列都满，不在调用方线程上执行
+            }
+            block.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            Assert.assertEquals(4, done.get());
+        } finally {
+            block.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStayOverloadedUnderSustainedLoad() throws Exception {
+        // 一个线程，每个任务 4ms，每 2ms 提交一个，两倍过载；过载状态保持，不会因为后进先出取到新任务而退出
+        BoundedExecutor executor = new BoundedExecutor("codel-test", 1, 1000, 5, 100);
+        AtomicInteger shed = new AtomicInteger();
+        Runnable work = () -> {
+            try {
+                Thread.sleep(4);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        int samples = 0;
+        int overloaded = 0;
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < 1000; i++) {
+                executor.execute(BoundedExecutor.sheddable(work, shed::incrementAndGet));
+                Thread.sleep(2);
+                if (System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(500)) {
+                    samples++;
+                    if (executor.isOverloaded()) {
+                        overloaded++;
+                    }
+                }
+            }
+            Assert.assertTrue("overloaded = " + overloaded + " samples = " + samples, overloaded > samples * 9 / 10);
+            Assert.assertTrue(shed.get() > 0);
+            Assert.assertEquals(shed.get(), executor.getShedCount());
+            // 队首排队超过 interval 的任务被丢弃，队列不超过一个 interval 内提交的任务数
+            Assert.assertTrue("queue = " + executor.getQueue().size(), executor.getQueue().size() <= 60);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.impl.ChannelPool;
+import com.github.xincao9.yurpc.core.protocol.Endpoint;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 连接池重连退避
+ *
+ * @author xincao9@gmail.com
+ */
+public class ChannelPoolTest {
+
+    @Test
+    public void testAcceptThenCloseBacksOff() throws Exception {
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        AtomicInteger accepted = new AtomicInteger();
+        try {
+            Channel server = new ServerBootstrap().group(group).channel(NioServerSocketChannel.class)
+                    .childHandler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            accepted.incrementAndGet();
+                            ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                                @Override
+                                public void channelActive(ChannelHandlerContext ctx) {
+                                    ctx.close();
+                                }
+                            });
+                        }
+                    }).bind("127.0.0.1", 0).sync().channel();
+            Bootstrap bootstrap = new Bootstrap().group(group).channel(NioSocketChannel.class)
+                    .handler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                        }
+                    });
+            Endpoint endpoint = new Endpoint();
+            endpoint.setHost("127.0.0.1");
+            endpoint.setPort(((InetSocketAddress) server.localAddress()).getPort());
+            ChannelPool pool = new ChannelPool(bootstrap, endpoint, 2, channel -> CompletableFuture.completedFuture(null));
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (System.nanoTime() < end) {
+                pool.acquire();
+                Thread.sleep(1);
+            }
+            pool.close();
+            server.close().sync();
+            // 2 个槽位，每个槽位退避 100、200、400、800ms…，2 秒内各自最多重连 5 次左右
+            Assert.assertTrue("accepted = " + accepted.get(), accepted.get() <= 16);
+            Assert.assertTrue("accepted = " + accepted.get(), accepted.get() >= 2);
+        } finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test
+    public void testUnreachableFailsFastDuringBackoff() throws Exception {
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            Bootstrap bootstrap = new Bootstrap().group(group).channel(NioSocketChannel.class)
+                    .handler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            attempts.incrementAndGet();
+                        }
+                    });
+            Endpoint endpoint = new Endpoint();
+            endpoint.setHost("127.0.0.1");
+            endpoint.setPort(1); // 没有监听，连接立即被拒绝
+            ChannelPool pool = new ChannelPool(bootstrap, endpoint, 1, channel -> CompletableFuture.completedFuture(null));
+            Assert.assertNull(pool.acquire().get(5, TimeUnit.SECONDS));
+            long start = System.nanoTime();
+            for (int i = 0; i < 1000; i++) {
+                Assert.assertNull(pool.acquire().get(5, TimeUnit.SECONDS));
+            }
+            long elapsedMS = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            pool.close();
+            Assert.assertTrue("attempts = " + attempts.get() + " in " + elapsedMS + "ms", attempts.get() <= 2 + elapsedMS / 100);
+        } finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.impl.CircuitBreaker;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 熔断器状态转换：关闭 -> 打开 -> 半开 -> 关闭
+ *
+ * @author xincao9@gmail.com
+ */
+public class CircuitBreakerTest {
+
+    @Test
+    public void testOpenHalfOpenClosed() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(50, 10, 10000, 100);
+        for (int i = 0; i < 9; i++) {
+            breaker.record(breaker.acquire(), false);
+        }
+        Assert.assertEquals("below minRequests", CircuitBreaker.CLOSED, breaker.getState());
+        breaker.record(breaker.acquire(), false);
+        Assert.assertEquals(CircuitBreaker.OPEN, breaker.getState());
+        Assert.assertFalse(breaker.isAvailable());
+        Assert.assertEquals(CircuitBreaker.OPEN, breaker.acquire());
+
+        Thread.sleep(150);
+        Assert.assertTrue(breaker.isAvailable());
+        Assert.assertEquals(CircuitBreaker.HALF_OPEN, breaker.acquire());
+        Assert.assertEquals("only one probe", CircuitBreaker.OPEN, breaker.acquire());
+        breaker.record(CircuitBreaker.HALF_OPEN, false);
+        Assert.assertEquals("failed probe reopens", CircuitBreaker.OPEN, breaker.getState());
+        Assert.assertFalse(breaker.isAvailable());
+
+        Thread.sleep(150);
+        Assert.assertEquals(CircuitBreaker.HALF_OPEN, breaker.acquire());
+        breaker.record(CircuitBreaker.HALF_OPEN, true);
+        Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+        // 关闭后窗口清空，少量失败不会立即重新打开
+        for (int i = 0; i < 9; i++) {
+            breaker.record(breaker.acquire(), false);
+        }
+        Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testErrorPercent() {
+        CircuitBreaker breaker = new CircuitBreaker(50, 10, 10000, 100);
+        for (int i = 0; i < 100; i++) {
+            breaker.record(breaker.acquire(), i % 3 != 0); // 34% 失败
+        }
+        Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+        for (int i = 0; i < 100; i++) {
+            breaker.record(breaker.acquire(), i % 3 == 0); // 累计 50% 失败
+        }
+        Assert.assertEquals(CircuitBreaker.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testWindowExpires() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(50, 10, 200, 100);
+        for (int i = 0; i < 9; i++) {
+            breaker.record(breaker.acquire(), false);
+        }
+        Thread.sleep(300);
+        // 窗口外的失败不再计入
+        for (int i = 0; i < 9; i++) {
+            breaker.record(breaker.acquire(), false);
+        }
+        Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+        breaker.record(breaker.acquire(), false);
+        Assert.assertEquals(CircuitBreaker.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testConcurrentRecords() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(50, 4000, 60000, 100);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int n = 0; n < 1000; n++) {
+                    breaker.record(breaker.acquire(), false);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // 4000 次失败恰好达到 minRequests，计数丢失时不会打开
+        Assert.assertEquals(CircuitBreaker.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.serializer.ClassInfo;
+import com.github.xincao9.yurpc.core.serializer.Serializer;
+import com.github.xincao9.yurpc.core.serializer.SerializerFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * compact、positional 反序列化时对端按名字指定类的限制
+ *
+ * @author xincao9@gmail.com
+ */
+public class ClassAllowListTest {
+
+    private static final AtomicInteger HASH_CODES = new AtomicInteger();
+
+    public Set<Object> objects;
+    public Map<String, Object> values;
+    public Holder holder;
+
+    public static class Evil {
+
+        private int value = 1;
+
+        public Evil() {
+        }
+
+        @Override
+        public int hashCode() {
+            HASH_CODES.incrementAndGet();
+            return value;
+        }
+    }
+
+    public static class Registered {
+
+        private String name = "registered";
+    }
+
+    public static class NoDefaultConstructor {
+
+        private final String name;
+
+        public NoDefaultConstructor(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Holder {
+
+        private NoDefaultConstructor value = new NoDefaultConstructor("x");
+    }
+
+    private static Type type(String field) throws Exception {
+        return ClassAllowListTest.class.getField(field).getGenericType();
+    }
+
+    private static Object roundTrip(Serializer serializer, Object obj, Type type) throws IOException {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            serializer.serialize(obj, type, buffer);
+            return serializer.deserialize(buffer, type);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Test
+    public void testUnregisteredClassRejected() throws Exception {
+        for (String name : new String[]{"compact", "positional"}) {
+            Set<Object> objects = new HashSet();
+            objects.add(new Evil());
+            int before = HASH_CODES.get();
+            try {
+                roundTrip(SerializerFactory.get(name), objects, type("objects"));
+                Assert.fail(name + ": unregistered class accepted");
+            } catch (IOException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("not registered"));
+            }
+            Assert.assertEquals(name + ": hashCode invoked on peer chosen class", before, HASH_CODES.get());
+        }
+    }
+
+    @Test
+    public void testRegisteredClassAccepted() throws Exception {
+        ClassInfo.register(Registered.class);
+        for (String name : new String[]{"compact", "positional"}) {
+            Map<String, Object> values = new HashMap();
+            values.put("a", new Registered());
+            values.put("b", 1L);
+            values.put("c", new int[]{1, 2});
+            Map<String, Object> copy = (Map<String, Object>) roundTrip(SerializerFactory.get(name), values, type("values"));
+            Assert.assertEquals("registered", ((Registered) copy.get("a")).name);
+            Assert.assertEquals(1L, copy.get("b"));
+            Assert.assertArrayEquals(new int[]{1, 2}, (int[]) copy.get("c"));
+        }
+    }
+
+    @Test
+    public void testNoDefaultConstructorRejected() throws Exception {
+        for (String name : new String[]{"compact", "positional"}) {
+            try {
+                roundTrip(SerializerFactory.get(name), new Holder(), type("holder"));
+                Assert.fail(name + ": constructor skipped");
+            } catch (IOException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("no-arg constructor"));
+            }
+        }
+    }
+}
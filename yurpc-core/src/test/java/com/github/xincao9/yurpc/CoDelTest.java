@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.impl.CoDel;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 过载判定：按周期内排队时间的最小值进入和退出过载，每个周期最多改变一次
+ *
+ * @author xincao9@gmail.com
+ */
+public class CoDelTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long TARGET = 5 * MS;
+    private static final long INTERVAL = 100 * MS;
+
+    @Test
+    public void testBurstIsNotOverload() {
+        CoDel codel = new CoDel(TARGET, INTERVAL);
+        long now = MS;
+        for (int i = 0; i < 1000; i++, now += MS) {
+            // 每 100ms 中有 50ms 排队时间超过目标，队列能够排空
+            codel.update(i % 100 < 50 ? 20 * MS : 0, now);
+            Assert.assertFalse("t = " + i + "ms", codel.isOverloaded());
+        }
+    }
+
+    @Test
+    public void testStandingQueue() {
+        CoDel codel = new CoDel(TARGET, INTERVAL);
+        long now = MS;
+        int changes = 0;
+        for (int i = 0; i < 1000; i++, now += MS) {
+            if (codel.update(20 * MS, now)) {
+                changes++;
+            }
+            if (i >= 100) {
+                Assert.assertTrue("t = " + i + "ms", codel.isOverloaded());
+            }
+        }
+        Assert.assertEquals(1, changes);
+    }
+
+    @Test
+    public void testLeaveOnlyAfterAnInterval() {
+        CoDel codel = new CoDel(TARGET, INTERVAL);
+        long now = MS;
+        for (int i = 0; i < 200; i++, now += MS) {
+            codel.update(20 * MS, now);
+        }
+        codel.update(20 * MS, now); // 新的周期开始
+        now += MS;
+        Assert.assertTrue(codel.isOverloaded());
+        // 一个低于目标的样本不会立即退出，整个周期结束时才按最小值退出
+        codel.update(0, now);
+        now += MS;
+        for (int i = 2; i < 100; i++, now += MS) {
+            codel.update(20 * MS, now);
+            Assert.assertTrue("t = " + i + "ms", codel.isOverloaded());
+        }
+        codel.update(20 * MS, now);
+        Assert.assertFalse(codel.isOverloaded());
+    }
+
+    @Test
+    public void testAtMostOneChangePerInterval() {
+        CoDel codel = new CoDel(TARGET, INTERVAL);
+        Random random = new Random(1);
+        long now = MS;
+        int changes = 0;
+        for (int i = 0; i < 10000; i++, now += MS) {
+            // 排队时间大多超过目标，偶尔低于目标，状态会来回变化，但每个周期最多一次
+            if (codel.update(random.nextInt(100) == 0 ? 0 : 20 * MS, now)) {
+                changes++;
+            }
+        }
+        Assert.assertTrue("changes = " + changes, changes > 0 && changes <= 10000 / 100);
+    }
+}
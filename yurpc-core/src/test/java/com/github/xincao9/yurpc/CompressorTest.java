@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.compressor.Compressor;
+import com.github.xincao9.yurpc.core.compressor.CompressorFactory;
+import com.github.xincao9.yurpc.core.compressor.DeflateCompressor;
+import com.github.xincao9.yurpc.core.compressor.SnappyCompressor;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 压缩组件：按名字和编号加载，堆内外缓冲区都能还原，长度不符时失败
+ *
+ * @author xincao9@gmail.com
+ */
+public class CompressorTest {
+
+    private static byte[] payload(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        Random random = new Random(1);
+        while (sb.length() < length) {
+            sb.append("{\"id\":").append(random.nextInt(1000)).append(",\"body\":\"hello yurpc\"},");
+        }
+        return sb.substring(0, length).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] roundTrip(Compressor compressor, ByteBuf in, int length) throws IOException {
+        ByteBuf compressed = Unpooled.buffer();
+        ByteBuf out = Unpooled.buffer(length);
+        try {
+            compressor.compress(in, compressed);
+            Assert.assertFalse(in.isReadable());
+            Assert.assertTrue(compressor.getName() + " compressed = " + compressed.readableBytes(), compressed.readableBytes() < length);
+            compressor.decompress(compressed, out, length);
+            return ByteBufUtil.getBytes(out);
+        } finally {
+            compressed.release();
+            out.release();
+        }
+    }
+
+    @Test
+    public void testFactory() {
+        Assert.assertTrue(CompressorFactory.names().contains(DeflateCompressor.NAME));
+        Assert.assertTrue(CompressorFactory.names().contains(SnappyCompressor.NAME));
+        for (String name : CompressorFactory.names()) {
+            Compressor compressor = CompressorFactory.get(name);
+            Assert.assertSame(compressor, CompressorFactory.get(compressor.getId()));
+        }
+        Assert.assertNull(CompressorFactory.get("missing"));
+        Assert.assertNull(CompressorFactory.get((String) null));
+        Assert.assertNull(CompressorFactory.get((byte) 0));
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        // 大于 snappy 的分块长度
+        byte[] bytes = payload(200 * 1024);
+        for (String name : CompressorFactory.names()) {
+            Compressor compressor = CompressorFactory.get(name);
+            Assert.assertArrayEquals(name, bytes, roundTrip(compressor, Unpooled.wrappedBuffer(bytes), bytes.length));
+            ByteBuf direct = Unpooled.directBuffer(bytes.length).writeBytes(bytes);
+            try {
+                Assert.assertArrayEquals(name, bytes, roundTrip(compressor, direct, bytes.length));
+            } finally {
+                direct.release();
+            }
+        }
+    }
+
+    @Test
+    public void testLengthMismatch() throws Exception {
+        byte[] bytes = payload(4096);
+        for (String name : CompressorFactory.names()) {
+            Compressor compressor = CompressorFactory.get(name);
+            ByteBuf compressed = Unpooled.buffer();
+            ByteBuf out = Unpooled.buffer();
+            try {
+                compressor.compress(Unpooled.wrappedBuffer(bytes), compressed);
+                compressor.decompress(compressed, out, bytes.length - 1);
+                Assert.fail(name);
+            } catch (IOException e) {
+                // 解压后的长度与帧头记录的不一致
+            } finally {
+                compressed.release();
+                out.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.impl.ConcurrencyLimiter;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 自适应并发限制：耗时不变时放大，排队时收缩，超时回退
+ *
+ * @author xincao9@gmail.com
+ */
+public class ConcurrencyLimiterTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * 用满当前限制后按给定耗时全部归还
+     */
+    private static void round(ConcurrencyLimiter limiter, long rtt) {
+        int n = 0;
+        while (limiter.tryAcquire()) {
+            n++;
+        }
+        Assert.assertEquals(limiter.getLimit(), n);
+        for (int i = 0; i < n; i++) {
+            limiter.release(rtt, false);
+        }
+        Assert.assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    public void testGrowWithoutQueueing() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(200);
+        Assert.assertEquals(20, limiter.getLimit());
+        for (int i = 0; i < 5; i++) {
+            round(limiter, RTT);
+        }
+        Assert.assertEquals("limit = " + limiter.getLimit(), 200, limiter.getLimit());
+    }
+
+    @Test
+    public void testShrinkWhenQueueing() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(200);
+        for (int i = 0; i < 5; i++) {
+            round(limiter, RTT);
+        }
+        int grown = limiter.getLimit();
+        int n = 0;
+        while (limiter.tryAcquire()) {
+            n++;
+        }
+        // 耗时升到最小耗时的 10 倍，估算排队数远超 beta；只取 40 个样本，
+        // 限制收缩后累计样本数会达到 15 * limit，触发最小耗时的重新探测
+        for (int i = 0; i < 40; i++) {
+            limiter.release(10 * RTT, false);
+        }
+        Assert.assertTrue("limit = " + limiter.getLimit() + " grown = " + grown, limiter.getLimit() < grown * 3 / 4);
+        for (int i = 40; i < n; i++) {
+            limiter.release(0, false);
+        }
+        Assert.assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    public void testBackoffOnDrop() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(200);
+        Assert.assertTrue(limiter.tryAcquire());
+        limiter.release(0, true);
+        Assert.assertEquals(18, limiter.getLimit());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+            limiter.release(0, true);
+        }
+        Assert.assertEquals("never below 1", 1, limiter.getLimit());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.annotation.RouteKey;
+import com.github.xincao9.yurpc.core.impl.MethodDescriptor;
+import com.github.xincao9.yurpc.core.loadbalancer.ConsistentHashLoadBalancer;
+import com.github.xincao9.yurpc.core.protocol.Endpoint;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 一致性哈希：排除端点时沿环跳过，不重建哈希环
+ *
+ * @author xincao9@gmail.com
+ */
+public class ConsistentHashLoadBalancerTest {
+
+    public interface CacheService {
+
+        String get(@RouteKey String key);
+    }
+
+    private static List<Endpoint> endpoints(int n) {
+        List<Endpoint> endpoints = new ArrayList();
+        for (int i = 0; i < n; i++) {
+            Endpoint endpoint = new Endpoint();
+            endpoint.setHost("10.0.0." + (i + 1));
+            endpoint.setPort(12306);
+            endpoints.add(endpoint);
+        }
+        return endpoints;
+    }
+
+    private static Request request(String key) throws Exception {
+        MethodDescriptor descriptor = new MethodDescriptor(CacheService.class.getMethod("get", String.class));
+        return descriptor.createRequest(new Object[]{key});
+    }
+
+    private static Object ring(ConsistentHashLoadBalancer loadBalancer) throws Exception {
+        Field field = ConsistentHashLoadBalancer.class.getDeclaredField("rings");
+        field.setAccessible(true);
+        return ((Map) field.get(loadBalancer)).values().iterator().next();
+    }
+
+    @Test
+    public void testExcludedEndpointSkippedWithoutRebuild() throws Exception {
+        List<Endpoint> all = endpoints(5);
+        ConsistentHashLoadBalancer loadBalancer = new ConsistentHashLoadBalancer();
+        ConsistentHashLoadBalancer rebuilt = new ConsistentHashLoadBalancer();
+        loadBalancer.select(all, all, request("warmup"), null);
+        Object ring = ring(loadBalancer);
+        for (int i = 0; i < 1000; i++) {
+            Request request = request("key-" + i);
+            Endpoint first = loadBalancer.select(all, all, request, null);
+            List<Endpoint> others = new ArrayList(all);
+            others.remove(first);
+            Endpoint retry = loadBalancer.select(all, others, request, null);
+            Assert.assertNotEquals(first, retry);
+            // 与去掉该端点后重建的环一致
+            Assert.assertEquals(rebuilt.select(others, others, request, null), retry);
+            Assert.assertEquals(first, loadBalancer.select(all, all, request, null));
+        }
+        Assert.assertSame("ring rebuilt for a retry", ring, ring(loadBalancer));
+    }
+
+    @Test
+    public void testNullRouteKey() throws Exception {
+        Assert.assertNull(request(null).getRouteKey());
+        Assert.assertEquals("42", request("42").getRouteKey());
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.YuRPCClient;
+import com.github.xincao9.yurpc.core.YuRPCContext;
+import com.github.xincao9.yurpc.core.YuRPCServer;
+import com.github.xincao9.yurpc.core.codec.FrameDecoder;
+import com.github.xincao9.yurpc.core.codec.FrameEncoder;
+import com.github.xincao9.yurpc.core.codec.MessageCodec;
+import com.github.xincao9.yurpc.core.config.ProviderConfig;
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import com.github.xincao9.yurpc.core.constant.ResponseCode;
+import com.github.xincao9.yurpc.core.impl.Connection;
+import com.github.xincao9.yurpc.core.impl.MethodDescriptor;
+import com.github.xincao9.yurpc.core.impl.ServerHandler;
+import com.github.xincao9.yurpc.core.impl.YuRPCServerImpl;
+import com.github.xincao9.yurpc.core.protocol.Frame;
+import com.github.xincao9.yurpc.core.protocol.Handshake;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import com.github.xincao9.yurpc.core.protocol.Response;
+import com.github.xincao9.yurpc.core.serializer.Serializer;
+import com.github.xincao9.yurpc.core.serializer.SerializerFactory;
+import com.github.xincao9.yurpc.core.util.ByteBufUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.lang.reflect.Method;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 截止时间：握手协商后请求携带剩余时间，提供者在分发前和执行前丢弃过期的请求，
+ * 服务方法中发起的调用通过 YuRPCContext 继承剩余时间
+ *
+ * @author xincao9@gmail.com
+ */
+public class DeadlineTest {
+
+    public interface TimedService {
+
+        String slow(String name);
+
+        int work(String name);
+
+        long peek();
+
+        long outer(String name);
+
+        long inner();
+    }
+
+    public static class TimedServiceImpl implements TimedService {
+
+        private static volatile YuRPCClient client; // 嵌套调用使用的客户端
+        private final AtomicInteger works = new AtomicInteger();
+
+        @Override
+        public String slow(String name) {
+            sleep(50);
+            return name;
+        }
+
+        @Override
+        public int work(String name) {
+            return works.incrementAndGet();
+        }
+
+        @Override
+        public long peek() {
+            return YuRPCContext.getDeadline();
+        }
+
+        @Override
+        public long outer(String name) {
+            sleep(300);
+            return client.proxy(TimedService.class).inner();
+        }
+
+        @Override
+        public long inner() {
+            return YuRPCContext.getRemainingMS();
+        }
+
+        private static void sleep(long ms) {
+            try {
+                Thread.sleep(ms);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 记录提供者回写的响应，业务线程写出时也是线程安全的
+     */
+    private static class Capture extends ChannelOutboundHandlerAdapter {
+
+        private final BlockingQueue<Response> responses = new LinkedBlockingQueue();
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            responses.add((Response) msg);
+            promise.setSuccess();
+        }
+
+        private Response take() throws InterruptedException {
+            return responses.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Request request(long id, String name, Object... args) throws Exception {
+        for (Method method : TimedService.class.getMethods()) {
+            if (method.getName().equals(name)) {
+                Request request = new MethodDescriptor(method).createRequest(args);
+                request.setId(id);
+                return request;
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+    /**
+     * 按连接的握手结果编码
+     *
+     * @param request 请求
+     * @param handshake 握手结果，为空时表示未握手
+     * @return 帧
+     */
+    private static ByteBuf encode(Request request, Handshake handshake) {
+        EmbeddedChannel channel = new EmbeddedChannel(new FrameEncoder());
+        if (handshake != null) {
+            Connection connection = new Connection(Integer.MAX_VALUE);
+            connection.complete(handshake);
+            channel.attr(Connection.KEY).set(connection);
+        }
+        channel.writeOutbound(request);
+        ByteBuf frame = channel.readOutbound();
+        channel.finishAndReleaseAll();
+        return frame;
+    }
+
+    private static Handshake handshake(boolean deadline) {
+        Handshake handshake = new Handshake();
+        handshake.setDeadline(deadline);
+        return handshake;
+    }
+
+    private static boolean hasDeadline(ByteBuf frame) {
+        try {
+            return (frame.getByte(3) & ProtocolConsts.FLAG_DEADLINE) != 0;
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Test
+    public void testEncode() throws Exception {
+        Request request = request(1, "work", "a");
+        request.setDeadline(System.nanoTime() + TimeUnit.SECONDS.toNanos(5));
+        // 对端没有协商截止时间时不写剩余时间，旧版本提供者仍能解码
+        Assert.assertFalse(hasDeadline(encode(request, null)));
+        Assert.assertFalse(hasDeadline(encode(request, handshake(false))));
+        Request noDeadline = request(1, "work", "a");
+        Assert.assertFalse(hasDeadline(encode(noDeadline, handshake(true))));
+        EmbeddedChannel channel = new EmbeddedChannel(new FrameDecoder());
+        try {
+            channel.writeInbound(encode(request, handshake(true)));
+            Frame frame = channel.readInbound();
+            try {
+                Assert.assertTrue(frame.hasDeadline());
+                Request decoded = MessageCodec.decodeRequest(frame);
+                long remainingMS = TimeUnit.NANOSECONDS.toMillis(decoded.getDeadline() - System.nanoTime());
+                Assert.assertTrue(remainingMS > 4000 && remainingMS <= 5000);
+                Assert.assertEquals(request.getMethod(), decoded.getMethod());
+                Assert.assertArrayEquals(new Object[]{"a"}, decoded.getParams());
+            } finally {
+                frame.release();
+            }
+        } finally {
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    @Test
+    public void testExpired() throws Throwable {
+        TimedServiceImpl service = new TimedServiceImpl();
+        YuRPCServerImpl server = new YuRPCServerImpl();
+        ProviderConfig providerConfig = new ProviderConfig();
+        providerConfig.setThreads(1);
+        server.register(service, providerConfig);
+        ServerHandler serverHandler = new ServerHandler();
+        serverHandler.setYuRPCServer(server);
+        Capture capture = new Capture();
+        EmbeddedChannel channel = new EmbeddedChannel(capture, new FrameDecoder(), serverHandler);
+        try {
+            // 到达时已经过期：剩余时间为 0，分发前直接返回
+            Serializer serializer = SerializerFactory.getDefault();
+            ByteBuf body = Unpooled.buffer();
+            ByteBufUtils.writeVarInt(body, 0);
+            MessageCodec.encodeRequest(request(1, "work", "a"), serializer, body);
+            channel.writeInbound(new Frame(ProtocolConsts.VERSION_2, (byte) (ProtocolConsts.FLAG_REQUEST | ProtocolConsts.FLAG_DEADLINE), serializer.getId(), 1L, body));
+            Response response = capture.take();
+            Assert.assertEquals(1L, (long) response.getId());
+            Assert.assertEquals(ResponseCode.DEADLINE_EXCEEDED, response.getCode());
+            // 排队期间过期：唯一的业务线程被占用，执行前丢弃；排队时间低于 yurpc.server.queueIntervalMS，不会被当作过载丢弃
+            channel.writeInbound(encode(request(2, "slow", "b"), null));
+            Request work = request(3, "work", "c");
+            work.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10));
+            channel.writeInbound(encode(work, handshake(true)));
+            Assert.assertEquals(2L, (long) capture.take().getId());
+            response = capture.take();
+            Assert.assertEquals(3L, (long) response.getId());
+            Assert.assertEquals(ResponseCode.DEADLINE_EXCEEDED, response.getCode());
+            Assert.assertEquals(0, service.works.get());
+        } finally {
+            channel.finishAndReleaseAll();
+            serverHandler.shutdown();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testContext() throws Throwable {
+        YuRPCServerImpl server = new YuRPCServerImpl();
+        ProviderConfig providerConfig = new ProviderConfig();
+        providerConfig.setThreads(1);
+        server.register(new TimedServiceImpl(), providerConfig);
+        ServerHandler serverHandler = new ServerHandler();
+        serverHandler.setYuRPCServer(server);
+        Capture capture = new Capture();
+        EmbeddedChannel channel = new EmbeddedChannel(capture, new FrameDecoder(), serverHandler);
+        try {
+            Request peek = request(1, "peek");
+            peek.setDeadline(System.nanoTime() + TimeUnit.SECONDS.toNanos(5));
+            channel.writeInbound(encode(peek, handshake(true)));
+            Response response = capture.take();
+            Assert.assertEquals(ResponseCode.OK, response.getCode());
+            Assert.assertNotEquals(0L, ((Number) response.getData()).longValue());
+            // 同一个业务线程上的下一次调用看不到上一次的截止时间
+            channel.writeInbound(encode(request(2, "peek"), handshake(true)));
+            response = capture.take();
+            Assert.assertEquals(ResponseCode.OK, response.getCode());
+            Assert.assertEquals(0L, ((Number) response.getData()).longValue());
+        } finally {
+            channel.finishAndReleaseAll();
+            serverHandler.shutdown();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testNested() throws Throwable {
+        YuRPCServer server = YuRPCServer.defaultYuRPCServer();
+        server.register(new TimedServiceImpl());
+        server.start();
+        YuRPCClient client = YuRPCClient.defaultYuRPCClient();
+        client.start();
+        TimedServiceImpl.client = client;
+        try {
+            TimedService timedService = client.proxy(TimedService.class);
+            Assert.assertEquals("warm", timedService.slow("warm"));
+            // 调用超时 1000ms，外层方法用掉 300ms 后，嵌套调用只剩余下的时间
+            long remainingMS = timedService.outer("a");
+            Assert.assertTrue(String.valueOf(remainingMS), remainingMS > 0 && remainingMS <= 750);
+            Assert.assertEquals(0L, YuRPCContext.getDeadline());
+        } finally {
+            TimedServiceImpl.client = null;
+            client.shutdown();
+            server.shutdown();
+        }
+    }
+}
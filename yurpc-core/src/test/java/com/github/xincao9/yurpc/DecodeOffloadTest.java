@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.codec.FrameDecoder;
+import com.github.xincao9.yurpc.core.codec.FrameEncoder;
+import com.github.xincao9.yurpc.core.config.ServerConfig;
+import com.github.xincao9.yurpc.core.constant.ResponseCode;
+import com.github.xincao9.yurpc.core.impl.EventLoopStats;
+import com.github.xincao9.yurpc.core.impl.ServerHandler;
+import com.github.xincao9.yurpc.core.impl.YuRPCServerImpl;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import com.github.xincao9.yurpc.core.protocol.Response;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 解码转出：消息体达到 yurpc.server.decodeOffloadThreshold 的请求在业务线程池解码，其余在 IO 线程解码；
+ * EventLoopStats 记录每条消息占用 IO 线程的时间
+ *
+ * @author xincao9@gmail.com
+ */
+public class DecodeOffloadTest {
+
+    /**
+     * 记录回写响应的线程；找不到服务的响应在解码后立即写出，写出线程就是解码线程
+     */
+    private static class Capture extends ChannelOutboundHandlerAdapter {
+
+        private final BlockingQueue<String> threads = new LinkedBlockingQueue();
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            if (ResponseCode.NOT_FOUND_COMPONENT.equals(((Response) msg).getCode())) {
+                threads.add(Thread.currentThread().getName());
+            }
+            promise.setSuccess();
+        }
+
+        private String take() throws InterruptedException {
+            return threads.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static ByteBuf encode(int length) {
+        Request request = Request.createRequest(true, "com.github.xincao9.yurpc.Unknown.call", RandomStringUtils.randomAlphanumeric(length));
+        request.setId(1L);
+        request.setParamTypes(new String[]{String.class.getTypeName()});
+        EmbeddedChannel channel = new EmbeddedChannel(new FrameEncoder());
+        channel.writeOutbound(request);
+        ByteBuf frame = channel.readOutbound();
+        channel.finishAndReleaseAll();
+        return frame;
+    }
+
+    @Test
+    public void testOffload() throws Throwable {
+        int threshold = ServerConfig.decodeOffloadThreshold;
+        Assert.assertTrue(threshold > 64);
+        YuRPCServerImpl server = new YuRPCServerImpl();
+        ServerHandler serverHandler = new ServerHandler();
+        serverHandler.setYuRPCServer(server);
+        Capture capture = new Capture();
+        EmbeddedChannel channel = new EmbeddedChannel(capture, new FrameDecoder(), serverHandler);
+        EventLoopStats stats = server.getEventLoopStats();
+        try {
+            String eventLoop = Thread.currentThread().getName();
+            channel.writeInbound(encode(threshold / 2));
+            Assert.assertEquals(eventLoop, capture.take());
+            Assert.assertEquals(1, stats.getMessages());
+            Assert.assertEquals(0, stats.getOffloaded());
+            channel.writeInbound(encode(threshold * 2));
+            Assert.assertTrue(capture.take().startsWith("yurpc-processor"));
+            Assert.assertEquals(2, stats.getMessages());
+            Assert.assertEquals(1, stats.getOffloaded());
+            long max = stats.getAndResetMaxNanos();
+            Assert.assertTrue(max > 0 && max <= stats.getNanos());
+            Assert.assertEquals(0, stats.getAndResetMaxNanos());
+        } finally {
+            channel.finishAndReleaseAll();
+            serverHandler.shutdown();
+        }
+    }
+
+    @Test
+    public void testStats() {
+        EventLoopStats stats = new EventLoopStats();
+        stats.record(100, false);
+        stats.record(300, true);
+        stats.record(200, false);
+        Assert.assertEquals(3, stats.getMessages());
+        Assert.assertEquals(1, stats.getOffloaded());
+        Assert.assertEquals(600, stats.getNanos());
+        Assert.assertEquals("EventLoopStats(messages=3, offloaded=1, avgNanos=200, maxNanos=300)", stats.toString());
+        // 最大值读取后清零，计数只增不减
+        Assert.assertEquals(300, stats.getAndResetMaxNanos());
+        Assert.assertEquals(0, stats.getAndResetMaxNanos());
+        stats.record(50, false);
+        Assert.assertEquals(50, stats.getAndResetMaxNanos());
+        Assert.assertEquals(4, stats.getMessages());
+        Assert.assertEquals(650, stats.getNanos());
+    }
+}
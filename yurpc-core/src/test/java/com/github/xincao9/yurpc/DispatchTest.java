@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.YuRPCServerTest.Say;
+import com.github.xincao9.yurpc.YuRPCServerTest.SayService;
+import com.github.xincao9.yurpc.YuRPCServerTest.SayServiceImpl;
+import com.github.xincao9.yurpc.core.impl.ServiceMethod;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 服务端分发测试，对比每次反射查找调用与注册时预先生成的分发表
+ *
+ * @author xincao9@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class DispatchTest {
+
+    private final Map<String, Object> components = new HashMap<>();
+    private ServiceMethod[] serviceMethods;
+    private String name;
+    private String[] paramTypes;
+    private Object[] params;
+
+    @Setup
+    public void setUp() throws Exception {
+        SayService sayService = new SayServiceImpl();
+        components.put(SayService.class.getTypeName(), sayService);
+        Method method = SayService.class.getMethod("perform", Say.class);
+        serviceMethods = new ServiceMethod[]{null, new ServiceMethod(1, SayService.class.getTypeName(), sayService, method)};
+        name = SayService.class.getTypeName() + ".perform";
+        paramTypes = new String[]{Say.class.getTypeName()};
+        params = new Object[]{new Say(1, RandomStringUtils.randomAscii(128))};
+    }
+
+    /**
+     * 原实现：按名称和参数类型反射查找方法，再通过 Method.invoke 调用
+     *
+     * @return 返回值
+     * @throws Exception 异常
+     */
+    @Benchmark
+    public Object reflective(Blackhole blackhole) throws Exception {
+        int idx = name.lastIndexOf('.');
+        Object component = components.get(name.substring(0, idx));
+        Class<?>[] classes = new Class[paramTypes.length];
+        for (int i = 0; i < paramTypes.length; i++) {
+            classes[i] = Class.forName(paramTypes[i]);
+        }
+        Method method = component.getClass().getMethod(name.substring(idx + 1), classes);
+        blackhole.consume(method.getGenericParameterTypes());
+        blackhole.consume(method.getGenericReturnType());
+        return method.invoke(component, params);
+    }
+
+    /**
+     * 分发表：按方法编号取出预先绑定的 MethodHandle 调用
+     *
+     * @return 返回值
+     * @throws Throwable 异常
+     */
+    @Benchmark
+    public Object dispatchTable(Blackhole blackhole) throws Throwable {
+        ServiceMethod serviceMethod = serviceMethods[1];
+        blackhole.consume(serviceMethod.getParamTypes());
+        blackhole.consume(serviceMethod.getReturnType());
+        return serviceMethod.invoke(params);
+    }
+
+    @Test
+    public void testMethod() throws Throwable {
+        Options opt = new OptionsBuilder()
+                .include(getClass().getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.codec.FrameDecoder;
+import com.github.xincao9.yurpc.core.codec.FrameEncoder;
+import com.github.xincao9.yurpc.core.codec.MessageCodec;
+import com.github.xincao9.yurpc.core.codec.ProtocolDetector;
+import com.github.xincao9.yurpc.core.codec.StringDecoder;
+import com.github.xincao9.yurpc.core.codec.StringEncoder;
+import com.github.xincao9.yurpc.core.compressor.SnappyCompressor;
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import com.github.xincao9.yurpc.core.impl.Connection;
+import com.github.xincao9.yurpc.core.protocol.Frame;
+import com.github.xincao9.yurpc.core.protocol.Handshake;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import com.github.xincao9.yurpc.core.protocol.Response;
+import com.github.xincao9.yurpc.core.serializer.SerializerFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 帧编解码：各标志组合的头部往返，非法头部的拒绝，以及按连接的前两个字节选择协议
+ *
+ * @author xincao9@gmail.com
+ */
+public class FrameCodecTest {
+
+    private static final String METHOD = "com.github.xincao9.yurpc.Echo.echo";
+    private static final String LONG_TEXT = StringUtils.repeat("yurpc", 1024); // 可压缩
+
+    private static Request request(long id, String text) {
+        Request request = Request.createRequest(true, METHOD, text);
+        request.setId(id);
+        request.setParamTypes(new String[]{String.class.getTypeName()});
+        return request;
+    }
+
+    private static Response response(long id, String text) {
+        Response response = Response.createResponse(id, text);
+        response.setDataType(String.class);
+        return response;
+    }
+
+    /**
+     * 协商了截止时间和压缩的连接
+     *
+     * @return 连接状态
+     */
+    private static Connection connection() {
+        Handshake handshake = new Handshake();
+        handshake.setDeadline(Boolean.TRUE);
+        handshake.setCompressor(SnappyCompressor.NAME);
+        Connection connection = new Connection(1024);
+        connection.complete(handshake);
+        return connection;
+    }
+
+    /**
+     * 编码、检查头部后再解码
+     *
+     * @param msg 请求或响应
+     * @param flags 期望的标志
+     * @return 解码的帧
+     */
+    private static Frame roundTrip(Object msg, int flags) {
+        EmbeddedChannel channel = new EmbeddedChannel(new FrameEncoder(), new FrameDecoder());
+        channel.attr(Connection.KEY).set(connection());
+        try {
+            channel.writeOutbound(msg);
+            ByteBuf out = channel.readOutbound();
+            Assert.assertEquals(ProtocolConsts.MAGIC, out.getShort(0));
+            Assert.assertEquals(ProtocolConsts.VERSION_2, out.getByte(2));
+            Assert.assertEquals(flags, out.getByte(3));
+            Assert.assertEquals(SerializerFactory.getDefault().getId(), out.getByte(4));
+            Assert.assertEquals(out.readableBytes() - ProtocolConsts.HEADER_LENGTH, out.getInt(ProtocolConsts.BODY_LENGTH_OFFSET));
+            long id = out.getLong(5);
+            channel.writeInbound(out);
+            Frame frame = channel.readInbound();
+            Assert.assertEquals(ProtocolConsts.VERSION_2, frame.getVersion());
+            // 解码器解压后去掉 FLAG_COMPRESSED
+            Assert.assertEquals(flags & ~ProtocolConsts.FLAG_COMPRESSED, frame.getFlags());
+            Assert.assertEquals(id, frame.getId());
+            return frame;
+        } finally {
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    private static void assertRequest(Request request, int flags) throws Exception {
+        Frame frame = roundTrip(request, flags);
+        try {
+            Request decoded = MessageCodec.decodeRequest(frame);
+            Assert.assertEquals(request.getId(), decoded.getId());
+            Assert.assertEquals(request.getEventType(), decoded.getEventType());
+            Assert.assertEquals(request.isOneway(), decoded.isOneway());
+            Assert.assertEquals(request.getDeadline() != 0, decoded.getDeadline() != 0);
+            Assert.assertEquals(request.getMethod(), decoded.getMethod());
+            if (!request.getEventType()) {
+                Assert.assertArrayEquals(request.getParams(), decoded.getParams());
+            }
+        } finally {
+            frame.release();
+        }
+    }
+
+    private static void assertResponse(Response response, int flags) throws Exception {
+        Frame frame = roundTrip(response, flags);
+        try {
+            Response decoded = MessageCodec.decodeResponse(frame, String.class);
+            Assert.assertEquals(response.getId(), decoded.getId());
+            Assert.assertEquals(response.getEventType(), decoded.getEventType());
+            Assert.assertEquals(response.getCode(), decoded.getCode());
+            Assert.assertEquals(response.getData(), decoded.getData());
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Test
+    public void testFlags() throws Exception {
+        assertRequest(request(1, "a"), ProtocolConsts.FLAG_REQUEST);
+        Request event = Request.createEvent(ProtocolConsts.EVENT_HEARTBEAT);
+        assertRequest(event, ProtocolConsts.FLAG_REQUEST | ProtocolConsts.FLAG_EVENT);
+        Request oneway = request(2, "b");
+        oneway.setOneway(true);
+        assertRequest(oneway, ProtocolConsts.FLAG_REQUEST | ProtocolConsts.FLAG_ONEWAY);
+        Request deadline = request(3, "c");
+        deadline.setDeadline(System.nanoTime() + TimeUnit.SECONDS.toNanos(5));
+        assertRequest(deadline, ProtocolConsts.FLAG_REQUEST | ProtocolConsts.FLAG_DEADLINE);
+        assertRequest(request(4, LONG_TEXT), ProtocolConsts.FLAG_REQUEST | ProtocolConsts.FLAG_COMPRESSED);
+        Request all = request(Long.MAX_VALUE, LONG_TEXT);
+        all.setOneway(true);
+        all.setDeadline(System.nanoTime() + TimeUnit.SECONDS.toNanos(5));
+        assertRequest(all, ProtocolConsts.FLAG_REQUEST | ProtocolConsts.FLAG_ONEWAY | ProtocolConsts.FLAG_DEADLINE | ProtocolConsts.FLAG_COMPRESSED);
+
+        assertResponse(response(5, "d"), ProtocolConsts.FLAG_RESPONSE);
+        Response eventResponse = response(6, "e");
+        eventResponse.setEventType(Boolean.TRUE);
+        assertResponse(eventResponse, ProtocolConsts.FLAG_RESPONSE | ProtocolConsts.FLAG_EVENT);
+        assertResponse(response(7, LONG_TEXT), ProtocolConsts.FLAG_RESPONSE | ProtocolConsts.FLAG_COMPRESSED);
+    }
+
+    /**
+     * 非法头部：不产生帧，关闭连接
+     *
+     * @param magic 魔数
+     * @param version 版本
+     * @param length 消息体长度
+     */
+    private static void assertRejected(int magic, int version, int length) {
+        EmbeddedChannel channel = new EmbeddedChannel(new FrameDecoder());
+        ByteBuf in = Unpooled.buffer();
+        in.writeShort(magic);
+        in.writeByte(version);
+        in.writeByte(ProtocolConsts.FLAG_REQUEST);
+        in.writeByte(SerializerFactory.getDefault().getId());
+        in.writeLong(1L);
+        in.writeInt(length);
+        in.writeZero(16);
+        Assert.assertFalse(channel.writeInbound(in));
+        Assert.assertNull(channel.readInbound());
+        Assert.assertFalse(channel.isOpen());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testRejected() {
+        assertRejected(0x1234, ProtocolConsts.VERSION_2, 16);
+        assertRejected(ProtocolConsts.MAGIC, ProtocolConsts.VERSION_1, 16);
+        assertRejected(ProtocolConsts.MAGIC, 3, 16);
+        assertRejected(ProtocolConsts.MAGIC, ProtocolConsts.VERSION_2, ProtocolConsts.MAX_BODY_LENGTH + 1);
+        assertRejected(ProtocolConsts.MAGIC, ProtocolConsts.VERSION_2, -1);
+    }
+
+    @Test
+    public void testDetectLegacy() throws Exception {
+        EmbeddedChannel client = new EmbeddedChannel(new StringEncoder());
+        client.writeOutbound(request(1, "a"));
+        ByteBuf legacy = client.readOutbound();
+        client.finishAndReleaseAll();
+        EmbeddedChannel channel = new EmbeddedChannel(new ProtocolDetector());
+        try {
+            // 前两个字节到达之前不做判断
+            Assert.assertFalse(channel.writeInbound(legacy.readRetainedSlice(1)));
+            Assert.assertNotNull(channel.pipeline().get(ProtocolDetector.class));
+            channel.writeInbound(legacy);
+            Assert.assertNull(channel.pipeline().get(ProtocolDetector.class));
+            Assert.assertNotNull(channel.pipeline().get(StringDecoder.class));
+            Assert.assertNotNull(channel.pipeline().get(StringEncoder.class));
+            Assert.assertNull(channel.pipeline().get(FrameDecoder.class));
+            Frame frame = channel.readInbound();
+            try {
+                Assert.assertTrue(frame.isLegacy());
+                Assert.assertEquals(METHOD, MessageCodec.decodeRequest(frame).getMethod());
+            } finally {
+                frame.release();
+            }
+        } finally {
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    @Test
+    public void testDetectFrame() throws Exception {
+        EmbeddedChannel client = new EmbeddedChannel(new FrameEncoder());
+        client.writeOutbound(request(1, "a"));
+        ByteBuf out = client.readOutbound();
+        client.finishAndReleaseAll();
+        EmbeddedChannel channel = new EmbeddedChannel(new ProtocolDetector());
+        try {
+            channel.writeInbound(out);
+            Assert.assertNull(channel.pipeline().get(ProtocolDetector.class));
+            Assert.assertNotNull(channel.pipeline().get(FrameDecoder.class));
+            Assert.assertNotNull(channel.pipeline().get(FrameEncoder.class));
+            Assert.assertNull(channel.pipeline().get(StringDecoder.class));
+            Frame frame = channel.readInbound();
+            try {
+                Assert.assertFalse(frame.isLegacy());
+                Assert.assertEquals(METHOD, MessageCodec.decodeRequest(frame).getMethod());
+            } finally {
+                frame.release();
+            }
+        } finally {
+            channel.finishAndReleaseAll();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.YuRPCClient;
+import com.github.xincao9.yurpc.core.YuRPCServer;
+import com.github.xincao9.yurpc.core.config.ConsumerConfig;
+import com.github.xincao9.yurpc.core.constant.ResponseCode;
+import com.github.xincao9.yurpc.core.impl.PendingCall;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import com.github.xincao9.yurpc.core.protocol.Response;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 调用超时：由共用的时间轮结束调用，响应先到时取消超时任务，消费者可以单独指定超时时间
+ *
+ * @author xincao9@gmail.com
+ */
+public class InvokeTimeoutTest {
+
+    public interface SlowService {
+
+        String slow(String name);
+    }
+
+    public static class SlowServiceImpl implements SlowService {
+
+        @Override
+        public String slow(String name) {
+            try {
+                Thread.sleep(600);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return name;
+        }
+    }
+
+    @Test
+    public void testCancelOnResponse() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+        try {
+            PendingCall pendingCall = new PendingCall(Request.createRequest(true, "com.example.SlowService.slow"), null);
+            Timeout timeout = timer.newTimeout((Timeout t) -> pendingCall.putResponse(Response.createResponse(1L, ResponseCode.INVOKE_TIMEOUT, ResponseCode.INVOKE_TIMEOUT_MSG)), 1, TimeUnit.SECONDS);
+            pendingCall.setTimeout(timeout);
+            pendingCall.putResponse(Response.createResponse(1L, "ok"));
+            Assert.assertTrue(timeout.isCancelled());
+            // 响应先于超时任务登记时，登记即取消
+            PendingCall done = new PendingCall(Request.createRequest(true, "com.example.SlowService.slow"), null);
+            done.putResponse(Response.createResponse(2L, "ok"));
+            Timeout late = timer.newTimeout((Timeout t) -> {
+            }, 1, TimeUnit.SECONDS);
+            done.setTimeout(late);
+            Assert.assertTrue(late.isCancelled());
+            Assert.assertEquals(ResponseCode.OK, done.getResponse().getCode());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testConsumerTimeout() throws Throwable {
+        YuRPCServer server = YuRPCServer.defaultYuRPCServer();
+        server.register(new SlowServiceImpl());
+        server.start();
+        YuRPCClient client = YuRPCClient.defaultYuRPCClient();
+        client.start();
+        try {
+            // 配置文件中的超时时间是 1000ms
+            Assert.assertEquals("default", client.proxy(SlowService.class).slow("default"));
+            ConsumerConfig consumerConfig = new ConsumerConfig();
+            consumerConfig.setInvokeTimeoutMS(100);
+            SlowService slowService = client.proxy(SlowService.class, consumerConfig);
+            long start = System.nanoTime();
+            try {
+                slowService.slow("timeout");
+                Assert.fail("timeout expected");
+            } catch (RuntimeException e) {
+                Assert.assertEquals(ResponseCode.INVOKE_TIMEOUT_MSG, e.getMessage());
+            }
+            long elapsedMS = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assert.assertTrue("elapsed = " + elapsedMS, elapsedMS >= 100 && elapsedMS < 500);
+        } finally {
+            client.shutdown();
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.loadbalancer.EndpointStats;
+import com.github.xincao9.yurpc.core.loadbalancer.LeastActiveLoadBalancer;
+import com.github.xincao9.yurpc.core.loadbalancer.LoadBalancer;
+import com.github.xincao9.yurpc.core.loadbalancer.LoadBalancerFactory;
+import com.github.xincao9.yurpc.core.loadbalancer.P2CLoadBalancer;
+import com.github.xincao9.yurpc.core.loadbalancer.RandomLoadBalancer;
+import com.github.xincao9.yurpc.core.loadbalancer.RoundRobinLoadBalancer;
+import com.github.xincao9.yurpc.core.loadbalancer.WeightedLoadBalancer;
+import com.github.xincao9.yurpc.core.protocol.Endpoint;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 负载均衡策略：按名字加载，轮询、权重、最少活跃和 P2C 的选择结果
+ *
+ * @author xincao9@gmail.com
+ */
+public class LoadBalancerTest {
+
+    private static final Request REQUEST = Request.createRequest(true, "com.example.SayService.perform");
+
+    private static List<Endpoint> endpoints(Integer... weights) {
+        List<Endpoint> endpoints = new ArrayList();
+        for (int i = 0; i < weights.length; i++) {
+            Endpoint endpoint = new Endpoint();
+            endpoint.setHost("10.0.0." + i);
+            endpoint.setPort(12306);
+            endpoint.setWeight(weights[i]);
+            endpoints.add(endpoint);
+        }
+        return endpoints;
+    }
+
+    private static Map<Endpoint, Integer> count(LoadBalancer loadBalancer, List<Endpoint> endpoints, Map<Endpoint, EndpointStats> stats, int n) {
+        Map<Endpoint, Integer> counts = new HashMap();
+        for (int i = 0; i < n; i++) {
+            counts.merge(loadBalancer.select(endpoints, REQUEST, (Endpoint e) -> stats.computeIfAbsent(e, (Endpoint k) -> new EndpointStats())), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    public void testFactory() {
+        for (String name : new String[]{RandomLoadBalancer.NAME, RoundRobinLoadBalancer.NAME, WeightedLoadBalancer.NAME, LeastActiveLoadBalancer.NAME, P2CLoadBalancer.NAME}) {
+            Assert.assertTrue(name, LoadBalancerFactory.names().contains(name));
+            Assert.assertEquals(name, LoadBalancerFactory.get(name).getName());
+        }
+        Assert.assertNull(LoadBalancerFactory.get("missing"));
+        Assert.assertEquals(LoadBalancerFactory.DEFAULT_LOAD_BALANCER, LoadBalancerFactory.getDefault().getName());
+    }
+
+    @Test
+    public void testRoundRobin() {
+        List<Endpoint> endpoints = endpoints(null, null, null);
+        Map<Endpoint, Integer> counts = count(new RoundRobinLoadBalancer(), endpoints, new HashMap(), 300);
+        for (Endpoint endpoint : endpoints) {
+            Assert.assertEquals(Integer.valueOf(100), counts.get(endpoint));
+        }
+    }
+
+    @Test
+    public void testWeighted() {
+        List<Endpoint> endpoints = endpoints(100, 300, 0);
+        Map<Endpoint, Integer> counts = count(new WeightedLoadBalancer(), endpoints, new HashMap(), 40000);
+        Assert.assertNull("weight 0 never selected", counts.get(endpoints.get(2)));
+        double ratio = (double) counts.get(endpoints.get(1)) / counts.get(endpoints.get(0));
+        Assert.assertEquals(3, ratio, 0.3);
+    }
+
+    @Test
+    public void testLeastActive() {
+        List<Endpoint> endpoints = endpoints(null, null, null);
+        Map<Endpoint, EndpointStats> stats = new HashMap();
+        for (Endpoint endpoint : endpoints) {
+            stats.put(endpoint, new EndpointStats());
+        }
+        stats.get(endpoints.get(0)).begin();
+        stats.get(endpoints.get(0)).begin();
+        stats.get(endpoints.get(2)).begin();
+        Map<Endpoint, Integer> counts = count(new LeastActiveLoadBalancer(), endpoints, stats, 100);
+        Assert.assertEquals(Integer.valueOf(100), counts.get(endpoints.get(1)));
+    }
+
+    @Test
+    public void testP2CAvoidsSlowEndpoint() {
+        List<Endpoint> endpoints = endpoints(null, null, null, null);
+        Map<Endpoint, EndpointStats> stats = new HashMap();
+        for (int i = 0; i < endpoints.size(); i++) {
+            EndpointStats endpointStats = new EndpointStats();
+            endpointStats.begin();
+            endpointStats.end(TimeUnit.MILLISECONDS.toNanos(i == 0 ? 100 : 1));
+            stats.put(endpoints.get(i), endpointStats);
+        }
+        // 两两比较时慢的端点总是输，只有抽到两个都是它时才会被选中，而两次抽取不重复
+        Map<Endpoint, Integer> counts = count(new P2CLoadBalancer(), endpoints, stats, 1000);
+        Assert.assertNull(counts.get(endpoints.get(0)));
+        Assert.assertEquals(3, counts.size());
+    }
+}
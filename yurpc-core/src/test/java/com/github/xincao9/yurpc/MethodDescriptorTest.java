@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.impl.MethodDescriptor;
+import com.github.xincao9.yurpc.core.impl.ServiceMethod;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 客户端方法描述：代理生成时计算的名字、签名和类型，与服务端方法表的签名一致
+ *
+ * @author xincao9@gmail.com
+ */
+public class MethodDescriptorTest {
+
+    public interface CatalogService {
+
+        List<String> find(String name, Map<String, Integer> filters);
+
+        void touch();
+    }
+
+    @Test
+    public void testCreateRequest() throws Exception {
+        MethodDescriptor descriptor = new MethodDescriptor(CatalogService.class.getMethod("find", String.class, Map.class));
+        String name = CatalogService.class.getTypeName() + ".find";
+        Assert.assertEquals(name, descriptor.getName());
+        Assert.assertArrayEquals(new String[]{String.class.getTypeName(), Map.class.getTypeName()}, descriptor.getParamTypes());
+        Assert.assertEquals(ServiceMethod.signature(name, new Class[]{String.class, Map.class}), descriptor.getSignature());
+        Assert.assertEquals(CatalogService.class.getMethod("find", String.class, Map.class).getGenericReturnType(), descriptor.getReturnType());
+        Request request = descriptor.createRequest(new Object[]{"yurpc", null});
+        Assert.assertTrue(request.getRequestType());
+        Assert.assertEquals(name, request.getMethod());
+        Assert.assertSame(descriptor.getParamTypes(), request.getParamTypes());
+        Assert.assertSame(descriptor.getGenericParamTypes(), request.getGenericParamTypes());
+        Assert.assertEquals(descriptor.getReturnType(), request.getReturnType());
+        Assert.assertEquals(descriptor.getSignature(), request.getSignature());
+        Assert.assertEquals("yurpc", request.getParams()[0]);
+    }
+
+    @Test
+    public void testNoParamsVoid() throws Exception {
+        MethodDescriptor descriptor = new MethodDescriptor(CatalogService.class.getMethod("touch"));
+        Assert.assertNull(descriptor.getParamTypes());
+        Assert.assertNull(descriptor.getReturnType());
+        Assert.assertEquals(CatalogService.class.getTypeName() + ".touch()", descriptor.getSignature());
+        Request request = descriptor.createRequest(null);
+        Assert.assertFalse(request.getRequestType());
+        Assert.assertNull(request.getParamTypes());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.YuRPCServerTest.Say;
+import com.github.xincao9.yurpc.YuRPCServerTest.SayService;
+import com.github.xincao9.yurpc.YuRPCServerTest.SayServiceImpl;
+import com.github.xincao9.yurpc.core.impl.Connection;
+import com.github.xincao9.yurpc.core.impl.ServiceMethod;
+import com.github.xincao9.yurpc.core.impl.YuRPCServerImpl;
+import com.github.xincao9.yurpc.core.protocol.Handshake;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 方法表：注册时按签名排序编号，握手下发后客户端按签名查编号，服务端按编号分发
+ *
+ * @author xincao9@gmail.com
+ */
+public class MethodTableTest {
+
+    public interface EchoService {
+
+        String echo(String s);
+
+        int echo(int i);
+
+        String upper(String s);
+    }
+
+    public static class EchoServiceImpl implements EchoService {
+
+        @Override
+        public String echo(String s) {
+            return s;
+        }
+
+        @Override
+        public int echo(int i) {
+            return i;
+        }
+
+        @Override
+        public String upper(String s) {
+            return s.toUpperCase();
+        }
+    }
+
+    @Test
+    public void testIds() throws Throwable {
+        YuRPCServerImpl server = new YuRPCServerImpl(0, null);
+        server.register(new SayServiceImpl());
+        server.register(new EchoServiceImpl());
+        Map<String, Integer> methodTable = server.getMethodTable();
+        Assert.assertEquals(4, methodTable.size());
+        // 编号从 1 开始连续分配，0 表示按名字调用
+        Set<Integer> ids = new HashSet(methodTable.values());
+        for (int id = 1; id <= 4; id++) {
+            Assert.assertTrue(ids.contains(id));
+        }
+        Assert.assertNull(server.getServiceMethod(0));
+        Assert.assertNull(server.getServiceMethod(5));
+        methodTable.forEach((signature, id) -> Assert.assertSame(server.getServiceMethod(signature), server.getServiceMethod(id)));
+        // 同一服务的方法按签名排序
+        String name = EchoService.class.getTypeName();
+        int echoInt = methodTable.get(ServiceMethod.signature(name + ".echo", new Class[]{int.class}));
+        int echoString = methodTable.get(ServiceMethod.signature(name + ".echo", new Class[]{String.class}));
+        int upper = methodTable.get(ServiceMethod.signature(name + ".upper", new Class[]{String.class}));
+        Assert.assertTrue(echoInt < echoString && echoString < upper);
+        Assert.assertEquals("HELLO", server.getServiceMethod(upper).invoke(new Object[]{"hello"}));
+        Assert.assertEquals(7, server.getServiceMethod(echoInt).invoke(new Object[]{7}));
+    }
+
+    @Test
+    public void testHandshake() throws Throwable {
+        YuRPCServerImpl server = new YuRPCServerImpl(0, null);
+        server.register(new SayServiceImpl());
+        Connection connection = new Connection(0);
+        String name = SayService.class.getTypeName() + ".perform";
+        String[] paramTypes = new String[]{Say.class.getTypeName()};
+        // 握手前按名字调用
+        Assert.assertEquals(0, connection.getMethodId(name, paramTypes));
+        Handshake handshake = new Handshake();
+        handshake.setMethods(server.getMethodTable());
+        connection.complete(handshake);
+        int id = connection.getMethodId(name, paramTypes);
+        Assert.assertTrue(id > 0);
+        Assert.assertEquals(id, connection.getMethodId(ServiceMethod.signature(name, paramTypes)));
+        Assert.assertSame(server.getServiceMethod(ServiceMethod.signature(name, paramTypes)), server.getServiceMethod(id));
+        Assert.assertEquals(0, connection.getMethodId(name + "Missing", paramTypes));
+    }
+}
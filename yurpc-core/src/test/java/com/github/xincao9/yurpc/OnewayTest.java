@@ -0,0 +1,177 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.YuRPCClient;
+import com.github.xincao9.yurpc.core.YuRPCServer;
+import com.github.xincao9.yurpc.core.annotation.Oneway;
+import com.github.xincao9.yurpc.core.codec.FrameDecoder;
+import com.github.xincao9.yurpc.core.codec.FrameEncoder;
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import com.github.xincao9.yurpc.core.constant.ResponseCode;
+import com.github.xincao9.yurpc.core.impl.MethodDescriptor;
+import com.github.xincao9.yurpc.core.impl.ServerHandler;
+import com.github.xincao9.yurpc.core.impl.YuRPCServerImpl;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import com.github.xincao9.yurpc.core.protocol.Response;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 单向调用：请求带 FLAG_ONEWAY，不登记到调用表，写出后即结束；提供者不回写任何响应
+ *
+ * @author xincao9@gmail.com
+ */
+public class OnewayTest {
+
+    public interface NotifyService {
+
+        @Oneway
+        void fire(String event);
+
+        @Oneway
+        void boom(String event);
+
+        String echo(String event);
+    }
+
+    public static class NotifyServiceImpl implements NotifyService {
+
+        private final CountDownLatch fired = new CountDownLatch(1);
+        private final CountDownLatch boomed = new CountDownLatch(1);
+        private final long delayMS;
+
+        public NotifyServiceImpl(long delayMS) {
+            this.delayMS = delayMS;
+        }
+
+        @Override
+        public void fire(String event) {
+            try {
+                Thread.sleep(delayMS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            fired.countDown();
+        }
+
+        @Override
+        public void boom(String event) {
+            boomed.countDown();
+            throw new IllegalStateException(event);
+        }
+
+        @Override
+        public String echo(String event) {
+            return event;
+        }
+    }
+
+    private static Request request(String name, Object... args) throws Exception {
+        for (Method method : NotifyService.class.getMethods()) {
+            if (method.getName().equals(name)) {
+                return new MethodDescriptor(method).createRequest(args);
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+    /**
+     * 编码后的帧
+     *
+     * @param request 请求
+     * @return 帧
+     */
+    private static ByteBuf encode(Request request) {
+        EmbeddedChannel channel = new EmbeddedChannel(new FrameEncoder());
+        channel.writeOutbound(request);
+        ByteBuf frame = channel.readOutbound();
+        channel.finishAndReleaseAll();
+        return frame;
+    }
+
+    @Test
+    public void testFlag() throws Exception {
+        Request request = request("fire", "a");
+        Assert.assertTrue(request.isOneway());
+        ByteBuf frame = encode(request);
+        try {
+            Assert.assertEquals(ProtocolConsts.FLAG_REQUEST | ProtocolConsts.FLAG_ONEWAY, frame.getByte(3));
+        } finally {
+            frame.release();
+        }
+        Assert.assertFalse(request("echo", "a").isOneway());
+    }
+
+    @Test
+    public void testProviderWritesNothing() throws Exception {
+        NotifyServiceImpl service = new NotifyServiceImpl(0);
+        YuRPCServerImpl server = new YuRPCServerImpl();
+        server.register(service);
+        ServerHandler serverHandler = new ServerHandler();
+        serverHandler.setYuRPCServer(server);
+        EmbeddedChannel channel = new EmbeddedChannel(new FrameDecoder(), serverHandler);
+        try {
+            channel.writeInbound(encode(request("fire", "a")));
+            channel.writeInbound(encode(request("boom", "b")));
+            Request unknown = request("fire", "c");
+            unknown.setMethod(NotifyService.class.getTypeName() + ".unknown");
+            channel.writeInbound(encode(unknown));
+            Assert.assertTrue(service.fired.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(service.boomed.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            channel.runPendingTasks();
+            Assert.assertNull(channel.readOutbound());
+            // 同样的请求不是单向调用时会回写错误响应
+            unknown.setOneway(false);
+            channel.writeInbound(encode(unknown));
+            Response response = channel.readOutbound();
+            Assert.assertEquals(ResponseCode.NOT_FOUND_METHOD, response.getCode());
+        } finally {
+            channel.finishAndReleaseAll();
+            serverHandler.shutdown();
+        }
+    }
+
+    @Test
+    public void testCompletesWithoutReply() throws Throwable {
+        NotifyServiceImpl service = new NotifyServiceImpl(2000);
+        YuRPCServer server = YuRPCServer.defaultYuRPCServer();
+        server.register(service);
+        server.start();
+        YuRPCClient client = YuRPCClient.defaultYuRPCClient();
+        client.start();
+        try {
+            NotifyService notifyService = client.proxy(NotifyService.class);
+            Assert.assertEquals("warm", notifyService.echo("warm"));
+            Request request = request("fire", "a");
+            Response response = client.invokeAsync(request).get(1, TimeUnit.SECONDS);
+            Assert.assertEquals(ResponseCode.OK, response.getCode());
+            // 提供者还在执行，调用已经结束；请求编号由调用表分配，单向调用没有登记
+            Assert.assertEquals(1, service.fired.getCount());
+            Assert.assertEquals(0L, (long) request.getId());
+            Assert.assertTrue(service.fired.await(5, TimeUnit.SECONDS));
+        } finally {
+            client.shutdown();
+            server.shutdown();
+        }
+    }
+}
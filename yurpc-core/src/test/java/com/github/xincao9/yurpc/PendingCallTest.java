@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.constant.ResponseCode;
+import com.github.xincao9.yurpc.core.impl.PendingCall;
+import com.github.xincao9.yurpc.core.protocol.Endpoint;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import com.github.xincao9.yurpc.core.protocol.Response;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 等待响应的调用：响应只设置一次，请求本身不携带调用状态
+ *
+ * @author xincao9@gmail.com
+ */
+public class PendingCallTest {
+
+    private static PendingCall pendingCall() {
+        Request request = Request.createRequest(true, "com.example.SayService.perform", "hello");
+        Endpoint endpoint = new Endpoint();
+        endpoint.setHost("127.0.0.1");
+        endpoint.setPort(12306);
+        return new PendingCall(request, endpoint);
+    }
+
+    @Test
+    public void testFirstResponseWins() throws Exception {
+        PendingCall pendingCall = pendingCall();
+        Assert.assertNull(pendingCall.getResponse());
+        Response<String> response = Response.createResponse(1L, "world");
+        Assert.assertTrue(pendingCall.putResponse(response));
+        Assert.assertFalse(pendingCall.putResponse(Response.createResponse(1L, ResponseCode.INVOKE_TIMEOUT, ResponseCode.INVOKE_TIMEOUT_MSG)));
+        Assert.assertSame(response, pendingCall.getResponse());
+        Assert.assertSame(response, pendingCall.waitResponse(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testWaitTimeout() throws Exception {
+        PendingCall pendingCall = pendingCall();
+        Assert.assertNull(pendingCall.waitResponse(10, TimeUnit.MILLISECONDS));
+        Assert.assertFalse(pendingCall.getFuture().isDone());
+    }
+
+    @Test
+    public void testEndpoint() {
+        PendingCall pendingCall = pendingCall();
+        Assert.assertEquals("127.0.0.1", pendingCall.getHost());
+        Assert.assertEquals(Integer.valueOf(12306), pendingCall.getPort());
+        PendingCall noEndpoint = new PendingCall(pendingCall.getRequest(), null);
+        Assert.assertNull(noEndpoint.getHost());
+        Assert.assertNull(noEndpoint.getPort());
+    }
+}
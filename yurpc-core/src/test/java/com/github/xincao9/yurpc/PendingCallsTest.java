@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.constant.ProtocolConsts;
+import com.github.xincao9.yurpc.core.constant.ResponseCode;
+import com.github.xincao9.yurpc.core.impl.ClientHandler;
+import com.github.xincao9.yurpc.core.impl.PendingCall;
+import com.github.xincao9.yurpc.core.impl.PendingCalls;
+import com.github.xincao9.yurpc.core.protocol.Frame;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import com.github.xincao9.yurpc.core.protocol.Response;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 连接的调用表：按请求编号定位槽位，占用的槽位顺延，移除只有一方成功
+ *
+ * @author xincao9@gmail.com
+ */
+public class PendingCallsTest {
+
+    private static PendingCall pendingCall() {
+        return new PendingCall(Request.createRequest(true, "com.example.SayService.perform"), null);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        PendingCalls pendingCalls = new PendingCalls(4);
+        PendingCall pendingCall = pendingCall();
+        Assert.assertTrue(pendingCalls.put(pendingCall));
+        long id = pendingCall.getId();
+        Assert.assertTrue(id > 0);
+        Assert.assertEquals(Long.valueOf(id), pendingCall.getRequest().getId());
+        Assert.assertSame(pendingCall, pendingCalls.get(id));
+        // 同一槽位上的其它编号不匹配
+        Assert.assertNull(pendingCalls.get(id + 4));
+        Assert.assertSame(pendingCall, pendingCalls.remove(id));
+        Assert.assertNull(pendingCalls.remove(id));
+        Assert.assertFalse(pendingCall.detach());
+    }
+
+    @Test
+    public void testDetachOnce() {
+        PendingCalls pendingCalls = new PendingCalls(4);
+        PendingCall pendingCall = pendingCall();
+        Assert.assertFalse("not attached", pendingCall.detach());
+        pendingCalls.put(pendingCall);
+        // 超时、发送失败和收到响应只有一方能移出
+        Assert.assertTrue(pendingCall.detach());
+        Assert.assertFalse(pendingCall.detach());
+        Assert.assertNull(pendingCalls.get(pendingCall.getId()));
+    }
+
+    @Test
+    public void testSkipOccupiedSlots() {
+        PendingCalls pendingCalls = new PendingCalls(3); // 向上取整为 4
+        PendingCall[] calls = new PendingCall[4];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = pendingCall();
+            Assert.assertTrue(pendingCalls.put(calls[i]));
+        }
+        Assert.assertFalse("full", pendingCalls.put(pendingCall()));
+        pendingCalls.remove(calls[1].getId());
+        PendingCall next = pendingCall();
+        Assert.assertTrue(pendingCalls.put(next));
+        // 编号顺延到空出的槽位，编号不重复
+        for (PendingCall call : calls) {
+            Assert.assertNotEquals(call.getId(), next.getId());
+        }
+        Assert.assertSame(next, pendingCalls.get(next.getId()));
+        Assert.assertSame(calls[2], pendingCalls.get(calls[2].getId()));
+    }
+
+    @Test
+    public void testClose() {
+        PendingCalls pendingCalls = new PendingCalls(8);
+        for (int i = 0; i < 5; i++) {
+            pendingCalls.put(pendingCall());
+        }
+        List<PendingCall> pending = pendingCalls.close();
+        Assert.assertEquals(5, pending.size());
+        Assert.assertTrue(pendingCalls.isClosed());
+        Assert.assertFalse(pendingCalls.put(pendingCall()));
+        for (PendingCall pendingCall : pending) {
+            Assert.assertFalse(pendingCall.detach());
+        }
+    }
+
+    @Test
+    public void testDecodeFailureFailsCall() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ClientHandler());
+        PendingCalls pendingCalls = new PendingCalls(8);
+        channel.attr(PendingCalls.KEY).set(pendingCalls);
+        PendingCall other = pendingCall();
+        pendingCalls.put(other);
+        PendingCall unknownSerializer = pendingCall();
+        pendingCalls.put(unknownSerializer);
+        PendingCall truncated = pendingCall();
+        pendingCalls.put(truncated);
+        // 对端使用了不支持的序列化组件
+        channel.writeInbound(new Frame(ProtocolConsts.VERSION_2, ProtocolConsts.FLAG_RESPONSE, (byte) 99, unknownSerializer.getId(), Unpooled.wrappedBuffer(new byte[]{0})));
+        // 消息体被截断：code 之后的字符串长度超出消息体
+        channel.writeInbound(new Frame(ProtocolConsts.VERSION_2, ProtocolConsts.FLAG_RESPONSE, ProtocolConsts.SERIALIZER_COMPACT, truncated.getId(), Unpooled.wrappedBuffer(new byte[]{0, 100})));
+        for (PendingCall pendingCall : new PendingCall[]{unknownSerializer, truncated}) {
+            // 不等超时，立即以解码失败结束
+            Response response = pendingCall.getResponse();
+            Assert.assertNotNull(response);
+            Assert.assertEquals(ResponseCode.DECODE_FAILURE, response.getCode());
+            Assert.assertNull(pendingCalls.get(pendingCall.getId()));
+        }
+        // 连接和其它调用不受影响
+        Assert.assertTrue(channel.isActive());
+        Assert.assertSame(other, pendingCalls.get(other.getId()));
+        Assert.assertNull(other.getResponse());
+        channel.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.annotation.RateLimit;
+import com.github.xincao9.yurpc.core.config.ServerConfig;
+import com.github.xincao9.yurpc.core.impl.RateLimiter;
+import com.github.xincao9.yurpc.core.impl.ServiceMethod;
+import com.github.xincao9.yurpc.core.impl.YuRPCServerImpl;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 限流：突发量、多线程下的总速率和方法限流器的注册
+ *
+ * @author xincao9@gmail.com
+ */
+public class RateLimiterTest {
+
+    private static int drain(RateLimiter limiter) {
+        int n = 0;
+        while (limiter.tryAcquire()) {
+            n++;
+        }
+        return n;
+    }
+
+    @Test
+    public void testBurst() {
+        long start = System.nanoTime();
+        RateLimiter limiter = new RateLimiter(1000);
+        int burst = drain(limiter);
+        long elapsedMS = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // 每个分段的许可数向下取整，突发量约为一秒的许可数，加上取许可期间按速率补充的
+        int max = 1000 + (int) elapsedMS + Runtime.getRuntime().availableProcessors() * 2;
+        Assert.assertTrue("burst = " + burst + " max = " + max, burst > 900 && burst <= max);
+    }
+
+    @Test
+    public void testSinglePermit() throws Exception {
+        RateLimiter limiter = new RateLimiter(1);
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPermits() {
+        new RateLimiter(0);
+    }
+
+    @Test
+    public void testRateAcrossThreads() throws Exception {
+        RateLimiter limiter = new RateLimiter(1000);
+        drain(limiter);
+        // 线程固定使用不同的分段，本分段用完时从其它分段借用，总速率与线程数无关
+        int threads = 4;
+        long duration = TimeUnit.MILLISECONDS.toNanos(500);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    long end = System.nanoTime() + duration;
+                    while (System.nanoTime() < end) {
+                        if (limiter.tryAcquire()) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue("granted = " + granted.get(), granted.get() >= 400 && granted.get() <= 600);
+    }
+
+    public interface ExportService {
+
+        @RateLimit(5)
+        String export(String name);
+
+        String export(String name, int limit);
+
+        String query(String name);
+
+        String query(int id);
+    }
+
+    public static class ExportServiceImpl implements ExportService {
+
+        @Override
+        public String export(String name) {
+            return name;
+        }
+
+        @Override
+        public String export(String name, int limit) {
+            return name;
+        }
+
+        @Override
+        public String query(String name) {
+            return name;
+        }
+
+        @Override
+        public String query(int id) {
+            return String.valueOf(id);
+        }
+    }
+
+    @Test
+    public void testMethodRateLimiters() throws Exception {
+        String name = ExportService.class.getTypeName();
+        ServerConfig.rateLimits.put(name + ".query", 10);
+        try {
+            YuRPCServerImpl server = new YuRPCServerImpl(0, null);
+            server.register(new ExportServiceImpl());
+            ServiceMethod queryName = server.getServiceMethod(ServiceMethod.signature(name + ".query", new Class[]{String.class}));
+            ServiceMethod queryId = server.getServiceMethod(ServiceMethod.signature(name + ".query", new Class[]{int.class}));
+            // 按 服务名.方法名 配置时重载的方法共用一个限流器
+            Assert.assertNotNull(queryName.getMethodRateLimiter());
+            Assert.assertSame(queryName.getMethodRateLimiter(), queryId.getMethodRateLimiter());
+            Assert.assertEquals(10, queryName.getMethodRateLimiter().getPermitsPerSecond());
+            // 注解只限制标注的方法
+            ServiceMethod export = server.getServiceMethod(ServiceMethod.signature(name + ".export", new Class[]{String.class}));
+            ServiceMethod exportLimit = server.getServiceMethod(ServiceMethod.signature(name + ".export", new Class[]{String.class, int.class}));
+            Assert.assertEquals(5, export.getMethodRateLimiter().getPermitsPerSecond());
+            Assert.assertNull(exportLimit.getMethodRateLimiter());
+            Assert.assertNull(export.getServiceRateLimiter());
+        } finally {
+            ServerConfig.rateLimits.remove(name + ".query");
+        }
+    }
+}
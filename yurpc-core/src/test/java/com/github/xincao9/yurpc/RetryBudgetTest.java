@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.impl.RetryBudget;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 重试预算：并发存入不丢失，取出受预算限制
+ *
+ * @author xincao9@gmail.com
+ */
+public class RetryBudgetTest {
+
+    @Test
+    public void testConcurrentDeposits() throws Exception {
+        RetryBudget budget = new RetryBudget(10);
+        while (budget.tryWithdraw()) {
+        }
+        Assert.assertEquals(0, budget.getBalance(), 0.0001);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int n = 0; n < 100; n++) {
+                    budget.deposit();
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // 400 次调用，10% 即 40 个令牌，未达到上限
+        Assert.assertEquals(40, budget.getBalance(), 0.0001);
+        int retries = 0;
+        while (budget.tryWithdraw()) {
+            retries++;
+        }
+        Assert.assertEquals(40, retries);
+    }
+
+    @Test
+    public void testCapacity() {
+        RetryBudget budget = new RetryBudget(100);
+        for (int n = 0; n < 1000; n++) {
+            budget.deposit();
+        }
+        Assert.assertEquals(100, budget.getBalance(), 0.0001);
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.serializer.Serializer;
+import com.github.xincao9.yurpc.core.serializer.SerializerFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 序列化组件测试，对比 DTO 序列化加反序列化的耗时、分配量和编码后的字节数
+ *
+ * @author xincao9@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SerializerTest {
+
+    @Param({"fastjson", "compact", "positional"})
+    private String name;
+    private Serializer serializer;
+    private Order order;
+    private ByteBuf buffer;
+
+    @Setup
+    public void setUp() throws Exception {
+        serializer = SerializerFactory.get(name);
+        order = new Order();
+        order.setId(20200601L);
+        order.setUserId(9527);
+        order.setAmount(199.9);
+        order.setPaid(true);
+        order.setRemark(RandomStringUtils.randomAlphanumeric(64));
+        order.setCreateTime(new Date());
+        List<Item> items = new ArrayList();
+        for (int i = 0; i < 5; i++) {
+            Item item = new Item();
+            item.setSku(RandomStringUtils.randomAlphanumeric(16));
+            item.setQuantity(i + 1);
+            item.setPrice(9.9 * i);
+            items.add(item);
+        }
+        order.setItems(items);
+        buffer = PooledByteBufAllocator.DEFAULT.heapBuffer(1024);
+        serializer.serialize(order, Order.class, buffer);
+        System.out.println(String.format("serializer = %s size = %d bytes", name, buffer.readableBytes()));
+        Order copy = (Order) serializer.deserialize(buffer, Order.class);
+        if (!Objects.equals(order.getRemark(), copy.getRemark()) || copy.getItems().size() != items.size() || !(copy.getItems().get(0) instanceof Item)) {
+            throw new IllegalStateException(String.format("serializer = %s round trip mismatch", name));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        buffer.release();
+    }
+
+    /**
+     * 序列化后立即反序列化
+     *
+     * @return 对象
+     * @throws Exception 异常
+     */
+    @Benchmark
+    public Object roundTrip() throws Exception {
+        buffer.clear();
+        serializer.serialize(order, Order.class, buffer);
+        return serializer.deserialize(buffer, Order.class);
+    }
+
+    @Test
+    public void testMethod() throws Throwable {
+        Options opt = new OptionsBuilder()
+                .include(getClass().getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class Order {
+
+        private Long id;
+        private int userId;
+        private double amount;
+        private boolean paid;
+        private String remark;
+        private Date createTime;
+        private List<Item> items;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public void setUserId(int userId) {
+            this.userId = userId;
+        }
+
+        public double getAmount() {
+            return amount;
+        }
+
+        public void setAmount(double amount) {
+            this.amount = amount;
+        }
+
+        public boolean isPaid() {
+            return paid;
+        }
+
+        public void setPaid(boolean paid) {
+            this.paid = paid;
+        }
+
+        public String getRemark() {
+            return remark;
+        }
+
+        public void setRemark(String remark) {
+            this.remark = remark;
+        }
+
+        public Date getCreateTime() {
+            return createTime;
+        }
+
+        public void setCreateTime(Date createTime) {
+            this.createTime = createTime;
+        }
+
+        public List<Item> getItems() {
+            return items;
+        }
+
+        public void setItems(List<Item> items) {
+            this.items = items;
+        }
+    }
+
+    public static class Item {
+
+        private String sku;
+        private int quantity;
+        private double price;
+
+        public String getSku() {
+            return sku;
+        }
+
+        public void setSku(String sku) {
+            this.sku = sku;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public void setPrice(double price) {
+            this.price = price;
+        }
+    }
+}
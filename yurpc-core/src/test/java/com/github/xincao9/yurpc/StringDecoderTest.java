@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.alibaba.fastjson.JSONObject;
+import com.github.xincao9.yurpc.core.codec.MessageCodec;
+import com.github.xincao9.yurpc.core.codec.StringDecoder;
+import com.github.xincao9.yurpc.core.protocol.Frame;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 旧协议解码测试，对比逐条消息的分配量（gc.alloc.rate.norm）
+ *
+ * @author xincao9@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class StringDecoderTest {
+
+    private ByteBuf frame;
+    private EmbeddedChannel copyChannel;
+    private EmbeddedChannel sliceChannel;
+
+    @Setup
+    public void setUp() {
+        Request request = new Request();
+        request.setRequestType(Boolean.TRUE);
+        request.setEventType(Boolean.FALSE);
+        request.setId(1L);
+        request.setMethod("com.github.xincao9.yurpc.SayService.perform");
+        request.setParamTypes(new String[]{String.class.getTypeName()});
+        request.setParams(new Object[]{RandomStringUtils.randomAscii(128)});
+        byte[] data = request.toString().getBytes();
+        frame = PooledByteBufAllocator.DEFAULT.directBuffer(4 + data.length);
+        frame.writeInt(data.length);
+        frame.writeBytes(data);
+        copyChannel = new EmbeddedChannel(new CopyStringDecoder());
+        sliceChannel = new EmbeddedChannel(new StringDecoder());
+    }
+
+    @TearDown
+    public void tearDown() {
+        copyChannel.finishAndReleaseAll();
+        sliceChannel.finishAndReleaseAll();
+        frame.release();
+    }
+
+    /**
+     * 原实现：复制到堆内 ByteBuffer，再复制消息体，再构造字符串
+     *
+     * @return 请求
+     */
+    @Benchmark
+    public Request copy() {
+        copyChannel.writeInbound(frame.retainedDuplicate());
+        String str = copyChannel.readInbound();
+        return JSONObject.parseObject(str, Request.class);
+    }
+
+    /**
+     * 切片实现：消息体直接从累积缓冲区反序列化
+     *
+     * @return 请求
+     * @throws Exception 异常
+     */
+    @Benchmark
+    public Request slice() throws Exception {
+        sliceChannel.writeInbound(frame.retainedDuplicate());
+        Frame msg = sliceChannel.readInbound();
+        try {
+            return MessageCodec.decodeRequest(msg);
+        } finally {
+            msg.release();
+        }
+    }
+
+    @Test
+    public void testMethod() throws Throwable {
+        Options opt = new OptionsBuilder()
+                .include(getClass().getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+    /**
+     * 原字符串解码器，作为对照组
+     */
+    public static class CopyStringDecoder extends ByteToMessageDecoder {
+
+        @Override
+        protected void decode(ChannelHandlerContext chc, ByteBuf byteBuf, List<Object> list) throws Exception {
+            try {
+                do {
+                    int readerIndex = byteBuf.readerIndex();
+                    int readableBytesSize = byteBuf.readableBytes();
+                    if (readableBytesSize < 4) {
+                        byteBuf.readerIndex(readerIndex);
+                        break;
+                    }
+                    int size = byteBuf.readInt();
+                    if (readableBytesSize - 4 < size) {
+                        byteBuf.readerIndex(readerIndex);
+                        break;
+                    }
+                    byteBuf.readerIndex(readerIndex);
+                    ByteBuffer byteBuffer = ByteBuffer.allocate(4 + size);
+                    byteBuf.readBytes(byteBuffer);
+                    byte[] data = byteBuffer.array();
+                    byte[] body = Arrays.copyOfRange(data, 4, data.length);
+                    list.add(new String(body, "UTF-8"));
+                } while (byteBuf.isReadable());
+            } finally {
+                if (byteBuf.isReadable()) {
+                    byteBuf.discardReadBytes();
+                }
+            }
+        }
+    }
+}
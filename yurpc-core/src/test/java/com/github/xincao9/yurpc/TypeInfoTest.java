@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.github.xincao9.yurpc.core.serializer.ClassInfo;
+import com.github.xincao9.yurpc.core.serializer.TypeInfo;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 声明类型的绑定信息：泛型参数、数组元素和字段类型按实际参数替换，并且只解析一次
+ *
+ * @author xincao9@gmail.com
+ */
+public class TypeInfoTest {
+
+    public static class Page<T> {
+
+        private List<T> items;
+        private T first;
+        private int total;
+    }
+
+    public static class StringPage extends Page<String> {
+    }
+
+    public interface PageService {
+
+        Page<Integer> page();
+
+        Map<String, List<? extends Number>> stats();
+
+        String[] names();
+    }
+
+    private static Type returnType(String name) throws Exception {
+        return PageService.class.getMethod(name).getGenericReturnType();
+    }
+
+    private static TypeInfo field(TypeInfo typeInfo, String name) throws Exception {
+        Field[] fields = ClassInfo.get(typeInfo.getRawClass()).getFields();
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].getName().equals(name)) {
+                return typeInfo.getFields()[i];
+            }
+        }
+        throw new AssertionError(name);
+    }
+
+    @Test
+    public void testArguments() throws Exception {
+        TypeInfo stats = TypeInfo.of(returnType("stats"));
+        Assert.assertSame(Map.class, stats.getRawClass());
+        Assert.assertSame(String.class, stats.getArgument(0).getRawClass());
+        TypeInfo list = stats.getArgument(1);
+        Assert.assertSame(List.class, list.getRawClass());
+        // 通配符取上界
+        Assert.assertSame(Number.class, list.getArgument(0).getRawClass());
+        // 没有的参数按 Object
+        Assert.assertSame(TypeInfo.OBJECT, list.getArgument(1));
+        Assert.assertSame(String.class, TypeInfo.of(returnType("names")).getComponent().getRawClass());
+        Assert.assertSame(TypeInfo.OBJECT, stats.getComponent());
+    }
+
+    @Test
+    public void testFieldBindings() throws Exception {
+        TypeInfo page = TypeInfo.of(returnType("page"));
+        Assert.assertSame(Integer.class, field(page, "first").getRawClass());
+        Assert.assertSame(Integer.class, field(page, "items").getArgument(0).getRawClass());
+        Assert.assertSame(int.class, field(page, "total").getRawClass());
+        // 父类的类型参数沿继承关系传递
+        TypeInfo stringPage = TypeInfo.of(StringPage.class);
+        Assert.assertSame(String.class, field(stringPage, "first").getRawClass());
+        Assert.assertSame(String.class, field(stringPage, "items").getArgument(0).getRawClass());
+        // 没有绑定的类型变量取上界
+        Assert.assertSame(Object.class, field(TypeInfo.of(Page.class), "first").getRawClass());
+    }
+
+    @Test
+    public void testCached() throws Exception {
+        TypeInfo page = TypeInfo.of(returnType("page"));
+        Assert.assertSame(page, TypeInfo.of(returnType("page")));
+        Assert.assertSame(page.getFields(), page.getFields());
+        Assert.assertSame(page.getArgument(0), page.getArgument(0));
+    }
+}
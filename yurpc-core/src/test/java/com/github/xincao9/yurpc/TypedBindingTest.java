@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 xincao9@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xincao9.yurpc;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import com.github.xincao9.yurpc.YuRPCServerTest.Say;
+import com.github.xincao9.yurpc.YuRPCServerTest.SayService;
+import com.github.xincao9.yurpc.core.codec.FrameDecoder;
+import com.github.xincao9.yurpc.core.codec.FrameEncoder;
+import com.github.xincao9.yurpc.core.codec.MessageCodec;
+import com.github.xincao9.yurpc.core.codec.StringDecoder;
+import com.github.xincao9.yurpc.core.codec.StringEncoder;
+import com.github.xincao9.yurpc.core.protocol.Frame;
+import com.github.xincao9.yurpc.core.protocol.Request;
+import com.github.xincao9.yurpc.core.protocol.Response;
+import com.github.xincao9.yurpc.core.serializer.FastjsonSerializer;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 参数和返回值绑定测试，以 Say 为例对比一次完整调用（请求编解码 + 响应编解码）
+ *
+ * @author xincao9@gmail.com
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class TypedBindingTest {
+
+    private Request request;
+    private Type[] paramTypes;
+    private Type returnType;
+    private EmbeddedChannel legacyChannel;
+    private EmbeddedChannel frameChannel;
+
+    @Setup
+    public void setUp() throws Exception {
+        Method method = SayService.class.getMethod("perform", Say.class);
+        paramTypes = method.getGenericParameterTypes();
+        returnType = method.getGenericReturnType();
+        request = new Request();
+        request.setRequestType(Boolean.TRUE);
+        request.setEventType(Boolean.FALSE);
+        request.setId(1L);
+        request.setMethod(SayService.class.getTypeName() + ".perform");
+        request.setParamTypes(new String[]{Say.class.getTypeName()});
+        request.setGenericParamTypes(paramTypes);
+        request.setReturnType(returnType);
+        request.setSerializer(FastjsonSerializer.NAME);
+        request.setParams(new Object[]{new Say(1, RandomStringUtils.randomAscii(128))});
+        legacyChannel = new EmbeddedChannel(new StringEncoder(), new StringDecoder());
+        frameChannel = new EmbeddedChannel(new FrameEncoder(), new FrameDecoder());
+    }
+
+    @TearDown
+    public void tearDown() {
+        legacyChannel.finishAndReleaseAll();
+        frameChannel.finishAndReleaseAll();
+    }
+
+    /**
+     * 原实现：整体解析为 JSONObject，参数和返回值再各自转成 JSON 文本并重新解析
+     *
+     * @return 返回值
+     * @throws Exception 异常
+     */
+    @Benchmark
+    public Say doubleRoundTrip() throws Exception {
+        Request req = (Request) transfer(legacyChannel, request, null);
+        Say say = JSONObject.parseObject(JSONObject.toJSONString(req.getParams()[0]), Say.class);
+        Response resp = (Response) transfer(legacyChannel, Response.createResponse(req.getId(), say), null);
+        return JSON.parseObject(JSONObject.toJSONString(resp.getData(), SerializerFeature.DisableCircularReferenceDetect), Say.class);
+    }
+
+    /**
+     * 类型绑定：参数和返回值按方法声明的类型一次反序列化
+     *
+     * @return 返回值
+     * @throws Exception 异常
+     */
+    @Benchmark
+    public Say typed() throws Exception {
+        Request req = (Request) transfer(frameChannel, request, returnType);
+        Response response = Response.createResponse(req.getId(), req.getParams()[0]);
+        response.setDataType(returnType);
+        response.setSerializer(req.getSerializer());
+        Response resp = (Response) transfer(frameChannel, response, returnType);
+        return (Say) resp.getData();
+    }
+
+    private Object transfer(EmbeddedChannel channel, Object msg, Type dataType) throws Exception {
+        channel.writeOutbound(msg);
+        channel.writeInbound((Object) channel.readOutbound());
+        Frame frame = channel.readInbound();
+        try {
+            if (msg instanceof Request) {
+                return frame.isLegacy() ? FastjsonSerializer.parse(frame.content(), Request.class) : MessageCodec.decodeRequest(frame, req -> paramTypes);
+            }
+            return frame.isLegacy() ? FastjsonSerializer.parse(frame.content(), Response.class) : MessageCodec.decodeResponse(frame, dataType);
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Test
+    public void testMethod() throws Throwable {
+        Options opt = new OptionsBuilder()
+                .include(getClass().getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+}
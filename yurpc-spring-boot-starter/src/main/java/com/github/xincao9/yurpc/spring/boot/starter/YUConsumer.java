@@ -29,4 +29,24 @@ import java.lang.annotation.Target;
 @Documented
 public @interface YUConsumer {
 
+    /**
+     * 序列化组件名字，为空时使用 yurpc.client.serializer
+     *
+     * @return 名字
+     */
+    String serializer() default "";
+
+    /**
+     * 调用超时时间，不大于 0 时使用 yurpc.client.invokeTimeoutMS
+     *
+     * @return 毫秒
+     */
+    int invokeTimeoutMS() default 0;
+
+    /**
+     * 负载均衡组件名字，为空时使用 yurpc.client.loadBalancer
+     *
+     * @return 名字
+     */
+    String loadBalancer() default "";
 }
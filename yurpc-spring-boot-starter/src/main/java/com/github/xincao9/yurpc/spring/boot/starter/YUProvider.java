@@ -37,4 +37,32 @@ public @interface YUProvider {
 
     @AliasFor(annotation = Component.class)
     String value() default "";
+
+    /**
+     * 响应使用的序列化组件名字，为空时沿用请求的序列化组件
+     *
+     * @return 名字
+     */
+    String serializer() default "";
+
+    /**
+     * 服务独占的业务线程数，慢服务不会占满共享线程池；0 时使用共享线程池
+     *
+     * @return 线程数
+     */
+    int threads() default 0;
+
+    /**
+     * 独占线程池的等待队列长度，线程和队列都满时立即返回 SERVER OVERLOADED；0 时使用 yurpc.server.queueSize
+     *
+     * @return 队列长度
+     */
+    int queueSize() default 0;
+
+    /**
+     * 整个服务每秒许可数，超过时立即返回 RATE LIMITED；0 时不限流，yurpc.server.rateLimits 中的同名配置优先
+     *
+     * @return 每秒许可数
+     */
+    int rateLimit() default 0;
 }
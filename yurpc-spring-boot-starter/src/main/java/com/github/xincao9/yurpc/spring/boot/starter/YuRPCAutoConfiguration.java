@@ -146,6 +146,33 @@ public class YuRPCAutoConfiguration implements EnvironmentAware, InitializingBea
             if (environment.containsProperty(ServerConsts.PORT)) {
                 pros.setProperty(ServerConsts.PORT, environment.getProperty(ServerConsts.PORT));
             }
+            if (environment.containsProperty(ServerConsts.WEIGHT)) {
+                pros.setProperty(ServerConsts.WEIGHT, environment.getProperty(ServerConsts.WEIGHT));
+            }
+            if (environment.containsProperty(ServerConsts.COMPRESS_THRESHOLD)) {
+                pros.setProperty(ServerConsts.COMPRESS_THRESHOLD, environment.getProperty(ServerConsts.COMPRESS_THRESHOLD));
+            }
+            if (environment.containsProperty(ServerConsts.DECODE_OFFLOAD_THRESHOLD)) {
+                pros.setProperty(ServerConsts.DECODE_OFFLOAD_THRESHOLD, environment.getProperty(ServerConsts.DECODE_OFFLOAD_THRESHOLD));
+            }
+            if (environment.containsProperty(ServerConsts.THREADS)) {
+                pros.setProperty(ServerConsts.THREADS, environment.getProperty(ServerConsts.THREADS));
+            }
+            if (environment.containsProperty(ServerConsts.QUEUE_SIZE)) {
+                pros.setProperty(ServerConsts.QUEUE_SIZE, environment.getProperty(ServerConsts.QUEUE_SIZE));
+            }
+            if (environment.containsProperty(ServerConsts.QUEUE_TARGET_MS)) {
+                pros.setProperty(ServerConsts.QUEUE_TARGET_MS, environment.getProperty(ServerConsts.QUEUE_TARGET_MS));
+            }
+            if (environment.containsProperty(ServerConsts.QUEUE_INTERVAL_MS)) {
+                pros.setProperty(ServerConsts.QUEUE_INTERVAL_MS, environment.getProperty(ServerConsts.QUEUE_INTERVAL_MS));
+            }
+            if (environment.containsProperty(ServerConsts.RATE_LIMITS)) {
+                pros.setProperty(ServerConsts.RATE_LIMITS, environment.getProperty(ServerConsts.RATE_LIMITS));
+            }
+            if (environment.containsProperty(ServerConsts.ALLOWED_CLASSES)) {
+                pros.setProperty(ServerConsts.ALLOWED_CLASSES, environment.getProperty(ServerConsts.ALLOWED_CLASSES));
+            }
             ServerConfig.init(pros);
             yuRPCServer = new YuRPCServerImpl();
             yuRPCServer.setDiscoveryService(discoveryService);
@@ -174,6 +201,51 @@ public class YuRPCAutoConfiguration implements EnvironmentAware, InitializingBea
             if (environment.containsProperty(ClientConsts.INVOKE_TIMEOUT_MS)) {
                 pros.setProperty(ClientConsts.INVOKE_TIMEOUT_MS, environment.getProperty(ClientConsts.INVOKE_TIMEOUT_MS));
             }
+            if (environment.containsProperty(ClientConsts.PROTOCOL_VERSION)) {
+                pros.setProperty(ClientConsts.PROTOCOL_VERSION, environment.getProperty(ClientConsts.PROTOCOL_VERSION));
+            }
+            if (environment.containsProperty(ClientConsts.SERIALIZER)) {
+                pros.setProperty(ClientConsts.SERIALIZER, environment.getProperty(ClientConsts.SERIALIZER));
+            }
+            if (environment.containsProperty(ClientConsts.ALLOWED_CLASSES)) {
+                pros.setProperty(ClientConsts.ALLOWED_CLASSES, environment.getProperty(ClientConsts.ALLOWED_CLASSES));
+            }
+            if (environment.containsProperty(ClientConsts.COMPRESSOR)) {
+                pros.setProperty(ClientConsts.COMPRESSOR, environment.getProperty(ClientConsts.COMPRESSOR));
+            }
+            if (environment.containsProperty(ClientConsts.COMPRESS_THRESHOLD)) {
+                pros.setProperty(ClientConsts.COMPRESS_THRESHOLD, environment.getProperty(ClientConsts.COMPRESS_THRESHOLD));
+            }
+            if (environment.containsProperty(ClientConsts.LOAD_BALANCER)) {
+                pros.setProperty(ClientConsts.LOAD_BALANCER, environment.getProperty(ClientConsts.LOAD_BALANCER));
+            }
+            if (environment.containsProperty(ClientConsts.RETRY_BUDGET_PERCENT)) {
+                pros.setProperty(ClientConsts.RETRY_BUDGET_PERCENT, environment.getProperty(ClientConsts.RETRY_BUDGET_PERCENT));
+            }
+            if (environment.containsProperty(ClientConsts.MAX_RETRIES)) {
+                pros.setProperty(ClientConsts.MAX_RETRIES, environment.getProperty(ClientConsts.MAX_RETRIES));
+            }
+            if (environment.containsProperty(ClientConsts.CIRCUIT_BREAKER_ERROR_PERCENT)) {
+                pros.setProperty(ClientConsts.CIRCUIT_BREAKER_ERROR_PERCENT, environment.getProperty(ClientConsts.CIRCUIT_BREAKER_ERROR_PERCENT));
+            }
+            if (environment.containsProperty(ClientConsts.CIRCUIT_BREAKER_MIN_REQUESTS)) {
+                pros.setProperty(ClientConsts.CIRCUIT_BREAKER_MIN_REQUESTS, environment.getProperty(ClientConsts.CIRCUIT_BREAKER_MIN_REQUESTS));
+            }
+            if (environment.containsProperty(ClientConsts.CIRCUIT_BREAKER_WINDOW_MS)) {
+                pros.setProperty(ClientConsts.CIRCUIT_BREAKER_WINDOW_MS, environment.getProperty(ClientConsts.CIRCUIT_BREAKER_WINDOW_MS));
+            }
+            if (environment.containsProperty(ClientConsts.CIRCUIT_BREAKER_OPEN_MS)) {
+                pros.setProperty(ClientConsts.CIRCUIT_BREAKER_OPEN_MS, environment.getProperty(ClientConsts.CIRCUIT_BREAKER_OPEN_MS));
+            }
+            if (environment.containsProperty(ClientConsts.MAX_CONCURRENCY)) {
+                pros.setProperty(ClientConsts.MAX_CONCURRENCY, environment.getProperty(ClientConsts.MAX_CONCURRENCY));
+            }
+            if (environment.containsProperty(ClientConsts.CONNECTIONS_PER_ENDPOINT)) {
+                pros.setProperty(ClientConsts.CONNECTIONS_PER_ENDPOINT, environment.getProperty(ClientConsts.CONNECTIONS_PER_ENDPOINT));
+            }
+            if (environment.containsProperty(ClientConsts.MAX_PENDING_CALLS)) {
+                pros.setProperty(ClientConsts.MAX_PENDING_CALLS, environment.getProperty(ClientConsts.MAX_PENDING_CALLS));
+            }
             ClientConfig.init(pros);
             yuRPCClient = new YuRPCClientImpl();
             yuRPCClient.setDiscoveryService(discoveryService);
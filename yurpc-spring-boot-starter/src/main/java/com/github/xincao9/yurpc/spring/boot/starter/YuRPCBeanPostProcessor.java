@@ -17,6 +17,8 @@ package com.github.xincao9.yurpc.spring.boot.starter;
 
 import com.github.xincao9.yurpc.core.YuRPCClient;
 import com.github.xincao9.yurpc.core.YuRPCServer;
+import com.github.xincao9.yurpc.core.config.ConsumerConfig;
+import com.github.xincao9.yurpc.core.config.ProviderConfig;
 
 import java.lang.reflect.Field;
 
@@ -25,6 +27,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * 自动扫描，注册服务组件
@@ -54,7 +57,13 @@ public class YuRPCBeanPostProcessor implements BeanPostProcessor {
     @Override
     public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
         if (this.yuRPCServer != null && bean != null && bean.getClass().isAnnotationPresent(YUProvider.class)) {
-            this.yuRPCServer.register(bean);
+            YUProvider yuProvider = bean.getClass().getAnnotation(YUProvider.class);
+            ProviderConfig providerConfig = new ProviderConfig();
+            providerConfig.setSerializer(StringUtils.hasText(yuProvider.serializer()) ? yuProvider.serializer() : null);
+            providerConfig.setThreads(yuProvider.threads() > 0 ? yuProvider.threads() : null);
+            providerConfig.setQueueSize(yuProvider.queueSize() > 0 ? yuProvider.queueSize() : null);
+            providerConfig.setRateLimit(yuProvider.rateLimit() > 0 ? yuProvider.rateLimit() : null);
+            this.yuRPCServer.register(bean, providerConfig);
             LOGGER.info("register yurpc service = {}", beanName);
         }
         if (this.yuRPCClient != null && bean != null) {
@@ -64,7 +73,12 @@ public class YuRPCBeanPostProcessor implements BeanPostProcessor {
             if (fields != null && fields.length > 0) {
                 for (Field field : fields) {
                     if (field.isAnnotationPresent(YUConsumer.class)) {
-                        Object obj = this.yuRPCClient.proxy(field.getType());
+                        YUConsumer yuConsumer = field.getAnnotation(YUConsumer.class);
+                        ConsumerConfig consumerConfig = new ConsumerConfig();
+                        consumerConfig.setSerializer(StringUtils.hasText(yuConsumer.serializer()) ? yuConsumer.serializer() : null);
+                        consumerConfig.setInvokeTimeoutMS(yuConsumer.invokeTimeoutMS() > 0 ? yuConsumer.invokeTimeoutMS() : null);
+                        consumerConfig.setLoadBalancer(StringUtils.hasText(yuConsumer.loadBalancer()) ? yuConsumer.loadBalancer() : null);
+                        Object obj = this.yuRPCClient.proxy(field.getType(), consumerConfig);
                         try {
                             field.setAccessible(true);
                             field.set(bean, obj);